@@ -0,0 +1,350 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.processor;
+
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedField;
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Writes the formatting configuration of every class that uses the jObjectFormatter annotations to the index
+ * <code>META-INF/jobjectformatter/index</code>, and generates a
+ * {@link net.davidtanzer.jobjectformatter.typeinfo.GeneratedFormatter} for every such class.
+ *
+ * The index contains the configuration that the {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache} would
+ * otherwise read from the annotations at runtime, so the formatted output is exactly the same with and without the
+ * index. The TypeInfoCache reads the index once per class loader, so at runtime it does not have to read the
+ * annotations of indexed classes. This is what makes the first format of an object fast. To use the processor, simply
+ * add jobjectformatter-processor to the compile (or annotation processor) class path of your project.
+ *
+ * The generated formatter is called <code>&lt;Class&gt;$Formatter</code> and lives in the same package as the
+ * annotated class, so it can read all non-private fields of the class without reflection. Private fields (and fields
+ * whose type cannot be named outside of the class) are still read with method handles that are created from the
+ * reflected field. No formatter is generated for private classes, since the generated code could not read any of their
+ * fields.
+ *
+ * <strong>FormattedProcessor</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Formats objects the same way as reflection for all built in formatters.</li>
+ *     <li>Writes index entry for every annotated class.</li>
+ *     <li>Writes index entry for class with annotated to string.</li>
+ *     <li>Index entry has configuration from inherited to string.</li>
+ *     <li>Index entry contains configuration and fields.</li>
+ *     <li>Index entry describes fields in declaration order.</li>
+ *     <li>Does not write index entry for class without annotations.</li>
+ *     <li>Writes generated formatter to index.</li>
+ *     <li>Generated formatter has configuration from annotations.</li>
+ *     <li>Generated formatter reads non private fields itself.</li>
+ *     <li>Generated formatter leaves private fields_ and fields of private types to reflection.</li>
+ *     <li>Does not generate formatter for private classes.</li>
+ * </ul>
+ */
+public class FormattedProcessor extends AbstractProcessor {
+	private static final String INDEX_RESOURCE = "META-INF/jobjectformatter/index";
+	private static final String GENERATED_FORMATTER_SUFFIX = "$Formatter";
+	private static final String FIELD_READER_PREFIX = "read$";
+	private static final String FORMATTED_FIELD_TYPE = FormattedFieldType.class.getCanonicalName();
+	private static final String FORMATTED_INCLUDE = FormattedInclude.class.getCanonicalName();
+	private static final String TRANSITIVE_INCLUDE = TransitiveInclude.class.getCanonicalName();
+
+	private final StringBuilder index = new StringBuilder();
+
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return new HashSet<>(Arrays.asList(Formatted.class.getCanonicalName(), FormattedField.class.getCanonicalName()));
+	}
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+		final Set<TypeElement> formattedTypes = new LinkedHashSet<>();
+		for(TypeElement annotation : annotations) {
+			for(Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				final TypeElement formattedType = formattedTypeOf(element);
+				if(formattedType != null) {
+					formattedTypes.add(formattedType);
+				}
+			}
+		}
+
+		for(TypeElement formattedType : formattedTypes) {
+			final boolean formatterGenerated = canGenerateFormatterFor(formattedType) && generateFormatterFor(formattedType);
+			appendIndexEntry(formattedType, formatterGenerated);
+		}
+
+		if(roundEnv.processingOver() && index.length() > 0) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	private TypeElement formattedTypeOf(final Element element) {
+		Element type = element;
+		if(element.getKind() == ElementKind.FIELD || element.getKind() == ElementKind.METHOD) {
+			type = element.getEnclosingElement();
+		}
+
+		if(type.getKind() != ElementKind.CLASS) {
+			return null;
+		}
+		final NestingKind nestingKind = ((TypeElement) type).getNestingKind();
+		if(nestingKind != NestingKind.TOP_LEVEL && nestingKind != NestingKind.MEMBER) {
+			return null;
+		}
+		return (TypeElement) type;
+	}
+
+	private FormattedFieldType includeFieldOf(final VariableElement field, final Function<FormattedField, FormattedFieldType> mappingFunction) {
+		final FormattedField formattedField = field.getAnnotation(FormattedField.class);
+		return formattedField != null ? mappingFunction.apply(formattedField) : FormattedFieldType.NEVER;
+	}
+
+	private void appendIndexEntry(final TypeElement type, final boolean formatterGenerated) {
+		final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		index.append("type ").append(binaryName).append(' ')
+				.append(isFormatted(type)).append(' ')
+				.append(configurationFor(type, Formatted::value, FormattedInclude.ALL_FIELDS)).append(' ')
+				.append(configurationFor(type, Formatted::transitive, TransitiveInclude.NO_FIELDS)).append('\n');
+		if(formatterGenerated) {
+			index.append("formatter ").append(binaryName).append(GENERATED_FORMATTER_SUFFIX).append('\n');
+		}
+
+		for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			final String name = field.getSimpleName().toString();
+			if(name.startsWith("this")) {
+				continue;
+			}
+
+			final Formatted formatted = field.getAnnotation(Formatted.class);
+			index.append("field ").append(name).append(' ')
+					.append(formatted != null ? formatted.transitive().name() : "-").append(' ')
+					.append(includeFieldOf(field, FormattedField::value)).append(' ')
+					.append(includeFieldOf(field, FormattedField::transitive)).append('\n');
+		}
+	}
+
+	private boolean canGenerateFormatterFor(final TypeElement type) {
+		for(TypeElement memberType : ElementFilter.typesIn(type.getEnclosedElements())) {
+			if(memberType.getSimpleName().contentEquals("Formatter")) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+						"Cannot generate a formatter for "+type.getQualifiedName()+", since it already has a member type called Formatter. " +
+						"The fields of this type will be read using reflection.", type);
+				return false;
+			}
+		}
+		return isAccessibleFrom(type, processingEnv.getElementUtils().getPackageOf(type));
+	}
+
+	private boolean generateFormatterFor(final TypeElement type) {
+		final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(type);
+		final String packageName = packageElement.getQualifiedName().toString();
+		final String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		final String formatterName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + GENERATED_FORMATTER_SUFFIX;
+
+		try (Writer writer = processingEnv.getFiler().createSourceFile(binaryName + GENERATED_FORMATTER_SUFFIX, type).openWriter()) {
+			writer.write(formatterSource(type, packageElement, formatterName));
+			return true;
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Could not generate formatter for "+type.getQualifiedName()+": "+e.getMessage(), type);
+			return false;
+		}
+	}
+
+	private String formatterSource(final TypeElement type, final PackageElement packageElement, final String formatterName) {
+		final StringBuilder source = new StringBuilder();
+		if(!packageElement.isUnnamed()) {
+			source.append("package ").append(packageElement.getQualifiedName()).append(";\n\n");
+		}
+		source.append("/**\n")
+				.append(" * Formats {@code ").append(type.getQualifiedName()).append("}, generated by the jObjectFormatter annotation processor.\n")
+				.append(" */\n")
+				.append("@SuppressWarnings(\"rawtypes\")\n")
+				.append("public final class ").append(formatterName).append(" implements net.davidtanzer.jobjectformatter.typeinfo.GeneratedFormatter {\n")
+				.append("\tprivate static final java.lang.invoke.MethodHandles.Lookup LOOKUP = java.lang.invoke.MethodHandles.lookup();\n\n")
+				.append("\t@Override\n")
+				.append("\tpublic ").append(FORMATTED_INCLUDE).append(" formattedInclude() {\n")
+				.append("\t\treturn ").append(FORMATTED_INCLUDE).append('.').append(configurationFor(type, Formatted::value, FormattedInclude.ALL_FIELDS)).append(";\n")
+				.append("\t}\n\n")
+				.append("\t@Override\n")
+				.append("\tpublic ").append(TRANSITIVE_INCLUDE).append(" transitiveInclude() {\n")
+				.append("\t\treturn ").append(TRANSITIVE_INCLUDE).append('.').append(configurationFor(type, Formatted::transitive, TransitiveInclude.NO_FIELDS)).append(";\n")
+				.append("\t}\n\n")
+				.append("\t@Override\n")
+				.append("\tpublic void describeFields(final net.davidtanzer.jobjectformatter.typeinfo.GeneratedFormatter.Fields fields) {\n");
+
+		final StringBuilder fieldReaders = new StringBuilder();
+		for(VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+			appendFieldDescription(source, fieldReaders, type, packageElement, field);
+		}
+
+		source.append("\t}\n")
+				.append(fieldReaders)
+				.append("\n")
+				.append("\tprivate static java.lang.invoke.MethodHandle getter(final String fieldName, final Class<?> fieldType) {\n")
+				.append("\t\ttry {\n")
+				.append("\t\t\treturn LOOKUP.findStatic(").append(formatterName).append(".class, \"").append(FIELD_READER_PREFIX).append("\" + fieldName, java.lang.invoke.MethodType.methodType(fieldType, Object.class));\n")
+				.append("\t\t} catch (ReflectiveOperationException e) {\n")
+				.append("\t\t\tthrow new IllegalStateException(\"Could not find the reader for field \" + fieldName, e);\n")
+				.append("\t\t}\n")
+				.append("\t}\n")
+				.append("}\n");
+		return source.toString();
+	}
+
+	/*
+	 * Fields that the generated code can read get a static reader method, all other fields are only described, so the
+	 * TypeInfoCache reads them with a method handle created from the reflected field.
+	 */
+	private void appendFieldDescription(final StringBuilder source, final StringBuilder fieldReaders, final TypeElement type, final PackageElement packageElement, final VariableElement field) {
+		final String name = field.getSimpleName().toString();
+		if(name.startsWith("this")) {
+			return;
+		}
+
+		final Formatted formatted = field.getAnnotation(Formatted.class);
+		final String fieldConfiguration = (formatted != null ? TRANSITIVE_INCLUDE + "." + formatted.transitive() : "null") + ", " +
+				FORMATTED_FIELD_TYPE + "." + includeFieldOf(field, FormattedField::value) + ", " +
+				FORMATTED_FIELD_TYPE + "." + includeFieldOf(field, FormattedField::transitive);
+
+		final String fieldType = sourceNameOf(processingEnv.getTypeUtils().erasure(field.asType()), packageElement);
+		if(field.getModifiers().contains(Modifier.PRIVATE) || fieldType == null) {
+			source.append("\t\tfields.add(\"").append(name).append("\", ").append(fieldConfiguration).append(");\n");
+			return;
+		}
+
+		source.append("\t\tfields.add(\"").append(name).append("\", ").append(fieldType).append(".class, getter(\"").append(name).append("\", ")
+				.append(fieldType).append(".class), ").append(fieldConfiguration).append(");\n");
+
+		final String typeName = type.getQualifiedName().toString();
+		fieldReaders.append("\n")
+				.append("\tprivate static ").append(fieldType).append(' ').append(FIELD_READER_PREFIX).append(name).append("(final Object object) {\n")
+				.append("\t\treturn ").append(field.getModifiers().contains(Modifier.STATIC) ? typeName : "((" + typeName + ") object)").append('.').append(name).append(";\n")
+				.append("\t}\n");
+	}
+
+	/*
+	 * The generated formatter lives in the package of the annotated class, so it can use all types that are not private
+	 * and that are either public or in the same package - including their enclosing types.
+	 */
+	private boolean isAccessibleFrom(final TypeElement type, final PackageElement packageElement) {
+		Element current = type;
+		while(current.getKind().isClass() || current.getKind().isInterface()) {
+			final Set<Modifier> modifiers = current.getModifiers();
+			if(modifiers.contains(Modifier.PRIVATE)) {
+				return false;
+			}
+			if(!modifiers.contains(Modifier.PUBLIC) && !processingEnv.getElementUtils().getPackageOf(current).equals(packageElement)) {
+				return false;
+			}
+			current = current.getEnclosingElement();
+		}
+		return true;
+	}
+
+	private String sourceNameOf(final TypeMirror type, final PackageElement packageElement) {
+		if(type.getKind().isPrimitive()) {
+			return type.getKind().name().toLowerCase(Locale.ROOT);
+		}
+		if(type.getKind() == TypeKind.ARRAY) {
+			final String componentType = sourceNameOf(((ArrayType) type).getComponentType(), packageElement);
+			return componentType != null ? componentType + "[]" : null;
+		}
+		if(type.getKind() == TypeKind.DECLARED) {
+			final TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+			return isAccessibleFrom(typeElement, packageElement) ? typeElement.getQualifiedName().toString() : null;
+		}
+		return null;
+	}
+
+	private void writeIndex() {
+		try (Writer writer = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE).openWriter()) {
+			writer.write("# Generated by the jObjectFormatter annotation processor\n");
+			writer.write(index.toString());
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Could not write "+INDEX_RESOURCE+": "+e.getMessage());
+		}
+	}
+
+	private boolean isFormatted(final TypeElement type) {
+		final ExecutableElement toStringMethod = toStringMethodOf(type);
+		return type.getAnnotation(Formatted.class) != null || (toStringMethod != null && toStringMethod.getAnnotation(Formatted.class) != null);
+	}
+
+	/*
+	 * Mirrors FormattedConfiguration: The annotation on the class itself is more important than the annotation
+	 * on the public toString method, which might be inherited from a super class.
+	 */
+	private <T> T configurationFor(final TypeElement type, final Function<Formatted, T> mappingFunction, final T defaultValue) {
+		final Formatted typeAnnotation = type.getAnnotation(Formatted.class);
+		if(typeAnnotation != null) {
+			return mappingFunction.apply(typeAnnotation);
+		}
+
+		final ExecutableElement toStringMethod = toStringMethodOf(type);
+		if(toStringMethod != null && toStringMethod.getAnnotation(Formatted.class) != null) {
+			return mappingFunction.apply(toStringMethod.getAnnotation(Formatted.class));
+		}
+		return defaultValue;
+	}
+
+	private ExecutableElement toStringMethodOf(final TypeElement type) {
+		TypeElement currentType = type;
+		while(currentType != null) {
+			for(ExecutableElement method : ElementFilter.methodsIn(currentType.getEnclosedElements())) {
+				if(method.getSimpleName().contentEquals("toString") && method.getParameters().isEmpty() && method.getModifiers().contains(Modifier.PUBLIC)) {
+					return method;
+				}
+			}
+			final TypeMirror superclass = currentType.getSuperclass();
+			currentType = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) processingEnv.getTypeUtils().asElement(superclass) : null;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,263 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.processor;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedField;
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.formatter.ConfigurableObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.DisplayClassName;
+import net.davidtanzer.jobjectformatter.formatter.FormatGrouped;
+import net.davidtanzer.jobjectformatter.formatter.JsonObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.SimpleFormatter;
+import net.davidtanzer.jobjectformatter.typeinfo.GeneratedFormatter;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandle;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+public class FormattedProcessorTest {
+	private final List<ObjectStringFormatter> builtInFormatters = Arrays.asList(
+			new SimpleFormatter(),
+			ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME,
+			ConfigurableObjectStringFormatter.UNGROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME,
+			new JsonObjectStringFormatter(),
+			new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.ALWAYS));
+
+	@Test
+	public void formatsObjectsTheSameWayAsReflectionForAllBuiltInFormatters() {
+		for(ObjectStringFormatter formatter : builtInFormatters) {
+			assertFormatsObjectTheSameWayAsReflection(formatter, new Person());
+			assertFormatsObjectTheSameWayAsReflection(formatter, new AnnotatedClass());
+			assertFormatsObjectTheSameWayAsReflection(formatter, new AnnotatedToString());
+			assertFormatsObjectTheSameWayAsReflection(formatter, new InheritsAnnotatedToString());
+			assertFormatsObjectTheSameWayAsReflection(formatter, new Customer());
+		}
+	}
+
+	@Test
+	public void writesIndexEntryForEveryAnnotatedClass() throws IOException {
+		final List<String> index = readIndex();
+
+		assertThat(index, hasItems(
+				"type " + Person.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"type " + Address.class.getName() + " true ALL_FIELDS ALL_FIELDS",
+				"type " + AnnotatedToString.class.getName() + " true NO_FIELDS ANNOTADED_FIELDS",
+				"type " + InheritsAnnotatedToString.class.getName() + " true NO_FIELDS ANNOTADED_FIELDS"));
+	}
+
+	@Test
+	public void writesIndexEntryForClassWithAnnotatedToString() throws IOException {
+		assertThat(readIndex(), hasItem(startsWith("type " + AnnotatedToString.class.getName() + " true ")));
+	}
+
+	@Test
+	public void indexEntryHasConfigurationFromInheritedToString() throws IOException {
+		assertThat(readIndex(), hasItem("type " + InheritsAnnotatedToString.class.getName() + " true NO_FIELDS ANNOTADED_FIELDS"));
+	}
+
+	@Test
+	public void indexEntryContainsConfigurationAndFields() throws IOException {
+		final List<String> index = readIndex();
+		final int typeLine = index.indexOf("type " + AnnotatedClass.class.getName() + " true ANNOTATED_FIELDS ALL_FIELDS");
+
+		assertThat(typeLine, is(greaterThanOrEqualTo(0)));
+		assertThat(index.subList(typeLine + 1, typeLine + 4), contains(
+				"field address - DEFAULT NEVER",
+				"field principal - NEVER NEVER",
+				"field id - DEFAULT NEVER"));
+	}
+
+	@Test
+	public void indexEntryDescribesFieldsInDeclarationOrder() throws IOException {
+		final List<String> index = readIndex();
+		final int typeLine = index.indexOf("type " + Person.class.getName() + " false ALL_FIELDS NO_FIELDS");
+
+		assertThat(typeLine, is(greaterThanOrEqualTo(0)));
+		assertThat(index.subList(typeLine + 1, typeLine + 5), contains(
+				startsWith("field firstName "),
+				startsWith("field lastName "),
+				startsWith("field age "),
+				startsWith("field address ")));
+	}
+
+	@Test
+	public void doesNotWriteIndexEntryForClassWithoutAnnotations() throws IOException {
+		assertThat(readIndex(), not(hasItem(startsWith("type " + Principal.class.getName() + " "))));
+	}
+
+	@Test
+	public void writesGeneratedFormatterToIndex() throws IOException {
+		final List<String> index = readIndex();
+		final int typeLine = index.indexOf("type " + Customer.class.getName() + " true ALL_FIELDS ANNOTADED_FIELDS");
+
+		assertThat(typeLine, is(greaterThanOrEqualTo(0)));
+		assertThat(index.get(typeLine + 1), is("formatter " + Customer.class.getName() + "$Formatter"));
+	}
+
+	@Test
+	public void generatedFormatterHasConfigurationFromAnnotations() throws Exception {
+		final GeneratedFormatter generatedFormatter = generatedFormatterOf(Customer.class);
+
+		assertThat(generatedFormatter.formattedInclude(), is(FormattedInclude.ALL_FIELDS));
+		assertThat(generatedFormatter.transitiveInclude(), is(TransitiveInclude.ANNOTADED_FIELDS));
+	}
+
+	@Test
+	public void generatedFormatterReadsNonPrivateFieldsItself() throws Throwable {
+		final Customer customer = new Customer();
+		final List<String> readFields = new ArrayList<>();
+
+		generatedFormatterOf(Customer.class).describeFields(new GeneratedFormatter.Fields() {
+			@Override
+			public void add(final String name, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+			}
+
+			@Override
+			public void add(final String name, final Class<?> type, final MethodHandle getter, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+				try {
+					readFields.add(name + "=" + getter.invoke(customer));
+				} catch (Throwable t) {
+					throw new AssertionError(t);
+				}
+			}
+		});
+
+		assertThat(readFields, contains("name=Jane", "visits=3", "CATEGORY=regular", "tags=[new, vip]"));
+	}
+
+	@Test
+	public void generatedFormatterLeavesPrivateFields_AndFieldsOfPrivateTypesToReflection() throws Exception {
+		final List<String> reflectedFields = new ArrayList<>();
+
+		generatedFormatterOf(Customer.class).describeFields(new GeneratedFormatter.Fields() {
+			@Override
+			public void add(final String name, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+				reflectedFields.add(name);
+			}
+
+			@Override
+			public void add(final String name, final Class<?> type, final MethodHandle getter, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+			}
+		});
+
+		assertThat(reflectedFields, contains("secret", "address"));
+	}
+
+	@Test(expected = ClassNotFoundException.class)
+	public void doesNotGenerateFormatterForPrivateClasses() throws ClassNotFoundException {
+		Class.forName(AnnotatedClass.class.getName() + "$Formatter");
+	}
+
+	private GeneratedFormatter generatedFormatterOf(final Class<?> type) throws ReflectiveOperationException {
+		return Class.forName(type.getName() + "$Formatter").asSubclass(GeneratedFormatter.class).getConstructor().newInstance();
+	}
+
+	private List<String> readIndex() throws IOException {
+		final List<String> index = new ArrayList<>();
+		for(URL indexUrl : Collections.list(getClass().getClassLoader().getResources("META-INF/jobjectformatter/index"))) {
+			try(BufferedReader reader = new BufferedReader(new InputStreamReader(indexUrl.openStream(), StandardCharsets.UTF_8))) {
+				reader.lines().forEach(index::add);
+			}
+		}
+		return index;
+	}
+
+	private void assertFormatsObjectTheSameWayAsReflection(final ObjectStringFormatter formatter, final Object object) {
+		final FormattedStringGenerator generated = new FormattedStringGenerator(formatter, new TypeInfoCache(true));
+		final FormattedStringGenerator reflective = new FormattedStringGenerator(formatter, new TypeInfoCache(false));
+
+		assertThat(generated.format(object), is(reflective.format(object)));
+	}
+
+	private static class Principal {
+		private String identification = "jdoe";
+	}
+
+	private static class Person extends Principal {
+		private String firstName = "Jane";
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private String lastName = "Doe";
+		private int age = 33;
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		private Address address = new Address();
+	}
+
+	@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+	private static class Address {
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private String street = "Evergreen Terrace";
+		private String streetNo = "12b";
+	}
+
+	@Formatted(value = FormattedInclude.ANNOTATED_FIELDS, transitive = TransitiveInclude.ALL_FIELDS)
+	private static class AnnotatedClass {
+		@FormattedField
+		private Address address = new Address();
+		private Principal principal = new Principal();
+		@FormattedField
+		private long id = 42L;
+	}
+
+	private static class AnnotatedToString {
+		private Person person = new Person();
+
+		@Override
+		@Formatted(value = FormattedInclude.NO_FIELDS, transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		public String toString() {
+			return super.toString();
+		}
+	}
+
+	private static class InheritsAnnotatedToString extends AnnotatedToString {
+		@FormattedField
+		private String name = "inherits";
+	}
+
+	@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+	static class Customer {
+		String name = "Jane";
+		protected int visits = 3;
+		static final String CATEGORY = "regular";
+		private String secret = "s3cr3t";
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		Address address = new Address();
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		List<String> tags = Arrays.asList("new", "vip");
+	}
+}
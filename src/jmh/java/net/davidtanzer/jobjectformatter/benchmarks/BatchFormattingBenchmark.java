@@ -0,0 +1,133 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.formatter.JsonObjectStringFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link FormattedStringGenerator#formatAll(java.util.Collection, ForkJoinPool)} scales with the number
+ * of cores, compared to formatting the same batch in a loop on a single thread.
+ *
+ * The batch contains 10000 audit entries of a few different classes. Run with
+ * <code>./gradlew jmh -PjmhArgs="BatchFormattingBenchmark"</code>. The parallelism values above the number of cores
+ * of your machine show the overhead of splitting the batch, not additional speedup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchFormattingBenchmark {
+	private static final int BATCH_SIZE = 10000;
+
+	@Param({ "1", "2", "4", "8" })
+	private int parallelism;
+
+	private FormattedStringGenerator generator;
+	private ForkJoinPool pool;
+	private List<Object> batch;
+
+	@Setup
+	public void setup() {
+		generator = new FormattedStringGenerator(new JsonObjectStringFormatter());
+		pool = new ForkJoinPool(parallelism);
+		batch = new ArrayList<>();
+		for(int i = 0; i < BATCH_SIZE; i++) {
+			final User user = new User("user" + i, "User " + i);
+			batch.add(i % 3 == 0 ? new LoginEntry(i, user, "10.0.0." + (i % 256)) : new ChangeEntry(i, user, "name", "old" + i, "new" + i));
+		}
+	}
+
+	@TearDown
+	public void shutdownPool() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public List<String> formatInLoop() {
+		final List<String> results = new ArrayList<>(batch.size());
+		for(Object entry : batch) {
+			results.add(generator.format(entry));
+		}
+		return results;
+	}
+
+	@Benchmark
+	public List<String> formatAll() {
+		return generator.formatAll(batch, pool);
+	}
+
+	public static class User {
+		private final String login;
+		private final String displayName;
+
+		public User(final String login, final String displayName) {
+			this.login = login;
+			this.displayName = displayName;
+		}
+	}
+
+	public static class LoginEntry {
+		private final long sequenceNumber;
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		private final User user;
+		private final String remoteAddress;
+
+		public LoginEntry(final long sequenceNumber, final User user, final String remoteAddress) {
+			this.sequenceNumber = sequenceNumber;
+			this.user = user;
+			this.remoteAddress = remoteAddress;
+		}
+	}
+
+	public static class ChangeEntry {
+		private final long sequenceNumber;
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		private final User user;
+		private final String property;
+		private final String oldValue;
+		private final String newValue;
+
+		public ChangeEntry(final long sequenceNumber, final User user, final String property, final String oldValue, final String newValue) {
+			this.sequenceNumber = sequenceNumber;
+			this.user = user;
+			this.property = property;
+			this.oldValue = oldValue;
+			this.newValue = newValue;
+		}
+	}
+}
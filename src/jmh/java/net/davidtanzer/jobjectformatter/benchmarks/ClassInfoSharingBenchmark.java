@@ -0,0 +1,185 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the type information memory of a domain model where many entity classes extend a base class with many
+ * fields.
+ *
+ * Every invocation introspects all entity classes with a fresh {@link TypeInfoCache}, so the bytes allocated per
+ * invocation are roughly the memory the cache keeps for the domain model. Run with
+ * <code>./gradlew jmh -PjmhArgs="-prof gc ClassInfoSharingBenchmark"</code> and look at <code>gc.alloc.rate.norm</code>.
+ * Since the class info of the base class is shared by all entities, the memory should grow with the two fields of
+ * every entity, not with the 40 fields of the base class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClassInfoSharingBenchmark {
+	private final List<Class<?>> entityClasses = Arrays.asList(
+			Entity01.class, Entity02.class, Entity03.class, Entity04.class, Entity05.class, Entity06.class, Entity07.class, Entity08.class,
+			Entity09.class, Entity10.class, Entity11.class, Entity12.class, Entity13.class, Entity14.class, Entity15.class, Entity16.class);
+
+	@Benchmark
+	public TypeInfoCache introspectDomainModel() {
+		final TypeInfoCache typeInfoCache = new TypeInfoCache(false);
+		for(Class<?> entityClass : entityClasses) {
+			typeInfoCache.typeInfoFor(entityClass);
+		}
+		return typeInfoCache;
+	}
+
+	private static class BaseEntity {
+		private String baseField01;
+		private String baseField02;
+		private String baseField03;
+		private String baseField04;
+		private String baseField05;
+		private String baseField06;
+		private String baseField07;
+		private String baseField08;
+		private String baseField09;
+		private String baseField10;
+		private String baseField11;
+		private String baseField12;
+		private String baseField13;
+		private String baseField14;
+		private String baseField15;
+		private String baseField16;
+		private String baseField17;
+		private String baseField18;
+		private String baseField19;
+		private String baseField20;
+		private String baseField21;
+		private String baseField22;
+		private String baseField23;
+		private String baseField24;
+		private String baseField25;
+		private String baseField26;
+		private String baseField27;
+		private String baseField28;
+		private String baseField29;
+		private String baseField30;
+		private String baseField31;
+		private String baseField32;
+		private String baseField33;
+		private String baseField34;
+		private String baseField35;
+		private String baseField36;
+		private String baseField37;
+		private String baseField38;
+		private String baseField39;
+		private String baseField40;
+	}
+
+	private static class Entity01 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity02 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity03 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity04 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity05 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity06 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity07 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity08 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity09 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity10 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity11 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity12 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity13 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity14 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity15 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+
+	private static class Entity16 extends BaseEntity {
+		private String name;
+		private long version;
+	}
+}
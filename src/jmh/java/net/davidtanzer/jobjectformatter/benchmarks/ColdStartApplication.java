@@ -0,0 +1,87 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedField;
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.formatter.SimpleFormatter;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
+
+import java.util.function.Supplier;
+
+/**
+ * The first thing a short-running command line tool formats. {@link ColdStartBenchmark} loads this class in a fresh
+ * class loader for every measurement, so all of jObjectFormatter and all of the domain classes below are cold.
+ */
+public class ColdStartApplication implements Supplier<String> {
+	/**
+	 * The index the annotation processor would write for the domain classes below.
+	 */
+	static final String[] INDEX = {
+			"type " + Order.class.getName() + " true ANNOTATED_FIELDS ALL_FIELDS",
+			"field id - DEFAULT DEFAULT",
+			"field customer ANNOTADED_FIELDS DEFAULT NEVER",
+			"field shippingAddress - DEFAULT NEVER",
+			"field total - DEFAULT NEVER",
+			"field internalNote - NEVER NEVER",
+			"type " + Customer.class.getName() + " true ALL_FIELDS ANNOTADED_FIELDS",
+			"field name - DEFAULT DEFAULT",
+			"field email - DEFAULT NEVER",
+			"field billingAddress - DEFAULT NEVER",
+			"type " + Address.class.getName() + " true ALL_FIELDS ALL_FIELDS",
+			"field street - DEFAULT NEVER",
+			"field city - DEFAULT NEVER",
+			"field zip - DEFAULT NEVER",
+	};
+
+	@Override
+	public String get() {
+		return new FormattedStringGenerator(new SimpleFormatter(), new TypeInfoCache(true)).format(new Order());
+	}
+
+	@Formatted(value = FormattedInclude.ANNOTATED_FIELDS, transitive = TransitiveInclude.ALL_FIELDS)
+	private static class Order {
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private long id = 4711L;
+		@FormattedField
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		private Customer customer = new Customer();
+		@FormattedField
+		private Address shippingAddress = new Address();
+		@FormattedField
+		private double total = 99.5;
+		private String internalNote = "not formatted";
+	}
+
+	@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+	private static class Customer {
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private String name = "Jane Doe";
+		private String email = "jane@example.com";
+		private Address billingAddress = new Address();
+	}
+
+	@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+	private static class Address {
+		private String street = "Evergreen Terrace 12b";
+		private String city = "Springfield";
+		private String zip = "49007";
+	}
+}
@@ -0,0 +1,105 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Compares the time to the first formatted string of a short-running application with and without the
+ * <code>META-INF/jobjectformatter/index</code> written by the annotation processor.
+ *
+ * Every measurement loads jObjectFormatter and {@link ColdStartApplication} in a fresh class loader, so nothing is
+ * cached yet. Without the index, the annotations of every class are read at runtime. Run with
+ * <code>./gradlew jmh -PjmhArgs="ColdStartBenchmark"</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(1)
+public class ColdStartBenchmark {
+	private static final String INDEX_RESOURCE = "META-INF/jobjectformatter/index";
+
+	@Param({ "true", "false" })
+	private boolean withIndex;
+
+	private Path indexDirectory;
+	private URL[] classPath;
+	private URLClassLoader classLoader;
+
+	@Setup(Level.Trial)
+	public void writeIndex() throws IOException {
+		indexDirectory = Files.createTempDirectory("jobjectformatter-index");
+		final Path index = indexDirectory.resolve(INDEX_RESOURCE);
+		Files.createDirectories(index.getParent());
+		Files.write(index, String.join("\n", ColdStartApplication.INDEX).getBytes(StandardCharsets.UTF_8));
+
+		final URL libraryClasses = FormattedStringGenerator.class.getProtectionDomain().getCodeSource().getLocation();
+		final URL applicationClasses = ColdStartApplication.class.getProtectionDomain().getCodeSource().getLocation();
+		classPath = withIndex ?
+				new URL[] { indexDirectory.toUri().toURL(), libraryClasses, applicationClasses } :
+				new URL[] { libraryClasses, applicationClasses };
+	}
+
+	@Setup(Level.Iteration)
+	public void createClassLoader() {
+		classLoader = new URLClassLoader(classPath, null);
+	}
+
+	@TearDown(Level.Iteration)
+	public void closeClassLoader() throws IOException {
+		classLoader.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteIndex() throws IOException {
+		try(Stream<Path> files = Files.walk(indexDirectory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public String timeToFirstFormat() throws ReflectiveOperationException {
+		final Class<?> applicationClass = Class.forName(ColdStartApplication.class.getName(), true, classLoader);
+		return ((Supplier<String>) applicationClass.newInstance()).get();
+	}
+}
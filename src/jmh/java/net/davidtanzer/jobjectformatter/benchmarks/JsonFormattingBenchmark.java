@@ -0,0 +1,173 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.formatter.AbstractObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.JsonObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.valuesinfo.GroupedValuesInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ValueInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link JsonObjectStringFormatter}, which escapes strings and appends numbers natively, with the previous
+ * JSON formatter that appended all values unescaped (see {@link UnescapedJsonFormatter}), for messages that contain
+ * only safe characters and for messages that contain characters that must be escaped.
+ *
+ * Run with <code>./gradlew jmh -PjmhArgs="-prof gc JsonFormattingBenchmark"</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JsonFormattingBenchmark {
+	@Param({"safe", "escaped"})
+	private String message;
+
+	private FormattedStringGenerator escapingGenerator;
+	private FormattedStringGenerator unescapedGenerator;
+	private LogEvent event;
+
+	@Setup
+	public void setup() {
+		escapingGenerator = new FormattedStringGenerator(new JsonObjectStringFormatter());
+		unescapedGenerator = new FormattedStringGenerator(new UnescapedJsonFormatter());
+
+		final String text = "safe".equals(message) ?
+				"Order 4711 was shipped to Jane Doe, Evergreen Terrace 12b" :
+				"Order 4711 was shipped to \"Jane Doe\"\n\tEvergreen Terrace 12b\\Springfield";
+		event = new LogEvent("order-service", text, new Order(4711L, "Jane Doe", new BigDecimal("99.50"), true));
+	}
+
+	@Benchmark
+	public String escaping() {
+		return escapingGenerator.format(event);
+	}
+
+	@Benchmark
+	public String unescaped() {
+		return unescapedGenerator.format(event);
+	}
+
+	public static class LogEvent {
+		private final String logger;
+		private final String message;
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		private final Order order;
+
+		public LogEvent(final String logger, final String message, final Order order) {
+			this.logger = logger;
+			this.message = message;
+			this.order = order;
+		}
+	}
+
+	public static class Order {
+		private final long id;
+		private final String customer;
+		private final BigDecimal total;
+		private final boolean shipped;
+
+		public Order(final long id, final String customer, final BigDecimal total, final boolean shipped) {
+			this.id = id;
+			this.customer = customer;
+			this.total = total;
+			this.shipped = shipped;
+		}
+	}
+
+	/**
+	 * The JSON formatter before strings were escaped: Appends all values as they are, and quotes them unless the
+	 * property type is one of a few number types or boolean.
+	 */
+	private static class UnescapedJsonFormatter extends AbstractObjectStringFormatter {
+		@Override
+		protected void appendSingleValue(final StringBuilder result, final ValueInfo value) {
+			appendSingleValue(result, value.getPropertyName(), value.getValue(), value.getPropertyType());
+		}
+
+		@Override
+		protected void appendSingleValue(final StringBuilder result, final String propertyName, final Object value, final Class<?> propertyType) {
+			startNestedValue(result, propertyName, propertyType);
+			result.append(value);
+			endNestedValue(result, propertyName, propertyType);
+		}
+
+		@Override
+		protected boolean streamsNestedValues() {
+			return true;
+		}
+
+		@Override
+		protected void startNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {
+			result.append("\"").append(propertyName).append("\": ");
+			if(isQuoted(propertyType)) {
+				result.append("\"");
+			}
+		}
+
+		@Override
+		protected void endNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {
+			if(isQuoted(propertyType)) {
+				result.append("\"");
+			}
+		}
+
+		@Override
+		protected void startFormattedString(final StringBuilder result, final ObjectValuesInfo info) {
+			result.append("{");
+		}
+
+		@Override
+		protected void endFormattedString(final StringBuilder result, final ObjectValuesInfo info) {
+			result.append("}");
+		}
+
+		@Override
+		protected void startValueGroup(final StringBuilder result, final GroupedValuesInfo groupedValuesInfo) {
+			result.append("\"").append(groupedValuesInfo.getGroupName()).append("\": {");
+		}
+
+		@Override
+		protected void endValueGroup(final StringBuilder result) {
+			result.append("}");
+		}
+
+		private boolean isQuoted(final Class<?> propertyType) {
+			return propertyType != int.class && propertyType != Integer.class && propertyType != short.class && propertyType != Short.class &&
+					propertyType != float.class && propertyType != Float.class && propertyType != double.class && propertyType != Double.class &&
+					propertyType != boolean.class && propertyType != Boolean.class;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.ObjectFormatter;
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares passing <code>ObjectFormatter.format(order)</code> to a debug log statement with passing
+ * <code>ObjectFormatter.lazy(order)</code>, with the debug level enabled and disabled.
+ *
+ * The log statement is simulated: it only calls toString on its argument when debug is enabled, like real log
+ * frameworks do. With debug disabled, the lazy variant should only cost the allocation of the (escape analyzed)
+ * wrapper. Run with <code>./gradlew jmh -PjmhArgs="LazyFormattingBenchmark"</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LazyFormattingBenchmark {
+	@Param({ "false", "true" })
+	private boolean debugEnabled;
+
+	private Order order;
+
+	@Setup
+	public void setup() {
+		ObjectFormatter.configureGenerator(new FormattedStringGenerator());
+		order = new Order(4711L, new Customer("Jane", "Doe"), 99.5);
+	}
+
+	@Benchmark
+	public String eagerFormat() {
+		return debug("Processing {}", ObjectFormatter.format(order));
+	}
+
+	@Benchmark
+	public String lazyFormat() {
+		return debug("Processing {}", ObjectFormatter.lazy(order));
+	}
+
+	private String debug(final String message, final Object argument) {
+		if(!debugEnabled) {
+			return null;
+		}
+		return message.replace("{}", argument.toString());
+	}
+
+	public static class Order {
+		private final long id;
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		private final Customer customer;
+		private final double total;
+
+		public Order(final long id, final Customer customer, final double total) {
+			this.id = id;
+			this.customer = customer;
+			this.total = total;
+		}
+	}
+
+	public static class Customer {
+		private final String firstName;
+		private final String lastName;
+
+		public Customer(final String firstName, final String lastName) {
+			this.firstName = firstName;
+			this.lastName = lastName;
+		}
+	}
+}
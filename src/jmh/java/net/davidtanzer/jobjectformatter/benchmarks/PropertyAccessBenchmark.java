@@ -0,0 +1,236 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading all fields of an object through {@link Field#get(Object)} (the reflective path jObjectFormatter used
+ * before) with reading them through the method handles of {@link PropertyInfo}, boxed and with the typed getters.
+ *
+ * Run with <code>./gradlew jmh -PjmhArgs="PropertyAccessBenchmark"</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PropertyAccessBenchmark {
+	@Param({"5", "20", "100"})
+	private int fieldCount;
+
+	private Object object;
+	private Field[] fields;
+	private PropertyInfo[] propertyInfos;
+
+	@Setup
+	public void setup() {
+		switch (fieldCount) {
+			case 5:
+				object = new Fields5();
+				break;
+			case 20:
+				object = new Fields20();
+				break;
+			case 100:
+				object = new Fields100();
+				break;
+			default:
+				throw new IllegalStateException("Unsupported field count: "+fieldCount);
+		}
+
+		fields = object.getClass().getDeclaredFields();
+		for(Field field : fields) {
+			field.setAccessible(true);
+		}
+
+		final List<PropertyInfo> fieldInfos = new TypeInfoCache().typeInfoFor(object.getClass()).classInfos().get(0).fieldInfos();
+		propertyInfos = fieldInfos.toArray(new PropertyInfo[fieldInfos.size()]);
+	}
+
+	@Benchmark
+	public void reflectiveFieldGet(final Blackhole blackhole) throws IllegalAccessException {
+		for(Field field : fields) {
+			blackhole.consume(field.get(object));
+		}
+	}
+
+	@Benchmark
+	public void propertyInfoGetPropertyValue(final Blackhole blackhole) {
+		for(PropertyInfo propertyInfo : propertyInfos) {
+			blackhole.consume(propertyInfo.getPropertyValue(object));
+		}
+	}
+
+	@Benchmark
+	public void propertyInfoGetInt(final Blackhole blackhole) {
+		for(PropertyInfo propertyInfo : propertyInfos) {
+			blackhole.consume(propertyInfo.getInt(object));
+		}
+	}
+
+	public static class Fields5 {
+		int f0 = 0;
+		int f1 = 1;
+		int f2 = 2;
+		int f3 = 3;
+		int f4 = 4;
+	}
+
+	public static class Fields20 {
+		int f0 = 0;
+		int f1 = 1;
+		int f2 = 2;
+		int f3 = 3;
+		int f4 = 4;
+		int f5 = 5;
+		int f6 = 6;
+		int f7 = 7;
+		int f8 = 8;
+		int f9 = 9;
+		int f10 = 10;
+		int f11 = 11;
+		int f12 = 12;
+		int f13 = 13;
+		int f14 = 14;
+		int f15 = 15;
+		int f16 = 16;
+		int f17 = 17;
+		int f18 = 18;
+		int f19 = 19;
+	}
+
+	public static class Fields100 {
+		int f0 = 0;
+		int f1 = 1;
+		int f2 = 2;
+		int f3 = 3;
+		int f4 = 4;
+		int f5 = 5;
+		int f6 = 6;
+		int f7 = 7;
+		int f8 = 8;
+		int f9 = 9;
+		int f10 = 10;
+		int f11 = 11;
+		int f12 = 12;
+		int f13 = 13;
+		int f14 = 14;
+		int f15 = 15;
+		int f16 = 16;
+		int f17 = 17;
+		int f18 = 18;
+		int f19 = 19;
+		int f20 = 20;
+		int f21 = 21;
+		int f22 = 22;
+		int f23 = 23;
+		int f24 = 24;
+		int f25 = 25;
+		int f26 = 26;
+		int f27 = 27;
+		int f28 = 28;
+		int f29 = 29;
+		int f30 = 30;
+		int f31 = 31;
+		int f32 = 32;
+		int f33 = 33;
+		int f34 = 34;
+		int f35 = 35;
+		int f36 = 36;
+		int f37 = 37;
+		int f38 = 38;
+		int f39 = 39;
+		int f40 = 40;
+		int f41 = 41;
+		int f42 = 42;
+		int f43 = 43;
+		int f44 = 44;
+		int f45 = 45;
+		int f46 = 46;
+		int f47 = 47;
+		int f48 = 48;
+		int f49 = 49;
+		int f50 = 50;
+		int f51 = 51;
+		int f52 = 52;
+		int f53 = 53;
+		int f54 = 54;
+		int f55 = 55;
+		int f56 = 56;
+		int f57 = 57;
+		int f58 = 58;
+		int f59 = 59;
+		int f60 = 60;
+		int f61 = 61;
+		int f62 = 62;
+		int f63 = 63;
+		int f64 = 64;
+		int f65 = 65;
+		int f66 = 66;
+		int f67 = 67;
+		int f68 = 68;
+		int f69 = 69;
+		int f70 = 70;
+		int f71 = 71;
+		int f72 = 72;
+		int f73 = 73;
+		int f74 = 74;
+		int f75 = 75;
+		int f76 = 76;
+		int f77 = 77;
+		int f78 = 78;
+		int f79 = 79;
+		int f80 = 80;
+		int f81 = 81;
+		int f82 = 82;
+		int f83 = 83;
+		int f84 = 84;
+		int f85 = 85;
+		int f86 = 86;
+		int f87 = 87;
+		int f88 = 88;
+		int f89 = 89;
+		int f90 = 90;
+		int f91 = 91;
+		int f92 = 92;
+		int f93 = 93;
+		int f94 = 94;
+		int f95 = 95;
+		int f96 = 96;
+		int f97 = 97;
+		int f98 = 98;
+		int f99 = 99;
+	}
+}
@@ -0,0 +1,83 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.SpecializingFormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.formatter.ConfigurableObjectStringFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the regular {@link FormattedStringGenerator} with a {@link SpecializingFormattedStringGenerator} that has
+ * already specialized the benchmarked type.
+ *
+ * Run with <code>./gradlew jmh -PjmhArgs="SpecializationBenchmark"</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpecializationBenchmark {
+	private FormattedStringGenerator regularGenerator;
+	private FormattedStringGenerator specializingGenerator;
+	private Person person;
+
+	@Setup
+	public void setup() {
+		person = new Person("Jane", "Doe", 42L, 33);
+
+		regularGenerator = new FormattedStringGenerator(ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME);
+		specializingGenerator = new SpecializingFormattedStringGenerator(ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME, 1);
+		specializingGenerator.format(person);
+	}
+
+	@Benchmark
+	public String regular() {
+		return regularGenerator.format(person);
+	}
+
+	@Benchmark
+	public String specialized() {
+		return specializingGenerator.format(person);
+	}
+
+	public static class Person {
+		private final String firstName;
+		private final String lastName;
+		private final Long id;
+		private final int age;
+
+		public Person(final String firstName, final String lastName, final Long id, final int age) {
+			this.firstName = firstName;
+			this.lastName = lastName;
+			this.id = id;
+			this.age = age;
+		}
+	}
+}
@@ -0,0 +1,100 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedField;
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.formatter.JsonObjectStringFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link FormattedStringGenerator#format(Object)}, which collects all values before formatting them, with
+ * {@link FormattedStringGenerator#formatTo(Object, Appendable)}, which streams the values into a reused StringBuilder.
+ *
+ * Run with <code>./gradlew jmh -PjmhArgs="StreamingFormatBenchmark"</code> (add <code>-prof gc</code> to compare allocations).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StreamingFormatBenchmark {
+	private FormattedStringGenerator generator;
+	private StringBuilder result;
+	private Person person;
+
+	@Setup
+	public void setup() {
+		generator = new FormattedStringGenerator(new JsonObjectStringFormatter());
+		result = new StringBuilder();
+		person = new Person("Jane", "Doe", 33, new Address("Evergreen Terrace", "12b"));
+	}
+
+	@Benchmark
+	public String format() {
+		return generator.format(person);
+	}
+
+	@Benchmark
+	public StringBuilder formatTo() throws IOException {
+		result.setLength(0);
+		generator.formatTo(person, result);
+		return result;
+	}
+
+	public static class Person {
+		private final String firstName;
+		private final String lastName;
+		private final int age;
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		private final Address address;
+
+		public Person(final String firstName, final String lastName, final int age, final Address address) {
+			this.firstName = firstName;
+			this.lastName = lastName;
+			this.age = age;
+			this.address = address;
+		}
+	}
+
+	public static class Address {
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private final String street;
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private final String streetNo;
+
+		public Address(final String street, final String streetNo) {
+			this.street = street;
+			this.streetNo = streetNo;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedField;
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures formatting objects whose fields use the different {@link TransitiveInclude} modes.
+ *
+ * Run with <code>./gradlew jmh -PjmhArgs="-prof gc TransitiveIncludeBenchmark"</code> and compare
+ * <code>gc.alloc.rate.norm</code> (bytes allocated per <code>format</code> call). Fields formatted with
+ * <code>ALL_FIELDS</code> or <code>NO_FIELDS</code> do not compile the values of the referenced object, so only
+ * <code>annotatedFields</code> should allocate for the transitive object.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TransitiveIncludeBenchmark {
+	private FormattedStringGenerator generator;
+	private AllFieldsPerson allFieldsPerson;
+	private NoFieldsPerson noFieldsPerson;
+	private AnnotatedFieldsPerson annotatedFieldsPerson;
+
+	@Setup
+	public void setup() {
+		generator = new FormattedStringGenerator();
+
+		final Address address = new Address("Evergreen Terrace", "12b");
+		allFieldsPerson = new AllFieldsPerson("Jane", "Doe", 42L, address);
+		noFieldsPerson = new NoFieldsPerson("Jane", "Doe", 42L, address);
+		annotatedFieldsPerson = new AnnotatedFieldsPerson("Jane", "Doe", 42L, address);
+	}
+
+	@Benchmark
+	public String allFields() {
+		return generator.format(allFieldsPerson);
+	}
+
+	@Benchmark
+	public String noFields() {
+		return generator.format(noFieldsPerson);
+	}
+
+	@Benchmark
+	public String annotatedFields() {
+		return generator.format(annotatedFieldsPerson);
+	}
+
+	public static class Address {
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private final String street;
+		private final String streetNo;
+
+		public Address(final String street, final String streetNo) {
+			this.street = street;
+			this.streetNo = streetNo;
+		}
+
+		@Override
+		public String toString() {
+			return street;
+		}
+	}
+
+	public static class AllFieldsPerson {
+		private final String firstName;
+		private final String lastName;
+		private final Long id;
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		private final Address address;
+
+		public AllFieldsPerson(final String firstName, final String lastName, final Long id, final Address address) {
+			this.firstName = firstName;
+			this.lastName = lastName;
+			this.id = id;
+			this.address = address;
+		}
+	}
+
+	public static class NoFieldsPerson {
+		private final String firstName;
+		private final String lastName;
+		private final Long id;
+		private final Address address;
+
+		public NoFieldsPerson(final String firstName, final String lastName, final Long id, final Address address) {
+			this.firstName = firstName;
+			this.lastName = lastName;
+			this.id = id;
+			this.address = address;
+		}
+	}
+
+	public static class AnnotatedFieldsPerson {
+		private final String firstName;
+		private final String lastName;
+		private final Long id;
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		private final Address address;
+
+		public AnnotatedFieldsPerson(final String firstName, final String lastName, final Long id, final Address address) {
+			this.firstName = firstName;
+			this.lastName = lastName;
+			this.id = id;
+			this.address = address;
+		}
+	}
+}
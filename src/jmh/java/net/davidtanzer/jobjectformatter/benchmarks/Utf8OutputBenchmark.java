@@ -0,0 +1,132 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.benchmarks;
+
+import net.davidtanzer.jobjectformatter.FormattedStringGenerator;
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.formatter.SimpleFormatter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding the formatted string with <code>format(object).getBytes(UTF_8)</code> with writing the UTF-8 bytes
+ * directly into a reused {@link ByteBuffer} (heap and direct) or an {@link OutputStream}.
+ *
+ * Run with <code>./gradlew jmh -PjmhArgs="-prof gc Utf8OutputBenchmark"</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class Utf8OutputBenchmark {
+	private FormattedStringGenerator generator;
+	private ByteBuffer heapBuffer;
+	private ByteBuffer directBuffer;
+	private CountingOutputStream out;
+	private LogEvent event;
+
+	@Setup
+	public void setup() {
+		generator = new FormattedStringGenerator(new SimpleFormatter());
+		heapBuffer = ByteBuffer.allocate(4096);
+		directBuffer = ByteBuffer.allocateDirect(4096);
+		out = new CountingOutputStream();
+		event = new LogEvent("order-service", "Order 4711 was shipped to Z\u00FCrich", new Order(4711L, "Jane Doe", "Hauptstra\u00DFe 12", 99.5));
+	}
+
+	@Benchmark
+	public byte[] formatAndGetBytes() {
+		return generator.format(event).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public ByteBuffer formatUtf8ToHeapBuffer() {
+		heapBuffer.clear();
+		generator.formatUtf8(event, heapBuffer);
+		return heapBuffer;
+	}
+
+	@Benchmark
+	public ByteBuffer formatUtf8ToDirectBuffer() {
+		directBuffer.clear();
+		generator.formatUtf8(event, directBuffer);
+		return directBuffer;
+	}
+
+	@Benchmark
+	public long formatUtf8ToOutputStream() throws IOException {
+		generator.formatUtf8(event, out);
+		return out.count;
+	}
+
+	public static class LogEvent {
+		private final String logger;
+		private final String message;
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		private final Order order;
+
+		public LogEvent(final String logger, final String message, final Order order) {
+			this.logger = logger;
+			this.message = message;
+			this.order = order;
+		}
+	}
+
+	public static class Order {
+		private final long id;
+		private final String customer;
+		private final String address;
+		private final double total;
+
+		public Order(final long id, final String customer, final String address, final double total) {
+			this.id = id;
+			this.customer = customer;
+			this.address = address;
+			this.total = total;
+		}
+	}
+
+	private static class CountingOutputStream extends OutputStream {
+		private long count;
+
+		@Override
+		public void write(final int b) {
+			count++;
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+			count += len;
+		}
+	}
+}
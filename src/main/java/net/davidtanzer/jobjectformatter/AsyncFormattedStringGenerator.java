@@ -0,0 +1,240 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesSnapshot;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Formats objects on background threads, so the calling thread does not have to wait for the formatted string.
+ *
+ * The calling thread only takes a shallow snapshot of the object's field values (see
+ * {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesSnapshot}), so changing the fields of the object
+ * afterwards does not change the formatted string. The values of transitive objects are read on the background thread.
+ * The background threads have a bounded queue, the {@link net.davidtanzer.jobjectformatter.OverflowPolicy} decides
+ * what happens when it is full. Use the {@link net.davidtanzer.jobjectformatter.AsyncFormattedStringGenerator.Builder}
+ * to create an async generator, and {@link #close()} it when you do not need it anymore.
+ *
+ * <strong>AsyncFormattedStringGenerator</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Formats objects on a background thread.</li>
+ *     <li>Returns the same string as the generator.</li>
+ *     <li>Uses field values_ from the time the object was submitted.</li>
+ *     <li>Delivers formatted string to callback.</li>
+ *     <li>Completes future exceptionally_ when formatting throws an error.</li>
+ *     <li>Drop policy completes future exceptionally_ when the queue is full.</li>
+ *     <li>Run on caller policy formats on the calling thread_ when the queue is full.</li>
+ *     <li>Block policy waits for space in the queue_ when the queue is full.</li>
+ *     <li>Builder does not accept invalid configuration.</li>
+ * </ul>
+ */
+public class AsyncFormattedStringGenerator implements AutoCloseable {
+	private static final AtomicInteger generatorNumber = new AtomicInteger();
+
+	private final FormattedStringGenerator generator;
+	private final ThreadPoolExecutor executor;
+
+	private AsyncFormattedStringGenerator(final FormattedStringGenerator generator, final int threads, final int queueCapacity, final OverflowPolicy overflowPolicy) {
+		this.generator = generator;
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+				new FormatterThreadFactory(generatorNumber.incrementAndGet()), rejectionHandlerFor(overflowPolicy));
+	}
+
+	private static RejectedExecutionHandler rejectionHandlerFor(final OverflowPolicy overflowPolicy) {
+		switch (overflowPolicy) {
+			case BLOCK:
+				return (task, executor) -> {
+					if(executor.isShutdown()) {
+						throw new RejectedExecutionException("The async generator was closed.");
+					}
+					try {
+						executor.getQueue().put(task);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new RejectedExecutionException("Interrupted while waiting for space in the queue.", e);
+					}
+					//The generator might have been closed while we were waiting, and then no thread might be left to
+					//run the task.
+					if(executor.isShutdown() && executor.remove(task)) {
+						throw new RejectedExecutionException("The async generator was closed.");
+					}
+				};
+			case DROP:
+				return new ThreadPoolExecutor.AbortPolicy();
+			case RUN_ON_CALLER:
+				return new ThreadPoolExecutor.CallerRunsPolicy();
+			default:
+				throw new IllegalStateException("Unknown overflow policy: " + overflowPolicy);
+		}
+	}
+
+	/**
+	 * Take a snapshot of the object's values and format it on a background thread.
+	 *
+	 * @param object The object to format.
+	 * @return A future that completes with the formatted String representation, or exceptionally when formatting
+	 *         failed or the object was dropped (see {@link net.davidtanzer.jobjectformatter.OverflowPolicy#DROP}).
+	 */
+	public CompletableFuture<String> formatAsync(final Object object) {
+		final ObjectValuesSnapshot snapshot = generator.snapshot(object);
+		final CompletableFuture<String> result = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				try {
+					result.complete(generator.format(snapshot));
+				} catch (Throwable e) {
+					result.completeExceptionally(e);
+					if(e instanceof Error) {
+						throw (Error) e;
+					}
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			result.completeExceptionally(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Take a snapshot of the object's values, format it on a background thread and pass the formatted string to the
+	 * callback (on the background thread).
+	 *
+	 * @param object The object to format.
+	 * @param callback Receives the formatted String representation.
+	 * @return A future that completes after the callback was called, or exceptionally when formatting failed or the
+	 *         object was dropped.
+	 */
+	public CompletableFuture<Void> formatAsync(final Object object, final Consumer<String> callback) {
+		if(callback == null) {
+			throw new IllegalArgumentException("Parameter callback must not be null!");
+		}
+
+		return formatAsync(object).thenAccept(callback);
+	}
+
+	/**
+	 * Stop accepting new objects. The objects that were already submitted are still formatted.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+	}
+
+	private static class FormatterThreadFactory implements ThreadFactory {
+		private final int generatorNumber;
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		private FormatterThreadFactory(final int generatorNumber) {
+			this.generatorNumber = generatorNumber;
+		}
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, "jobjectformatter-async-" + generatorNumber + "-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * Creates {@link net.davidtanzer.jobjectformatter.AsyncFormattedStringGenerator}s. Without further configuration,
+	 * the async generator formats on a single thread with a new
+	 * {@link net.davidtanzer.jobjectformatter.FormattedStringGenerator}, queues up to 1024 objects and blocks the
+	 * calling thread when the queue is full.
+	 */
+	public static class Builder {
+		private FormattedStringGenerator generator = new FormattedStringGenerator();
+		private int threads = 1;
+		private int queueCapacity = 1024;
+		private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+		/**
+		 * Build the async generator from the information provided before calling this method. The background threads
+		 * are started when the first objects are submitted.
+		 *
+		 * @return The newly created AsyncFormattedStringGenerator.
+		 */
+		public AsyncFormattedStringGenerator buildAsyncFormattedStringGenerator() {
+			return new AsyncFormattedStringGenerator(generator, threads, queueCapacity, overflowPolicy);
+		}
+
+		/**
+		 * Set the generator that takes the snapshots and formats them.
+		 *
+		 * @param generator The generator to use.
+		 * @return the builder itself.
+		 */
+		public Builder setGenerator(final FormattedStringGenerator generator) {
+			if(generator == null) {
+				throw new IllegalArgumentException("Parameter generator must not be null!");
+			}
+			this.generator = generator;
+			return this;
+		}
+
+		/**
+		 * Set how many background threads format the objects.
+		 *
+		 * @param threads The number of background threads (at least 1).
+		 * @return the builder itself.
+		 */
+		public Builder setThreads(final int threads) {
+			this.threads = positive(threads, "threads");
+			return this;
+		}
+
+		/**
+		 * Set how many objects can wait for a background thread before the overflow policy applies.
+		 *
+		 * @param queueCapacity The capacity of the queue (at least 1).
+		 * @return the builder itself.
+		 */
+		public Builder setQueueCapacity(final int queueCapacity) {
+			this.queueCapacity = positive(queueCapacity, "queueCapacity");
+			return this;
+		}
+
+		/**
+		 * Set what happens to objects that are submitted when the queue is full.
+		 *
+		 * @param overflowPolicy The overflow policy.
+		 * @return the builder itself.
+		 */
+		public Builder setOverflowPolicy(final OverflowPolicy overflowPolicy) {
+			if(overflowPolicy == null) {
+				throw new IllegalArgumentException("Parameter overflowPolicy must not be null!");
+			}
+			this.overflowPolicy = overflowPolicy;
+			return this;
+		}
+
+		private int positive(final int value, final String parameterName) {
+			if(value < 1) {
+				throw new IllegalArgumentException("Parameter "+parameterName+" must be at least 1!");
+			}
+			return value;
+		}
+	}
+}
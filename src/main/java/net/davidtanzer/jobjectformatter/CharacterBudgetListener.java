@@ -0,0 +1,173 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+import net.davidtanzer.jobjectformatter.typeinfo.ClassInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesListener;
+
+/**
+ * Passes all values on to the listener of the formatter and stops compiling the object as soon as the formatted
+ * string is longer than the budget allows.
+ *
+ * Values that are longer than the remaining budget are cut before they are passed on, so a single huge value (like a
+ * transitive object whose toString is megabytes long) is never appended to the result completely. Such values are
+ * converted to strings first, unless the budget is already exhausted; numbers, booleans, characters and nested values
+ * are always passed on as they are.
+ */
+class CharacterBudgetListener implements ObjectValuesListener {
+	private static final String EXHAUSTED_VALUE = ".";
+
+	private final ObjectValuesListener delegate;
+	private final StringBuilder result;
+	private final int maxLength;
+
+	CharacterBudgetListener(final ObjectValuesListener delegate, final StringBuilder result, final int maxCharacters) {
+		assert delegate != null : "Parameter \"delegate\" must not be null.";
+		assert result != null : "Parameter \"result\" must not be null.";
+
+		this.delegate = delegate;
+		this.result = result;
+		this.maxLength = (int) Math.min(Integer.MAX_VALUE, (long) result.length() + maxCharacters);
+	}
+
+	/**
+	 * Cuts the result to the budget when the listener stopped the compilation.
+	 *
+	 * @return true when the result was truncated.
+	 */
+	boolean truncateResult() {
+		if(result.length() <= maxLength) {
+			return false;
+		}
+		result.setLength(maxLength);
+		return true;
+	}
+
+	@Override
+	public void startObject(final Class<?> type) {
+		delegate.startObject(type);
+		checkBudget();
+	}
+
+	@Override
+	public void startObject(final TypeInfo typeInfo, final Class<?> type) {
+		delegate.startObject(typeInfo, type);
+		checkBudget();
+	}
+
+	@Override
+	public void startGroup(final String groupName) {
+		delegate.startGroup(groupName);
+		checkBudget();
+	}
+
+	@Override
+	public void startGroup(final ClassInfo classInfo) {
+		delegate.startGroup(classInfo);
+		checkBudget();
+	}
+
+	@Override
+	public void value(final String propertyName, final Object value, final Class<?> propertyType) {
+		delegate.value(propertyName, cappedValue(value), propertyType);
+		checkBudget();
+	}
+
+	@Override
+	public void value(final PropertyInfo propertyInfo, final Object value) {
+		delegate.value(propertyInfo, cappedValue(value));
+		checkBudget();
+	}
+
+	@Override
+	public void startNestedValue(final String propertyName, final Class<?> propertyType) {
+		delegate.startNestedValue(propertyName, propertyType);
+		checkBudget();
+	}
+
+	@Override
+	public void startNestedValue(final PropertyInfo propertyInfo) {
+		delegate.startNestedValue(propertyInfo);
+		checkBudget();
+	}
+
+	@Override
+	public void endNestedValue(final String propertyName, final Class<?> propertyType) {
+		delegate.endNestedValue(propertyName, propertyType);
+		checkBudget();
+	}
+
+	@Override
+	public void endNestedValue(final PropertyInfo propertyInfo) {
+		delegate.endNestedValue(propertyInfo);
+		checkBudget();
+	}
+
+	@Override
+	public void endGroup() {
+		delegate.endGroup();
+		checkBudget();
+	}
+
+	@Override
+	public void endObject(final Class<?> type) {
+		delegate.endObject(type);
+		checkBudget();
+	}
+
+	/*
+	 * One character more than the remaining budget is enough to exhaust the budget after the value was appended. When
+	 * no characters are left, that character is cut from the result anyway, so the value is not converted at all.
+	 */
+	private Object cappedValue(final Object value) {
+		if(value == null || value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof ObjectValuesInfo) {
+			return value;
+		}
+
+		final int remainingCharacters = Math.max(0, maxLength - result.length()) + 1;
+		if(remainingCharacters <= 1) {
+			return EXHAUSTED_VALUE;
+		}
+		if(value instanceof CharSequence) {
+			final CharSequence charSequence = (CharSequence) value;
+			return charSequence.length() > remainingCharacters ? charSequence.subSequence(0, remainingCharacters) : value;
+		}
+
+		final String string = value.toString();
+		return string.length() > remainingCharacters ? string.substring(0, remainingCharacters) : string;
+	}
+
+	private void checkBudget() {
+		if(result.length() > maxLength) {
+			throw BudgetExhaustedException.INSTANCE;
+		}
+	}
+
+	/**
+	 * Stops the compilation of the object. It is always caught by the generator, so it has no stack trace.
+	 */
+	static class BudgetExhaustedException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+		private static final BudgetExhaustedException INSTANCE = new BudgetExhaustedException();
+
+		private BudgetExhaustedException() {
+			super("The character budget is exhausted.", null, false, false);
+		}
+	}
+}
@@ -17,10 +17,28 @@ package net.davidtanzer.jobjectformatter;
 
 import net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter;
 import net.davidtanzer.jobjectformatter.formatter.SimpleFormatter;
+import net.davidtanzer.jobjectformatter.formatter.Utf8Encoding;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
 import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
 import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesListener;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesSnapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Generates a formatted string from an object (together with it's metadata).
@@ -30,46 +48,119 @@ import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler;
  *     <li>Retrieves type information from type info cache when generating to string.</li>
  *     <li>Uses info compiler to compile values from object and type info.</li>
  *     <li>Uses to string formatter to format the to string info.</li>
+ *     <li>Uses the given type info cache for all type information.</li>
+ *     <li>Uses the shared type info cache_ when created without type info cache.</li>
+ *     <li>Format to appends the same output as format for all built in formatters.</li>
+ *     <li>Format to appends the same output as format_ for formatters that do not stream.</li>
+ *     <li>Format to calls the value hook of subclasses of built in formatters.</li>
+ *     <li>Does not bypass the hooks of subclasses of built in formatters.</li>
+ *     <li>Format to works with appendables other than string builders.</li>
+ *     <li>Budget truncates output_ after max characters.</li>
+ *     <li>Budget truncates transitive objects_ deeper than max depth.</li>
+ *     <li>Budget truncates values_ after max fields per object.</li>
+ *     <li>Budget stops compiling_ when max characters are reached.</li>
+ *     <li>Budget caps values_ that are longer than the remaining characters.</li>
+ *     <li>Budget does not convert values to strings_ when the characters are exhausted.</li>
+ *     <li>Format without budget exhaustion is the same as unlimited format.</li>
+ *     <li>Format UTF-8 writes the same bytes as format for all built in formatters.</li>
+ *     <li>Format UTF-8 writes the same bytes as format_ when the budget is limited.</li>
+ *     <li>Format all keeps the order of the objects.</li>
+ *     <li>Format all returns the same output as format.</li>
+ *     <li>Format all resolves type info_ once per distinct class.</li>
+ *     <li>Format all fails_ for null objects.</li>
+ *     <li>Format all as stream keeps the order of the objects.</li>
  * </ul>
  */
 public class FormattedStringGenerator {
 	private final TypeInfoCache typeInfoCache;
 	private final ObjectValuesCompiler objectValuesCompiler;
 	private final ObjectStringFormatter toStringFormatter;
+	private final FormattingBudget budget;
 
 	/**
 	 * Creates a new FormattedStringGenerator that uses a {@link net.davidtanzer.jobjectformatter.formatter.SimpleFormatter} to format the string.
 	 *
+	 * The generator gets all type information from the {@link TypeInfoCache#shared() shared} type info cache.
+	 *
 	 * @see net.davidtanzer.jobjectformatter.formatter.SimpleFormatter
 	 */
 	public FormattedStringGenerator() {
-		this(new SimpleFormatter(), new TypeInfoCache(), new ObjectValuesCompiler());
+		this(new SimpleFormatter(), TypeInfoCache.shared());
 	}
 
 	/**
 	 * Creates a new FormattedStringGenerator with a given {@link net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter}.
 	 *
+	 * The generator gets all type information from the {@link TypeInfoCache#shared() shared} type info cache.
+	 *
 	 * @param toStringFormatter The formatter to use when creating formatted strings.
 	 * @see net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter
 	 */
 	public FormattedStringGenerator(final ObjectStringFormatter toStringFormatter) {
-		this(toStringFormatter, new TypeInfoCache(), new ObjectValuesCompiler());
+		this(toStringFormatter, TypeInfoCache.shared());
+	}
+
+	/**
+	 * Creates a new FormattedStringGenerator with a given {@link net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter}
+	 * that gets all type information from the given {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache}.
+	 *
+	 * @param toStringFormatter The formatter to use when creating formatted strings.
+	 * @param typeInfoCache The type info cache to use for all type information.
+	 * @see net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter
+	 * @see net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache
+	 */
+	public FormattedStringGenerator(final ObjectStringFormatter toStringFormatter, final TypeInfoCache typeInfoCache) {
+		this(toStringFormatter, typeInfoCache, new ObjectValuesCompiler(typeInfoCache));
+	}
+
+	/**
+	 * Creates a new FormattedStringGenerator with a given {@link net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter}
+	 * that never produces more output than the given {@link net.davidtanzer.jobjectformatter.FormattingBudget} allows.
+	 *
+	 * @param toStringFormatter The formatter to use when creating formatted strings.
+	 * @param typeInfoCache The type info cache to use for all type information.
+	 * @param budget Limits the output for a single object.
+	 * @see net.davidtanzer.jobjectformatter.FormattingBudget
+	 */
+	public FormattedStringGenerator(final ObjectStringFormatter toStringFormatter, final TypeInfoCache typeInfoCache, final FormattingBudget budget) {
+		this(toStringFormatter, typeInfoCache, compilerFor(typeInfoCache, budget), budget);
 	}
 
 	FormattedStringGenerator(final ObjectStringFormatter objectStringFormatter, final TypeInfoCache typeInfoCache, final ObjectValuesCompiler objectValuesCompiler) {
+		this(objectStringFormatter, typeInfoCache, objectValuesCompiler, FormattingBudget.UNLIMITED);
+	}
+
+	private FormattedStringGenerator(final ObjectStringFormatter objectStringFormatter, final TypeInfoCache typeInfoCache, final ObjectValuesCompiler objectValuesCompiler, final FormattingBudget budget) {
 		if(objectStringFormatter == null) {
 			throw new IllegalArgumentException("Parameter objectStringFormatter must not be null!");
 		}
-		assert typeInfoCache != null : "Parameter typeInfoCache must not be null!";
+		if(typeInfoCache == null) {
+			throw new IllegalArgumentException("Parameter typeInfoCache must not be null!");
+		}
 		assert objectValuesCompiler != null : "Parameter objectValuesCompiler must not be null!";
+		assert budget != null : "Parameter budget must not be null!";
 
 		this.toStringFormatter = objectStringFormatter;
 		this.typeInfoCache = typeInfoCache;
 		this.objectValuesCompiler = objectValuesCompiler;
+		this.budget = budget;
+	}
+
+	private static ObjectValuesCompiler compilerFor(final TypeInfoCache typeInfoCache, final FormattingBudget budget) {
+		if(typeInfoCache == null) {
+			throw new IllegalArgumentException("Parameter typeInfoCache must not be null!");
+		}
+		if(budget == null) {
+			throw new IllegalArgumentException("Parameter budget must not be null!");
+		}
+		return new ObjectValuesCompiler(typeInfoCache, budget.getMaxDepth(), budget.getMaxFieldsPerObject());
 	}
 
 	/**
 	 * Creates a formatted String representation of an object.
+	 *
+	 * When the generator has a character budget, the values are streamed to the formatter like in
+	 * {@link #formatTo(Object, Appendable)}, so compilation can stop as soon as the budget is exhausted.
 	 * 
 	 * @param object The object to format.
 	 * @return The formatted String representation.
@@ -79,9 +170,251 @@ public class FormattedStringGenerator {
 			throw new IllegalArgumentException("Parameter object must not be null!");
 		}
 
+		if(budget.getMaxCharacters() != Integer.MAX_VALUE) {
+			final StringBuilder result = new StringBuilder();
+			formatTo(object, result);
+			return result.toString();
+		}
+
 		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(object.getClass());
 		final ObjectValuesInfo objectValuesInfo = objectValuesCompiler.compileToStringInfo(typeInfo, object);
 
 		return toStringFormatter.format(objectValuesInfo);
 	}
+
+	/**
+	 * Appends a formatted String representation of an object to an {@link java.lang.Appendable}.
+	 *
+	 * The output is the same as the output of {@link #format(Object)}. But the values of the object are streamed from the
+	 * {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler} to the formatter (see
+	 * {@link net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter#listenerFor(StringBuilder)}), so formatters
+	 * that support streaming can write their output without collecting the values first. When the appendable is not
+	 * a {@link java.lang.StringBuilder}, the formatted string is appended to it in a single call.
+	 *
+	 * @param object The object to format.
+	 * @param appendable Where to append the formatted String representation.
+	 * @throws IOException When appending to the appendable fails.
+	 */
+	public void formatTo(final Object object, final Appendable appendable) throws IOException {
+		if(object==null) {
+			throw new IllegalArgumentException("Parameter object must not be null!");
+		}
+		if(appendable==null) {
+			throw new IllegalArgumentException("Parameter appendable must not be null!");
+		}
+
+		if(appendable instanceof StringBuilder) {
+			formatTo(object, (StringBuilder) appendable);
+		} else {
+			final StringBuilder result = new StringBuilder();
+			formatTo(object, result);
+			appendable.append(result);
+		}
+	}
+
+	/**
+	 * Writes the formatted String representation of an object as UTF-8 bytes into a byte buffer.
+	 *
+	 * The bytes are the same as <code>format(object).getBytes(StandardCharsets.UTF_8)</code>, but (for formatters that
+	 * extend {@link net.davidtanzer.jobjectformatter.formatter.AbstractObjectStringFormatter}) they are encoded directly
+	 * from the formatter's string builder, without creating the String and the byte array.
+	 *
+	 * @param object The object to format.
+	 * @param buffer The buffer to write to, starting at its position.
+	 * @throws java.nio.BufferOverflowException When the formatted string does not fit into the buffer. The position of
+	 *                                          the buffer stays the same then.
+	 */
+	public void formatUtf8(final Object object, final ByteBuffer buffer) {
+		if(object==null) {
+			throw new IllegalArgumentException("Parameter object must not be null!");
+		}
+		if(buffer==null) {
+			throw new IllegalArgumentException("Parameter buffer must not be null!");
+		}
+
+		if(budget.getMaxCharacters() != Integer.MAX_VALUE) {
+			Utf8Encoding.encode(format(object), buffer);
+			return;
+		}
+
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(object.getClass());
+		toStringFormatter.formatUtf8(objectValuesCompiler.compileToStringInfo(typeInfo, object), buffer);
+	}
+
+	/**
+	 * Writes the formatted String representation of an object as UTF-8 bytes to an output stream.
+	 *
+	 * The bytes are the same as <code>format(object).getBytes(StandardCharsets.UTF_8)</code> (see
+	 * {@link #formatUtf8(Object, java.nio.ByteBuffer)}).
+	 *
+	 * @param object The object to format.
+	 * @param out The stream to write to.
+	 * @throws IOException When writing to the stream fails.
+	 */
+	public void formatUtf8(final Object object, final OutputStream out) throws IOException {
+		if(object==null) {
+			throw new IllegalArgumentException("Parameter object must not be null!");
+		}
+		if(out==null) {
+			throw new IllegalArgumentException("Parameter out must not be null!");
+		}
+
+		if(budget.getMaxCharacters() != Integer.MAX_VALUE) {
+			Utf8Encoding.encode(format(object), out);
+			return;
+		}
+
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(object.getClass());
+		toStringFormatter.formatUtf8(objectValuesCompiler.compileToStringInfo(typeInfo, object), out);
+	}
+
+	/*
+	 * Takes the snapshot of the values that format(ObjectValuesSnapshot) formats later.
+	 */
+	ObjectValuesSnapshot snapshot(final Object object) {
+		if(object==null) {
+			throw new IllegalArgumentException("Parameter object must not be null!");
+		}
+
+		return objectValuesCompiler.snapshot(typeInfoCache.typeInfoFor(object.getClass()), object);
+	}
+
+	/*
+	 * Formats the values of the snapshot exactly like format(Object) would have formatted the object when the snapshot
+	 * was taken.
+	 */
+	String format(final ObjectValuesSnapshot snapshot) {
+		assert snapshot != null : "Parameter snapshot must not be null!";
+
+		if(budget.getMaxCharacters() != Integer.MAX_VALUE) {
+			final StringBuilder result = new StringBuilder();
+			compileWithinBudget(result, listener -> objectValuesCompiler.compileTo(snapshot, listener));
+			return result.toString();
+		}
+
+		return toStringFormatter.format(objectValuesCompiler.compileToStringInfo(snapshot));
+	}
+
+	private void formatTo(final Object object, final StringBuilder result) {
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(object.getClass());
+		if(budget.getMaxCharacters() == Integer.MAX_VALUE) {
+			objectValuesCompiler.compileTo(typeInfo, object, toStringFormatter.listenerFor(result));
+			return;
+		}
+
+		compileWithinBudget(result, listener -> objectValuesCompiler.compileTo(typeInfo, object, listener));
+	}
+
+	private void compileWithinBudget(final StringBuilder result, final Consumer<ObjectValuesListener> compilation) {
+		final CharacterBudgetListener listener = new CharacterBudgetListener(toStringFormatter.listenerFor(result), result, budget.getMaxCharacters());
+		try {
+			compilation.accept(listener);
+		} catch (CharacterBudgetListener.BudgetExhaustedException e) {
+			ignoreException_BecauseTheTruncatedResultIsAppendedBelow(e);
+		}
+		if(listener.truncateResult()) {
+			result.append(ObjectValuesCompiler.TRUNCATION_MARKER);
+		}
+	}
+
+	/**
+	 * Creates formatted String representations of many objects in parallel, on the common
+	 * {@link java.util.concurrent.ForkJoinPool}.
+	 *
+	 * @param objects The objects to format.
+	 * @return The formatted String representations, in the same order as the objects.
+	 * @see #formatAll(java.util.Collection, java.util.concurrent.ForkJoinPool)
+	 */
+	public List<String> formatAll(final Collection<?> objects) {
+		return formatAll(objects, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Creates formatted String representations of many objects in parallel, on the given
+	 * {@link java.util.concurrent.ForkJoinPool}.
+	 *
+	 * The type information of every distinct class in the batch is resolved once (see
+	 * {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache#preload(java.util.Collection, java.util.concurrent.ForkJoinPool)})
+	 * before the objects are formatted, so the threads do not compete for creating the same type infos. Every object
+	 * is formatted like in {@link #format(Object)}.
+	 *
+	 * @param objects The objects to format.
+	 * @param pool The pool that formats the objects.
+	 * @return The formatted String representations, in the same order as the objects.
+	 */
+	public List<String> formatAll(final Collection<?> objects, final ForkJoinPool pool) {
+		if(pool == null) {
+			throw new IllegalArgumentException("Parameter pool must not be null!");
+		}
+
+		final List<?> batch = preloadBatch(objects, pool);
+		final String[] results = new String[batch.size()];
+		pool.invoke(new FormatTask(batch, results, 0, batch.size()));
+		return Collections.unmodifiableList(Arrays.asList(results));
+	}
+
+	/**
+	 * Creates a parallel {@link java.util.stream.Stream} of the formatted String representations of many objects.
+	 *
+	 * The type information of every distinct class in the batch is resolved before this method returns, the objects
+	 * themselves are formatted by the terminal operation of the stream. The stream is ordered, so terminal operations
+	 * like {@link java.util.stream.Stream#forEachOrdered(java.util.function.Consumer)} or
+	 * {@link java.util.stream.Stream#collect(java.util.stream.Collector)} see the formatted strings in the same order
+	 * as the objects.
+	 *
+	 * @param objects The objects to format.
+	 * @return A parallel stream of the formatted String representations.
+	 */
+	public Stream<String> formatAllAsStream(final Collection<?> objects) {
+		return preloadBatch(objects, ForkJoinPool.commonPool()).parallelStream().map(this::format);
+	}
+
+	private List<?> preloadBatch(final Collection<?> objects, final ForkJoinPool pool) {
+		if(objects == null) {
+			throw new IllegalArgumentException("Parameter objects must not be null!");
+		}
+
+		final List<?> batch = new ArrayList<>(objects);
+		final Set<Class<?>> types = new LinkedHashSet<>();
+		for(Object object : batch) {
+			if(object == null) {
+				throw new IllegalArgumentException("Parameter objects must not contain null!");
+			}
+			types.add(object.getClass());
+		}
+		typeInfoCache.preload(types, pool);
+		return batch;
+	}
+
+	private void ignoreException_BecauseTheTruncatedResultIsAppendedBelow(final CharacterBudgetListener.BudgetExhaustedException e) {
+	}
+
+	private class FormatTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int OBJECTS_PER_TASK = 64;
+		private final List<?> objects;
+		private final String[] results;
+		private final int from;
+		private final int to;
+
+		private FormatTask(final List<?> objects, final String[] results, final int from, final int to) {
+			this.objects = objects;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from <= OBJECTS_PER_TASK) {
+				for(int i = from; i < to; i++) {
+					results[i] = format(objects.get(i));
+				}
+				return;
+			}
+
+			final int middle = (from + to) >>> 1;
+			invokeAll(new FormatTask(objects, results, from, middle), new FormatTask(objects, results, middle, to));
+		}
+	}
 }
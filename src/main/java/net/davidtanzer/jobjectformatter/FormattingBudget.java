@@ -0,0 +1,144 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+/**
+ * Limits how much output a {@link net.davidtanzer.jobjectformatter.FormattedStringGenerator} produces for a single
+ * object.
+ *
+ * When one of the limits is reached, the generator stops compiling and appending values and adds a truncation marker
+ * instead (see {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler#TRUNCATION_MARKER}). This caps
+ * the time and memory needed to format even very large object graphs. Use the
+ * {@link net.davidtanzer.jobjectformatter.FormattingBudget.Builder} to create a budget.
+ *
+ * <strong>FormattingBudget</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Unlimited budget has no limits.</li>
+ *     <li>Builder creates budget with given limits.</li>
+ *     <li>Budget with a limit is not unlimited.</li>
+ *     <li>Builder does not accept negative limits.</li>
+ * </ul>
+ */
+public class FormattingBudget {
+	/**
+	 * A budget without any limits. This is the budget of every generator that was created without a budget.
+	 */
+	public static final FormattingBudget UNLIMITED = new Builder().buildFormattingBudget();
+
+	private final int maxCharacters;
+	private final int maxDepth;
+	private final int maxFieldsPerObject;
+
+	private FormattingBudget(final int maxCharacters, final int maxDepth, final int maxFieldsPerObject) {
+		this.maxCharacters = maxCharacters;
+		this.maxDepth = maxDepth;
+		this.maxFieldsPerObject = maxFieldsPerObject;
+	}
+
+	/**
+	 * Get the maximum number of characters of the formatted string (not counting the truncation marker).
+	 *
+	 * @return The maximum number of characters.
+	 */
+	public int getMaxCharacters() {
+		return maxCharacters;
+	}
+
+	/**
+	 * Get how deep transitive objects are formatted.
+	 *
+	 * @return The maximum depth of transitive objects.
+	 */
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * Get the maximum number of values that are formatted for every object.
+	 *
+	 * @return The maximum number of values per object.
+	 */
+	public int getMaxFieldsPerObject() {
+		return maxFieldsPerObject;
+	}
+
+	/**
+	 * Check whether this budget has no limits at all.
+	 *
+	 * @return true when no limit was set.
+	 */
+	public boolean isUnlimited() {
+		return maxCharacters == Integer.MAX_VALUE && maxDepth == Integer.MAX_VALUE && maxFieldsPerObject == Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Builder for {@link net.davidtanzer.jobjectformatter.FormattingBudget}. All limits that are not set are unlimited.
+	 */
+	public static class Builder {
+		private int maxCharacters = Integer.MAX_VALUE;
+		private int maxDepth = Integer.MAX_VALUE;
+		private int maxFieldsPerObject = Integer.MAX_VALUE;
+
+		/**
+		 * Build the formatting budget from the information provided before calling this method.
+		 *
+		 * @return The newly created FormattingBudget.
+		 */
+		public FormattingBudget buildFormattingBudget() {
+			return new FormattingBudget(maxCharacters, maxDepth, maxFieldsPerObject);
+		}
+
+		/**
+		 * Set the maximum number of characters of the formatted string.
+		 *
+		 * @param maxCharacters The maximum number of characters (not counting the truncation marker).
+		 * @return the builder itself.
+		 */
+		public Builder setMaxCharacters(final int maxCharacters) {
+			this.maxCharacters = notNegative(maxCharacters, "maxCharacters");
+			return this;
+		}
+
+		/**
+		 * Set how deep transitive objects are formatted.
+		 *
+		 * @param maxDepth The maximum depth of transitive objects. With 0, transitive objects are never formatted.
+		 * @return the builder itself.
+		 */
+		public Builder setMaxDepth(final int maxDepth) {
+			this.maxDepth = notNegative(maxDepth, "maxDepth");
+			return this;
+		}
+
+		/**
+		 * Set the maximum number of values that are formatted for every object.
+		 *
+		 * @param maxFieldsPerObject The maximum number of values per object (including transitive objects).
+		 * @return the builder itself.
+		 */
+		public Builder setMaxFieldsPerObject(final int maxFieldsPerObject) {
+			this.maxFieldsPerObject = notNegative(maxFieldsPerObject, "maxFieldsPerObject");
+			return this;
+		}
+
+		private int notNegative(final int value, final String parameterName) {
+			if(value < 0) {
+				throw new IllegalArgumentException("Parameter "+parameterName+" must not be negative!");
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+/**
+ * An object that is only formatted when its {@link #toString()} is called, e.g. by a log framework that actually
+ * writes the log statement. Create it with {@link ObjectFormatter#lazy(Object)}.
+ *
+ * The formatted string is cached, so calling toString again (e.g. when the statement is written to more than one
+ * appender) does not format the object again. When two threads call toString at the same time, the object might be
+ * formatted twice, but both threads get an equal string.
+ */
+public final class LazyFormattedObject {
+	private final FormattedStringGenerator generator;
+	private final Object object;
+	private volatile String formatted;
+
+	LazyFormattedObject(final FormattedStringGenerator generator, final Object object) {
+		assert generator != null : "Parameter generator must not be null!";
+		assert object != null : "Parameter object must not be null!";
+
+		this.generator = generator;
+		this.object = object;
+	}
+
+	/**
+	 * Get the formatted string of the object, formatting it on the first call.
+	 *
+	 * @return The formatted String representation of the object.
+	 */
+	@Override
+	public String toString() {
+		String result = formatted;
+		if(result == null) {
+			result = generator.format(object);
+			formatted = result;
+		}
+		return result;
+	}
+}
@@ -23,6 +23,10 @@ import java.util.concurrent.atomic.AtomicReference;
  * <strong>ObjectFormatter</strong> functionality (extracted from the tests by agiledox):
  * <ul>
  *     <li>Formatted representation of an object contains all values in the format specified by the configured formatter.</li>
+ *     <li>Lazy does not format the object_ before to string is called.</li>
+ *     <li>Lazy formats the object only once.</li>
+ *     <li>Lazy returns the same string as format.</li>
+ *     <li>Lazy fails_ for null objects.</li>
  * </ul>
  */
 public class ObjectFormatter {
@@ -46,4 +50,24 @@ public class ObjectFormatter {
 	public static String format(final Object object) {
 		return generator.get().format(object);
 	}
+
+	/**
+	 * Wrap an object so it is only formatted when the wrapper's toString is called. Use this for arguments of log
+	 * statements, so the object is not formatted when the log level is disabled:
+	 * <pre>
+	 * log.debug("Processing {}", ObjectFormatter.lazy(order));
+	 * </pre>
+	 *
+	 * The wrapper uses the {@link net.davidtanzer.jobjectformatter.FormattedStringGenerator} that is configured when
+	 * this method is called, and caches the formatted string.
+	 *
+	 * @param object The object to format.
+	 * @return A wrapper whose toString returns the string representation of the object.
+	 */
+	public static LazyFormattedObject lazy(final Object object) {
+		if(object == null) {
+			throw new IllegalArgumentException("Parameter object must not be null!");
+		}
+		return new LazyFormattedObject(generator.get(), object);
+	}
 }
@@ -0,0 +1,36 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+/**
+ * What an {@link net.davidtanzer.jobjectformatter.AsyncFormattedStringGenerator} does with an object when its queue
+ * is full.
+ */
+public enum OverflowPolicy {
+	/**
+	 * The calling thread waits until there is space in the queue.
+	 */
+	BLOCK,
+	/**
+	 * The object is not formatted: The future completes exceptionally with a
+	 * {@link java.util.concurrent.RejectedExecutionException} and the callback is never called.
+	 */
+	DROP,
+	/**
+	 * The calling thread formats the object itself.
+	 */
+	RUN_ON_CALLER
+}
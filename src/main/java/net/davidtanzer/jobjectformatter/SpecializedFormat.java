@@ -0,0 +1,221 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.typeinfo.LeafTypes;
+import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A format for a single type and formatter, compiled into one method handle that reads the fields and appends the
+ * literal text between them.
+ *
+ * The literal text is found by formatting a template (see {@link ObjectValuesCompiler#compileTemplate}) that contains
+ * placeholders instead of values, so this only works for formatters that append values verbatim.
+ *
+ * Only types where no value can change the shape of the output are specialized: A property whose value might be
+ * compiled into nested values (which can be empty, or contain cycle, back reference or truncation markers that depend
+ * on the rest of the object) is only known at runtime, so the template cannot show where its text starts and ends.
+ */
+class SpecializedFormat {
+	private static final char PLACEHOLDER_DELIMITER = '\u0000';
+	private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+	private static final MethodType stepType = MethodType.methodType(void.class, StringBuilder.class, Object.class);
+
+	private final ObjectStringFormatter formatter;
+	private final ObjectValuesCompiler objectValuesCompiler;
+	private final MethodHandle appendAll;
+
+	private SpecializedFormat(final ObjectStringFormatter formatter, final ObjectValuesCompiler objectValuesCompiler, final List<String> literals, final List<PropertyInfo> properties) {
+		this.formatter = formatter;
+		this.objectValuesCompiler = objectValuesCompiler;
+		this.appendAll = compileAppendAll(literals, properties);
+	}
+
+	/**
+	 * Creates a specialized format for the type, or returns null when the output of the formatter cannot be split into
+	 * literal text and values.
+	 */
+	static SpecializedFormat create(final Class<?> type, final TypeInfo typeInfo, final ObjectStringFormatter formatter, final ObjectValuesCompiler objectValuesCompiler) {
+		final List<PropertyInfo> placeholderProperties = new ArrayList<>();
+		final ObjectValuesInfo template = objectValuesCompiler.compileTemplate(typeInfo, type, propertyInfo -> {
+			placeholderProperties.add(propertyInfo);
+			return new Placeholder(placeholderProperties.size() - 1);
+		});
+
+		for(PropertyInfo propertyInfo : placeholderProperties) {
+			if(!hasStableOutput(propertyInfo)) {
+				return null;
+			}
+		}
+
+		final String formattedTemplate = formatter.format(template);
+
+		final List<String> literals = new ArrayList<>();
+		final List<PropertyInfo> properties = new ArrayList<>();
+		final boolean[] used = new boolean[placeholderProperties.size()];
+		int literalStart = 0;
+		int placeholderStart;
+		while((placeholderStart = formattedTemplate.indexOf(PLACEHOLDER_DELIMITER, literalStart)) >= 0) {
+			final int placeholderEnd = formattedTemplate.indexOf(PLACEHOLDER_DELIMITER, placeholderStart + 1);
+			if(placeholderEnd < 0) {
+				return null;
+			}
+			final int index = Integer.parseInt(formattedTemplate.substring(placeholderStart + 1, placeholderEnd));
+			if(index >= used.length || used[index]) {
+				return null;
+			}
+			used[index] = true;
+
+			literals.add(formattedTemplate.substring(literalStart, placeholderStart));
+			properties.add(placeholderProperties.get(index));
+			literalStart = placeholderEnd + 1;
+		}
+		literals.add(formattedTemplate.substring(literalStart));
+
+		return new SpecializedFormat(formatter, objectValuesCompiler, literals, properties);
+	}
+
+	/*
+	 * Only ANNOTADED_FIELDS compiles transitive objects into nested values, and only when the value is not of a leaf
+	 * type. Primitive, final and enum leaf types guarantee that the runtime type of the value is a leaf type, too.
+	 */
+	private static boolean hasStableOutput(final PropertyInfo propertyInfo) {
+		if(propertyInfo.getTransitiveIncludeOfTarget() != TransitiveInclude.ANNOTADED_FIELDS) {
+			return true;
+		}
+		final Class<?> type = propertyInfo.getType();
+		return type.isPrimitive() || (LeafTypes.isLeafType(type) && (type.isEnum() || Modifier.isFinal(type.getModifiers())));
+	}
+
+	String format(final Object object) {
+		final StringBuilder result = new StringBuilder();
+		try {
+			appendAll.invokeExact(result, object);
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new IllegalStateException("Could not format object with specialized format", t);
+		}
+		return result.toString();
+	}
+
+	private MethodHandle compileAppendAll(final List<String> literals, final List<PropertyInfo> properties) {
+		final List<MethodHandle> steps = new ArrayList<>();
+		for(int i=0; i<properties.size(); i++) {
+			addLiteralStep(steps, literals.get(i));
+			steps.add(appendValueStep(properties.get(i)));
+		}
+		addLiteralStep(steps, literals.get(literals.size()-1));
+
+		MethodHandle appendAll = findStatic("appendNothing", stepType);
+		for(int i=steps.size()-1; i>=0; i--) {
+			appendAll = MethodHandles.foldArguments(appendAll, steps.get(i));
+		}
+		return appendAll;
+	}
+
+	private void addLiteralStep(final List<MethodHandle> steps, final String literal) {
+		if(!literal.isEmpty()) {
+			final MethodHandle appendLiteral = MethodHandles.insertArguments(appendFor(String.class), 1, literal);
+			steps.add(MethodHandles.dropArguments(appendLiteral, 1, Object.class));
+		}
+	}
+
+	private MethodHandle appendValueStep(final PropertyInfo propertyInfo) {
+		if(propertyInfo.getTransitiveIncludeOfTarget() == TransitiveInclude.ALL_FIELDS) {
+			//The values of these properties are always added as they are, so we can append them without compiling them.
+			final MethodHandle getter = propertyInfo.getterHandle();
+			final Class<?> appendedType = appendedTypeFor(getter.type().returnType());
+			return MethodHandles.filterArguments(appendFor(appendedType), 1, getter.asType(MethodType.methodType(appendedType, Object.class)));
+		}
+
+		final MethodHandle appendCompiledValue = findVirtual("appendCompiledValue", MethodType.methodType(void.class, StringBuilder.class, Object.class, PropertyInfo.class));
+		return MethodHandles.insertArguments(appendCompiledValue.bindTo(this), 2, propertyInfo);
+	}
+
+	private void appendCompiledValue(final StringBuilder result, final Object object, final PropertyInfo propertyInfo) {
+		final Object value = objectValuesCompiler.compileFieldValue(object, propertyInfo);
+		if(value instanceof ObjectValuesInfo) {
+			result.append(formatter.format((ObjectValuesInfo) value));
+		} else {
+			result.append(value);
+		}
+	}
+
+	private static void appendNothing(final StringBuilder result, final Object object) {
+	}
+
+	private static Class<?> appendedTypeFor(final Class<?> propertyType) {
+		if(propertyType == boolean.class || propertyType == char.class || propertyType == int.class ||
+				propertyType == long.class || propertyType == float.class || propertyType == double.class) {
+			return propertyType;
+		}
+		if(propertyType == byte.class || propertyType == short.class) {
+			return int.class;
+		}
+		return Object.class;
+	}
+
+	private static MethodHandle appendFor(final Class<?> appendedType) {
+		try {
+			return lookup.findVirtual(StringBuilder.class, "append", MethodType.methodType(StringBuilder.class, appendedType))
+					.asType(MethodType.methodType(void.class, StringBuilder.class, appendedType));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalStateException("Could not find StringBuilder.append("+appendedType.getName()+")", e);
+		}
+	}
+
+	private static MethodHandle findStatic(final String name, final MethodType type) {
+		try {
+			return lookup.findStatic(SpecializedFormat.class, name, type);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalStateException("Could not find method "+name, e);
+		}
+	}
+
+	private static MethodHandle findVirtual(final String name, final MethodType type) {
+		try {
+			return lookup.findVirtual(SpecializedFormat.class, name, type);
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new IllegalStateException("Could not find method "+name, e);
+		}
+	}
+
+	private static class Placeholder {
+		private final int index;
+
+		Placeholder(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public String toString() {
+			return PLACEHOLDER_DELIMITER + String.valueOf(index) + PLACEHOLDER_DELIMITER;
+		}
+	}
+}
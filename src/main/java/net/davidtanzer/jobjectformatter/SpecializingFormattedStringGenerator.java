@@ -0,0 +1,135 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+import net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link net.davidtanzer.jobjectformatter.FormattedStringGenerator} that compiles a specialized format for types it
+ * formats often.
+ *
+ * After formatting objects of a type a configured number of times, this generator compiles a format for that type that
+ * reads the fields directly and appends the literal text of the formatter between them, without walking the type info
+ * and building values info objects. The specialized format is only used when it produces the same output as the
+ * regular formatting for the object that triggered the specialization, and only for types where no property can be
+ * compiled into nested values (whose shape depends on the values at runtime). Types that cannot be specialized, and all
+ * formatters that do not {@link ObjectStringFormatter#appendsValuesVerbatim() append values verbatim}, are always
+ * formatted the regular way.
+ *
+ * <strong>SpecializingFormattedStringGenerator</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Does not specialize before reaching the invocation threshold.</li>
+ *     <li>Specializes after reaching the invocation threshold.</li>
+ *     <li>Specialized output is the same as regular output for all verbatim built in formatters.</li>
+ *     <li>Specialized output is the same as regular output_ for transitive objects.</li>
+ *     <li>Does not specialize_ when transitive objects are compiled into nested values.</li>
+ *     <li>Specialized output is the same as regular output_ for null values.</li>
+ *     <li>Does not specialize formatters that do not append values verbatim.</li>
+ *     <li>Does not specialize subclasses of verbatim built in formatters.</li>
+ *     <li>Does not specialize the json formatter_ because it escapes values.</li>
+ * </ul>
+ */
+public class SpecializingFormattedStringGenerator extends FormattedStringGenerator {
+	private final ObjectStringFormatter objectStringFormatter;
+	private final TypeInfoCache typeInfoCache;
+	private final ObjectValuesCompiler objectValuesCompiler;
+	private final int invocationsBeforeSpecialization;
+	private final ClassValue<TypeSpecialization> specializations = new ClassValue<TypeSpecialization>() {
+		@Override
+		protected TypeSpecialization computeValue(final Class<?> type) {
+			return new TypeSpecialization();
+		}
+	};
+
+	/**
+	 * Creates a new SpecializingFormattedStringGenerator.
+	 *
+	 * @param objectStringFormatter The formatter to use when creating formatted strings.
+	 * @param invocationsBeforeSpecialization How many objects of a type are formatted the regular way before the
+	 *                                        generator compiles a specialized format for the type.
+	 */
+	public SpecializingFormattedStringGenerator(final ObjectStringFormatter objectStringFormatter, final int invocationsBeforeSpecialization) {
+		this(objectStringFormatter, TypeInfoCache.shared(), invocationsBeforeSpecialization);
+	}
+
+	private SpecializingFormattedStringGenerator(final ObjectStringFormatter objectStringFormatter, final TypeInfoCache typeInfoCache, final int invocationsBeforeSpecialization) {
+		this(objectStringFormatter, typeInfoCache, new ObjectValuesCompiler(typeInfoCache), invocationsBeforeSpecialization);
+	}
+
+	private SpecializingFormattedStringGenerator(final ObjectStringFormatter objectStringFormatter, final TypeInfoCache typeInfoCache, final ObjectValuesCompiler objectValuesCompiler, final int invocationsBeforeSpecialization) {
+		super(objectStringFormatter, typeInfoCache, objectValuesCompiler);
+		if(invocationsBeforeSpecialization < 1) {
+			throw new IllegalArgumentException("Parameter invocationsBeforeSpecialization must be at least 1!");
+		}
+
+		this.objectStringFormatter = objectStringFormatter;
+		this.typeInfoCache = typeInfoCache;
+		this.objectValuesCompiler = objectValuesCompiler;
+		this.invocationsBeforeSpecialization = invocationsBeforeSpecialization;
+	}
+
+	@Override
+	public String format(final Object object) {
+		if(object==null) {
+			throw new IllegalArgumentException("Parameter object must not be null!");
+		}
+
+		final TypeSpecialization specialization = specializations.get(object.getClass());
+		final SpecializedFormat specializedFormat = specialization.specializedFormat;
+		if(specializedFormat != null) {
+			return specializedFormat.format(object);
+		}
+
+		final String formatted = super.format(object);
+		if(specialization.invocations.incrementAndGet() == invocationsBeforeSpecialization) {
+			specialization.specializedFormat = specialize(object, formatted);
+		}
+		return formatted;
+	}
+
+	boolean isSpecialized(final Class<?> type) {
+		return specializations.get(type).specializedFormat != null;
+	}
+
+	private SpecializedFormat specialize(final Object object, final String formatted) {
+		if(!objectStringFormatter.appendsValuesVerbatim()) {
+			return null;
+		}
+
+		try {
+			final Class<?> type = object.getClass();
+			final SpecializedFormat specializedFormat = SpecializedFormat.create(type, typeInfoCache.typeInfoFor(type), objectStringFormatter, objectValuesCompiler);
+			if(specializedFormat != null && formatted.equals(specializedFormat.format(object))) {
+				return specializedFormat;
+			}
+		} catch (RuntimeException e) {
+			ignoreException_BecauseTypesThatCannotBeSpecializedAreFormattedTheRegularWay(e);
+		}
+		return null;
+	}
+
+	private void ignoreException_BecauseTypesThatCannotBeSpecializedAreFormattedTheRegularWay(final RuntimeException e) {
+	}
+
+	private static class TypeSpecialization {
+		private final AtomicInteger invocations = new AtomicInteger();
+		private volatile SpecializedFormat specializedFormat;
+	}
+}
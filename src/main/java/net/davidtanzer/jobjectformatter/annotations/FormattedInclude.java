@@ -30,8 +30,8 @@ public enum FormattedInclude {
 	 */
 	ALL_FIELDS {
 		@Override
-		public void addFieldValueTo(final GroupedValuesInfo.Builder builder, final PropertyInfo propertyInfo, final Object formattedFieldValue) {
-			builder.addFieldValue(propertyInfo.getName(), formattedFieldValue, propertyInfo.getType());
+		public boolean includesField(final PropertyInfo propertyInfo) {
+			return true;
 		}
 	},
 	/**
@@ -43,10 +43,8 @@ public enum FormattedInclude {
 	 */
 	ANNOTATED_FIELDS {
 		@Override
-		public void addFieldValueTo(final GroupedValuesInfo.Builder builder, final PropertyInfo propertyInfo, final Object formattedFieldValue) {
-			if (propertyInfo.getIncludeField().equals(FormattedFieldType.DEFAULT)) {
-				builder.addFieldValue(propertyInfo.getName(), formattedFieldValue, propertyInfo.getType());
-			}
+		public boolean includesField(final PropertyInfo propertyInfo) {
+			return propertyInfo.getIncludeField().equals(FormattedFieldType.DEFAULT);
 		}
 	},
 	/**
@@ -54,10 +52,19 @@ public enum FormattedInclude {
 	 */
 	NO_FIELDS {
 		@Override
-		public void addFieldValueTo(final GroupedValuesInfo.Builder builder, final PropertyInfo propertyInfo, final Object formattedFieldValue) {
+		public boolean includesField(final PropertyInfo propertyInfo) {
+			return false;
 		}
 	};
 
+	/**
+	 * Decides whether the field should be included in the formatted output, based on the value of this enum.
+	 *
+	 * @param propertyInfo The {@link PropertyInfo} of the current filed.
+	 * @return true when the field should be included.
+	 */
+	public abstract boolean includesField(final PropertyInfo propertyInfo);
+
 	/**
 	 * Implements the behavior how the field value should be added based on the value of this enum.
 	 *
@@ -65,5 +72,9 @@ public enum FormattedInclude {
 	 * @param propertyInfo The {@link PropertyInfo} of the current filed.
 	 * @param formattedFieldValue The value of the field in the current object (already formatted).
 	 */
-	public abstract void addFieldValueTo(final GroupedValuesInfo.Builder builder, final PropertyInfo propertyInfo, final Object formattedFieldValue);
+	public void addFieldValueTo(final GroupedValuesInfo.Builder builder, final PropertyInfo propertyInfo, final Object formattedFieldValue) {
+		if(includesField(propertyInfo)) {
+			builder.addFieldValue(propertyInfo.getName(), formattedFieldValue, propertyInfo.getType());
+		}
+	}
 }
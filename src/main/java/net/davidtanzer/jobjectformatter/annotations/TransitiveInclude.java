@@ -17,6 +17,8 @@ package net.davidtanzer.jobjectformatter.annotations;
 
 import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
 
+import java.util.function.Supplier;
+
 /**
  * With TransitiveInclude, you can configure which types of fields (all, annotated or none) to include in the formatted output
  * using the {@link net.davidtanzer.jobjectformatter.annotations.Formatted} annotation.
@@ -29,7 +31,7 @@ public enum TransitiveInclude {
 	 */
 	ALL_FIELDS {
 		@Override
-		public Object transitiveFieldValue(final Object fieldValue, final boolean hasFormattedAnnotation, final ObjectValuesInfo transitiveValues) {
+		public Object transitiveFieldValue(final Object fieldValue, final boolean hasFormattedAnnotation, final Supplier<ObjectValuesInfo> transitiveValues) {
 			return fieldValue;
 		}
 	},
@@ -43,12 +45,13 @@ public enum TransitiveInclude {
 	 */
 	ANNOTADED_FIELDS {
 		@Override
-		public Object transitiveFieldValue(final Object fieldValue, final boolean hasFormattedAnnotation, final ObjectValuesInfo transitiveValues) {
+		public Object transitiveFieldValue(final Object fieldValue, final boolean hasFormattedAnnotation, final Supplier<ObjectValuesInfo> transitiveValues) {
 			if(hasFormattedAnnotation) {
-				if(transitiveValues.getAllValues().isEmpty()) {
+				final ObjectValuesInfo values = transitiveValues.get();
+				if(values.getAllValues().isEmpty()) {
 					return "[not null]";
 				} else {
-					return transitiveValues;
+					return values;
 				}
 			} else {
 				return fieldValue;
@@ -61,7 +64,7 @@ public enum TransitiveInclude {
 	 */
 	NO_FIELDS {
 		@Override
-		public Object transitiveFieldValue(final Object fieldValue, final boolean hasFormattedAnnotation, final ObjectValuesInfo transitiveValues) {
+		public Object transitiveFieldValue(final Object fieldValue, final boolean hasFormattedAnnotation, final Supplier<ObjectValuesInfo> transitiveValues) {
 			if(fieldValue == null) {
 				return null;
 			} else {
@@ -75,8 +78,10 @@ public enum TransitiveInclude {
 	 *
 	 * @param fieldValue The value of the current field.
 	 * @param hasFormattedAnnotation true when the field or the referenced class has the formatted annotation.
-	 * @param transitiveValues An {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} that contains all relevant values from the transitive object.
+	 * @param transitiveValues Supplies an {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} that contains all relevant values
+	 *                         from the transitive object. Only call it when you actually need the values, since compiling them
+	 *                         walks the transitive object.
 	 * @return The formatted field value that will be passed to the {@link net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter}
 	 */
-	public abstract Object transitiveFieldValue(final Object fieldValue, final boolean hasFormattedAnnotation, final ObjectValuesInfo transitiveValues);
+	public abstract Object transitiveFieldValue(final Object fieldValue, final boolean hasFormattedAnnotation, final Supplier<ObjectValuesInfo> transitiveValues);
 }
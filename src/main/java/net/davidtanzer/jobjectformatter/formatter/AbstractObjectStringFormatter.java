@@ -15,10 +15,20 @@
  */
 package net.davidtanzer.jobjectformatter.formatter;
 
+import net.davidtanzer.jobjectformatter.typeinfo.ClassInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
 import net.davidtanzer.jobjectformatter.valuesinfo.GroupedValuesInfo;
 import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesListener;
 import net.davidtanzer.jobjectformatter.valuesinfo.ValueInfo;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 
 /**
@@ -34,14 +44,58 @@ import java.util.List;
  *     <li>Calls <code>appendSingleValue</code> for every value from the object values info.</li>
  *     <li>Adds to string value for simple property.</li>
  *     <li>Adds formatted property value for transitive property.</li>
+ *     <li>Streamed output is the same as formatted output.</li>
+ *     <li>Streamed output is the same as formatted output_ when grouped by class.</li>
+ *     <li>Streams nested values_ when formatter streams nested values.</li>
+ *     <li>Formats nested values into the enclosing result_ when formatter streams nested values.</li>
+ *     <li>Formats nested values separately_ when formatter does not stream nested values.</li>
+ *     <li>Format UTF-8 writes the same bytes as format.</li>
+ *     <li>Precompiled literal segments produce the same output.</li>
+ *     <li>Compiles literal segments only once per class info.</li>
+ *     <li>Compiles literal segments per formatter instance.</li>
+ *     <li>Formats with a plan_ without calling the hooks.</li>
+ *     <li>Appends values unchanged_ when formatter does not override append value.</li>
+ *     <li>Compiles format plan only once per type info.</li>
+ *     <li>Compiles format plans per type info cache.</li>
+ *     <li>Formats values infos with a plan_ without calling the hooks.</li>
+ *     <li>Planned output is the same as the output of the hooks.</li>
+ *     <li>Planned output is the same as formatted output_ for truncated objects.</li>
+ *     <li>Planned and formatted output use the display names of the type info cache.</li>
  * </ul>
  *
+ * The abstract formatter also supports streaming (see {@link #listenerFor(StringBuilder)}): It calls the same protected
+ * methods while it receives the values, without collecting them first. When streaming, the values infos passed to
+ * <code>startFormattedString</code>, <code>endFormattedString</code> and <code>startValueGroup</code> only contain the
+ * type or group name, but no values.
+ *
+ * Formatters whose literal text only depends on the type and property names can {@link #precompilesLiteralSegments()
+ * precompile} that text: The abstract formatter then calls the hooks only once per
+ * {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfo} and formatter instance to compile a format plan, and only
+ * appends the literal text of the plan and the values for every object. This works while streaming and when formatting
+ * values infos that were compiled from a type info (see {@link ObjectValuesInfo#getTypeInfo()}).
+ *
+ * The string builders passed to the protected methods are recycled after the object was formatted, so never keep a
+ * reference to them.
+ *
  * @see net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo
  * @see net.davidtanzer.jobjectformatter.valuesinfo.GroupedValuesInfo
  * @see net.davidtanzer.jobjectformatter.valuesinfo.ValueInfo
  */
 public abstract class AbstractObjectStringFormatter implements ObjectStringFormatter {
 	private final FormatGrouped formatGrouped;
+	private static final int MAX_COMPILED_PER_CLASS = 4;
+	private final ClassValue<CompiledPlans> formatPlans = new ClassValue<CompiledPlans>() {
+		@Override
+		protected CompiledPlans computeValue(final Class<?> type) {
+			return new CompiledPlans();
+		}
+	};
+	private final ClassValue<CompiledSegments> literalSegments = new ClassValue<CompiledSegments>() {
+		@Override
+		protected CompiledSegments computeValue(final Class<?> type) {
+			return new CompiledSegments();
+		}
+	};
 
 	/**
 	 * Creates a formatter configured with the default formatting parameters.
@@ -74,7 +128,66 @@ public abstract class AbstractObjectStringFormatter implements ObjectStringForma
 	 */
 	@Override
 	public String format(final ObjectValuesInfo info) {
-		StringBuilder result = new StringBuilder();
+		final StringBuilder result = StringBuilderPool.acquire(info.getType());
+		try {
+			formatTo(result, info);
+			return result.toString();
+		} finally {
+			StringBuilderPool.release(info.getType(), result);
+		}
+	}
+
+	/**
+	 * Formats the {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} into a recycled string builder
+	 * and encodes it into the buffer, without creating a String.
+	 *
+	 * @param info The {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} that contains all relevant information about the object to format.
+	 * @param result The buffer to write to, starting at its position.
+	 */
+	@Override
+	public void formatUtf8(final ObjectValuesInfo info, final ByteBuffer result) {
+		final StringBuilder formatted = StringBuilderPool.acquire(info.getType());
+		try {
+			formatTo(formatted, info);
+			Utf8Encoding.encode(formatted, result);
+		} finally {
+			StringBuilderPool.release(info.getType(), formatted);
+		}
+	}
+
+	/**
+	 * Formats the {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} into a recycled string builder
+	 * and encodes it to the stream, without creating a String.
+	 *
+	 * @param info The {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} that contains all relevant information about the object to format.
+	 * @param out The stream to write to.
+	 * @throws IOException When writing to the stream fails.
+	 */
+	@Override
+	public void formatUtf8(final ObjectValuesInfo info, final OutputStream out) throws IOException {
+		final StringBuilder formatted = StringBuilderPool.acquire(info.getType());
+		try {
+			formatTo(formatted, info);
+			Utf8Encoding.encode(formatted, out);
+		} finally {
+			StringBuilderPool.release(info.getType(), formatted);
+		}
+	}
+
+	/**
+	 * Formats the {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} directly into the string builder.
+	 *
+	 * Use this method to format transitive objects into the result of the enclosing object (e.g. in
+	 * {@link #appendValue}), instead of creating a separate String with {@link #format(ObjectValuesInfo)}.
+	 *
+	 * @param result The string builder where the formatter collects the formatted string.
+	 * @param info The {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} that contains all relevant information about the object to format.
+	 */
+	protected final void formatTo(final StringBuilder result, final ObjectValuesInfo info) {
+		if(info.getTypeInfo() != null && precompilesLiteralSegments() && streamsNestedValues()) {
+			replay(info, new PlannedListener(result));
+			return;
+		}
 
 		startFormattedString(result, info);
 		switch (formatGrouped) {
@@ -88,7 +201,65 @@ public abstract class AbstractObjectStringFormatter implements ObjectStringForma
 				throw new IllegalStateException("Illegal value of formatGrouped: "+formatGrouped);
 		}
 		endFormattedString(result, info);
-		return result.toString();
+	}
+
+	/**
+	 * Creates a listener that calls the protected methods of this formatter while it receives the values.
+	 *
+	 * @param result The string builder where the formatted string is appended.
+	 * @return A listener for formatting exactly one object.
+	 */
+	@Override
+	public ObjectValuesListener listenerFor(final StringBuilder result) {
+		if(precompilesLiteralSegments() && streamsNestedValues()) {
+			return new PlannedListener(result);
+		}
+		return new StreamingListener(result);
+	}
+
+	/*
+	 * Sends the values info to the listener in the same order the ObjectValuesCompiler would have streamed the values,
+	 * so the planned listener can execute the format plan of the type info.
+	 */
+	private void replay(final ObjectValuesInfo info, final ObjectValuesListener listener) {
+		if(info.getTypeInfo() != null) {
+			listener.startObject(info.getTypeInfo(), info.getType());
+		} else {
+			listener.startObject(info.getType());
+		}
+		for(GroupedValuesInfo groupedValuesInfo : info.getValuesByClass()) {
+			if(groupedValuesInfo.getClassInfo() != null) {
+				listener.startGroup(groupedValuesInfo.getClassInfo());
+			} else {
+				listener.startGroup(groupedValuesInfo.getGroupName());
+			}
+			for(ValueInfo value : groupedValuesInfo.getValues()) {
+				replay(value, listener);
+			}
+			listener.endGroup();
+		}
+		listener.endObject(info.getType());
+	}
+
+	private void replay(final ValueInfo value, final ObjectValuesListener listener) {
+		final PropertyInfo propertyInfo = value.getPropertyInfo();
+		if(value.getValue() instanceof ObjectValuesInfo) {
+			if(propertyInfo != null) {
+				listener.startNestedValue(propertyInfo);
+			} else {
+				listener.startNestedValue(value.getPropertyName(), value.getPropertyType());
+			}
+			replay((ObjectValuesInfo) value.getValue(), listener);
+			if(propertyInfo != null) {
+				listener.endNestedValue(propertyInfo);
+			} else {
+				listener.endNestedValue(value.getPropertyName(), value.getPropertyType());
+			}
+		} else if(propertyInfo != null) {
+			listener.value(propertyInfo, value.getValue());
+		} else {
+			listener.value(value.getPropertyName(), value.getValue(), value.getPropertyType());
+		}
 	}
 
 	private void formatGroupedValues(final StringBuilder result, final List<GroupedValuesInfo> groupedValues) {
@@ -112,7 +283,11 @@ public abstract class AbstractObjectStringFormatter implements ObjectStringForma
 			if(!first) {
 				result.append(getValueSeparator());
 			}
-			if(value.getValue() instanceof ObjectValuesInfo) {
+			if(value.getValue() instanceof ObjectValuesInfo && streamsNestedValues()) {
+				startNestedValue(result, value.getPropertyName(), value.getPropertyType());
+				formatTo(result, (ObjectValuesInfo) value.getValue());
+				endNestedValue(result, value.getPropertyName(), value.getPropertyType());
+			} else if(value.getValue() instanceof ObjectValuesInfo) {
 				appendSingleValue(result, new ValueInfo(value.getPropertyName(), format((ObjectValuesInfo) value.getValue()), value.getPropertyType()));
 			} else {
 				appendSingleValue(result, value);
@@ -172,6 +347,90 @@ protected void appendSingleValue(final StringBuilder result, final ValueInfo val
 	 */
 	protected abstract void appendSingleValue(StringBuilder result, ValueInfo value);
 
+	/**
+	 * The abstract formatter calls this method for every value that should be added to the result while streaming.
+	 *
+	 * The default implementation calls {@link #appendSingleValue(StringBuilder, ValueInfo)}. Override it (and call it
+	 * from <code>appendSingleValue(StringBuilder, ValueInfo)</code>) to avoid creating a ValueInfo for every value.
+	 *
+	 * @param result The string builder where the formatter collects the formatted string.
+	 * @param propertyName The name of the property.
+	 * @param value The (already formatted) value of the property.
+	 * @param propertyType The type of the property.
+	 */
+	protected void appendSingleValue(final StringBuilder result, final String propertyName, final Object value, final Class<?> propertyType) {
+		appendSingleValue(result, new ValueInfo(propertyName, value, propertyType));
+	}
+
+	/**
+	 * Tells whether this formatter can write the formatted string of a transitive object directly into the result,
+	 * between {@link #startNestedValue} and {@link #endNestedValue}.
+	 *
+	 * When this method returns false (the default), the abstract formatter formats transitive objects into a separate
+	 * string while streaming and passes that string to {@link #appendSingleValue(StringBuilder, ValueInfo)}.
+	 *
+	 * @return true when this formatter implements <code>startNestedValue</code> and <code>endNestedValue</code>.
+	 */
+	protected boolean streamsNestedValues() {
+		return false;
+	}
+
+	/**
+	 * The abstract formatter calls this method before streaming the formatted string of a transitive object (Only when
+	 * {@link #streamsNestedValues()} returns true; Override to define what comes before the formatted value).
+	 *
+	 * @param result The string builder where the formatter collects the formatted string.
+	 * @param propertyName The name of the property.
+	 * @param propertyType The type of the property.
+	 */
+	protected void startNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {}
+
+	/**
+	 * The abstract formatter calls this method after streaming the formatted string of a transitive object (Only when
+	 * {@link #streamsNestedValues()} returns true; Override to define what comes after the formatted value).
+	 *
+	 * @param result The string builder where the formatter collects the formatted string.
+	 * @param propertyName The name of the property.
+	 * @param propertyType The type of the property.
+	 */
+	protected void endNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {}
+
+	/**
+	 * Tells whether the literal text this formatter writes around values can be compiled once per type.
+	 *
+	 * Return true only when <code>startFormattedString</code> and <code>endFormattedString</code> depend on nothing but
+	 * the type, <code>startValueGroup</code> depends on nothing but the group name, <code>startNestedValue</code> and
+	 * <code>endNestedValue</code> depend on nothing but the property name and type, <code>endValueGroup</code> and the
+	 * separators never change, and <code>appendSingleValue</code> writes exactly what <code>startNestedValue</code>,
+	 * {@link #appendValue} and <code>endNestedValue</code> write together. The default implementation returns false.
+	 *
+	 * The plan bypasses the hooks, so overriding them in a subclass has no effect while this method returns true. The
+	 * built-in formatters therefore only return true when their concrete class is the built-in class itself.
+	 *
+	 * When this method and {@link #streamsNestedValues()} return true, the abstract formatter compiles a format plan
+	 * once per type info and only appends its literal text and the values while formatting, without calling the hooks.
+	 *
+	 * @return true when the abstract formatter should use precompiled format plans.
+	 */
+	protected boolean precompilesLiteralSegments() {
+		return false;
+	}
+
+	/**
+	 * The abstract formatter calls this method for every value that is added to the result between precompiled literal
+	 * segments (Only when {@link #precompilesLiteralSegments()} returns true; Append only the value itself).
+	 *
+	 * The default implementation appends the value unchanged (i.e. its <code>toString</code>). Override it when your
+	 * formatter converts values, like escaping strings.
+	 *
+	 * @param result The string builder where the formatter collects the formatted string.
+	 * @param value The (already formatted) value of the property.
+	 * @param propertyType The type of the property.
+	 */
+	protected void appendValue(final StringBuilder result, final Object value, final Class<?> propertyType) {
+		result.append(value);
+	}
+
 	/**
 	 * Get the separator that the formatter will print between two values.
 	 *
@@ -189,4 +448,298 @@ protected void appendSingleValue(final StringBuilder result, final ValueInfo val
 	protected String getGroupsSeparator() {
 		return getValueSeparator();
 	}
+
+	LiteralSegments literalSegmentsFor(final ClassInfo classInfo) {
+		final CompiledSegments compiledSegments = literalSegments.get(classInfo.getClazz());
+		final LiteralSegments[] compiled = compiledSegments.segments;
+		for(LiteralSegments segments : compiled) {
+			if(segments.isCompiledFor(classInfo)) {
+				return segments;
+			}
+		}
+		final LiteralSegments segments = LiteralSegments.compile(classInfo, this);
+		compiledSegments.segments = withMostRecentlyCompiled(compiled, segments);
+		return segments;
+	}
+
+	FormatPlan formatPlanFor(final TypeInfo typeInfo, final Class<?> type) {
+		final CompiledPlans compiledPlans = formatPlans.get(type);
+		final FormatPlan[] compiled = compiledPlans.plans;
+		for(FormatPlan plan : compiled) {
+			if(plan.isCompiledFor(typeInfo)) {
+				return plan;
+			}
+		}
+		final FormatPlan plan = FormatPlan.compile(typeInfo, type, this, formatGrouped);
+		compiledPlans.plans = withMostRecentlyCompiled(compiled, plan);
+		return plan;
+	}
+
+	/*
+	 * Every TypeInfoCache that formats a class has its own class infos, so the formatter keeps what it compiled for the
+	 * class infos of a few caches. When more caches format the same class, the least recently compiled is dropped.
+	 */
+	private static <T> T[] withMostRecentlyCompiled(final T[] compiled, final T mostRecentlyCompiled) {
+		final T[] result = Arrays.copyOf(compiled, Math.min(compiled.length + 1, MAX_COMPILED_PER_CLASS));
+		System.arraycopy(compiled, 0, result, 1, result.length - 1);
+		result[0] = mostRecentlyCompiled;
+		return result;
+	}
+
+	private static class CompiledSegments {
+		private volatile LiteralSegments[] segments = new LiteralSegments[0];
+	}
+
+	private static class CompiledPlans {
+		private volatile FormatPlan[] plans = new FormatPlan[0];
+	}
+
+	private class StreamingListener implements ObjectValuesListener {
+		private final Deque<StringBuilder> enclosingResults = new ArrayDeque<>();
+		StringBuilder result;
+		boolean firstGroup;
+		boolean firstValue;
+
+		private StreamingListener(final StringBuilder result) {
+			this.result = result;
+		}
+
+		@Override
+		public void startObject(final Class<?> type) {
+			startFormattedString(result, ObjectValuesInfo.withoutValues(type));
+			firstGroup = true;
+			firstValue = true;
+		}
+
+		@Override
+		public void startObject(final TypeInfo typeInfo, final Class<?> type) {
+			startFormattedString(result, ObjectValuesInfo.withoutValues(type, typeInfo.getDisplayName()));
+			firstGroup = true;
+			firstValue = true;
+		}
+
+		@Override
+		public void startGroup(final String groupName) {
+			if(formatGrouped == FormatGrouped.BY_CLASS) {
+				if(!firstGroup) {
+					result.append(getGroupsSeparator());
+				}
+				startValueGroup(result, GroupedValuesInfo.withoutValues(groupName));
+				firstValue = true;
+			}
+			firstGroup = false;
+		}
+
+		@Override
+		public void value(final String propertyName, final Object value, final Class<?> propertyType) {
+			appendValueSeparatorIfNecessary();
+			appendSingleValue(result, propertyName, value, propertyType);
+		}
+
+		@Override
+		public void startNestedValue(final String propertyName, final Class<?> propertyType) {
+			appendValueSeparatorIfNecessary();
+			if(streamsNestedValues()) {
+				AbstractObjectStringFormatter.this.startNestedValue(result, propertyName, propertyType);
+			} else {
+				enclosingResults.push(result);
+				result = StringBuilderPool.acquire(propertyType);
+			}
+		}
+
+		@Override
+		public void endNestedValue(final String propertyName, final Class<?> propertyType) {
+			if(streamsNestedValues()) {
+				AbstractObjectStringFormatter.this.endNestedValue(result, propertyName, propertyType);
+			} else {
+				final String formattedValue = result.toString();
+				StringBuilderPool.release(propertyType, result);
+				result = enclosingResults.pop();
+				appendSingleValue(result, new ValueInfo(propertyName, formattedValue, propertyType));
+			}
+		}
+
+		@Override
+		public void endGroup() {
+			if(formatGrouped == FormatGrouped.BY_CLASS) {
+				endValueGroup(result);
+			}
+		}
+
+		@Override
+		public void endObject(final Class<?> type) {
+			endFormattedString(result, ObjectValuesInfo.withoutValues(type));
+			//A nested object is a value inside a group of the enclosing object.
+			firstGroup = false;
+			firstValue = false;
+		}
+
+		void appendValueSeparatorIfNecessary() {
+			if(!firstValue) {
+				result.append(getValueSeparator());
+			}
+			firstValue = false;
+		}
+	}
+
+	/**
+	 * Executes the {@link net.davidtanzer.jobjectformatter.formatter.FormatPlan} of every object it receives, so it only
+	 * appends precompiled literal text and calls {@link #appendValue} for the values. Events without type information
+	 * (like the truncation marker) are handled by calling the hooks, like the streaming listener does.
+	 */
+	private class PlannedListener extends StreamingListener {
+		private FormatPlan plan;
+		private int nextGroupIndex;
+		private LiteralSegments segments = LiteralSegments.NONE;
+		private int nextPropertyIndex;
+
+		private FormatPlan[] enclosingPlans = new FormatPlan[4];
+		private LiteralSegments[] enclosingSegments = new LiteralSegments[4];
+		private int[] enclosingGroupIndices = new int[4];
+		private int[] enclosingPropertyIndices = new int[4];
+		private int depth;
+
+		private PlannedListener(final StringBuilder result) {
+			super(result);
+		}
+
+		@Override
+		public void startObject(final TypeInfo typeInfo, final Class<?> type) {
+			enterObject(formatPlanFor(typeInfo, type));
+			result.append(plan.startOfObject());
+			firstGroup = true;
+			firstValue = true;
+		}
+
+		@Override
+		public void startObject(final Class<?> type) {
+			enterObject(null);
+			super.startObject(type);
+		}
+
+		@Override
+		public void startGroup(final ClassInfo classInfo) {
+			final int groupIndex = plan == null ? -1 : plan.indexOfGroup(classInfo, nextGroupIndex);
+			if(groupIndex < 0) {
+				segments = LiteralSegments.NONE;
+				startGroup(classInfo.getDisplayName());
+				return;
+			}
+
+			if(!firstGroup) {
+				result.append(plan.groupsSeparator());
+			}
+			result.append(plan.startOfGroup(groupIndex));
+			if(plan.separatesValuesPerGroup()) {
+				firstValue = true;
+			}
+			firstGroup = false;
+			nextGroupIndex = groupIndex + 1;
+			segments = plan.segmentsOfGroup(groupIndex);
+			nextPropertyIndex = 0;
+		}
+
+		@Override
+		public void value(final PropertyInfo propertyInfo, final Object value) {
+			final int index = nextIndexOf(propertyInfo);
+			if(index < 0) {
+				value(propertyInfo.getName(), value, propertyInfo.getType());
+				return;
+			}
+
+			appendPlannedValueSeparator();
+			result.append(segments.beforeValue(index));
+			appendValue(result, value, propertyInfo.getType());
+			result.append(segments.afterValue(index));
+		}
+
+		@Override
+		public void startNestedValue(final PropertyInfo propertyInfo) {
+			final int index = nextIndexOf(propertyInfo);
+			if(index < 0) {
+				startNestedValue(propertyInfo.getName(), propertyInfo.getType());
+				return;
+			}
+
+			appendPlannedValueSeparator();
+			result.append(segments.beforeValue(index));
+		}
+
+		@Override
+		public void endNestedValue(final PropertyInfo propertyInfo) {
+			final int index = segments.indexOf(propertyInfo, Math.max(0, nextPropertyIndex - 1));
+			if(index < 0) {
+				endNestedValue(propertyInfo.getName(), propertyInfo.getType());
+				return;
+			}
+
+			result.append(segments.afterValue(index));
+		}
+
+		@Override
+		public void endGroup() {
+			if(plan == null) {
+				super.endGroup();
+				return;
+			}
+			result.append(plan.endOfGroup());
+		}
+
+		@Override
+		public void endObject(final Class<?> type) {
+			if(plan == null) {
+				super.endObject(type);
+			} else {
+				result.append(plan.endOfObject());
+			}
+			leaveObject();
+			//A nested object is a value inside a group of the enclosing object.
+			firstGroup = false;
+			firstValue = false;
+		}
+
+		private void enterObject(final FormatPlan objectPlan) {
+			if(depth == enclosingPlans.length) {
+				enclosingPlans = Arrays.copyOf(enclosingPlans, depth * 2);
+				enclosingSegments = Arrays.copyOf(enclosingSegments, depth * 2);
+				enclosingGroupIndices = Arrays.copyOf(enclosingGroupIndices, depth * 2);
+				enclosingPropertyIndices = Arrays.copyOf(enclosingPropertyIndices, depth * 2);
+			}
+			enclosingPlans[depth] = plan;
+			enclosingSegments[depth] = segments;
+			enclosingGroupIndices[depth] = nextGroupIndex;
+			enclosingPropertyIndices[depth] = nextPropertyIndex;
+			depth++;
+
+			plan = objectPlan;
+			segments = LiteralSegments.NONE;
+			nextGroupIndex = 0;
+			nextPropertyIndex = 0;
+		}
+
+		private void leaveObject() {
+			depth--;
+			plan = enclosingPlans[depth];
+			segments = enclosingSegments[depth];
+			nextGroupIndex = enclosingGroupIndices[depth];
+			nextPropertyIndex = enclosingPropertyIndices[depth];
+			enclosingPlans[depth] = null;
+			enclosingSegments[depth] = null;
+		}
+
+		private int nextIndexOf(final PropertyInfo propertyInfo) {
+			final int index = segments.indexOf(propertyInfo, nextPropertyIndex);
+			if(index >= 0) {
+				nextPropertyIndex = index + 1;
+			}
+			return index;
+		}
+
+		private void appendPlannedValueSeparator() {
+			if(!firstValue) {
+				result.append(plan.valueSeparator());
+			}
+			firstValue = false;
+		}
+	}
 }
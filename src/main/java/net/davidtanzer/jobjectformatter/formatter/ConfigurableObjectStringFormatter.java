@@ -18,6 +18,8 @@ public class ConfigurableObjectStringFormatter extends AbstractObjectStringForma
 	private final DisplayClassName displayClassName;
 	private final String beforeValue;
 	private final String afterValue;
+	//Subclasses may override the hooks, so the shortcuts that bypass them are only taken by this class itself.
+	private final boolean hooksAreBuiltIn = getClass() == ConfigurableObjectStringFormatter.class;
 
 	public ConfigurableObjectStringFormatter(final String beforeClassName, final String afterClassName, final String endOfString, final String valueSeparator, final String startOfGroup, final String endOfGroup, final String beforeValue, final String afterValue, final FormatGrouped formatGrouped, final DisplayClassName displayClassName) {
 		super(formatGrouped);
@@ -39,11 +41,35 @@ public class ConfigurableObjectStringFormatter extends AbstractObjectStringForma
 		result.append(value.getPropertyName()).append(beforeValue).append(value.getValue()).append(afterValue);
 	}
 
+	@Override
+	protected void appendSingleValue(final StringBuilder result, final String propertyName, final Object value, final Class<?> propertyType) {
+		if(!hooksAreBuiltIn) {
+			super.appendSingleValue(result, propertyName, value, propertyType);
+			return;
+		}
+		result.append(propertyName).append(beforeValue).append(value).append(afterValue);
+	}
+
+	@Override
+	protected boolean streamsNestedValues() {
+		return hooksAreBuiltIn;
+	}
+
+	@Override
+	protected void startNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {
+		result.append(propertyName).append(beforeValue);
+	}
+
+	@Override
+	protected void endNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {
+		result.append(afterValue);
+	}
+
 	@Override
 	protected void startFormattedString(final StringBuilder result, final ObjectValuesInfo info) {
 		if(displayClassName == DisplayClassName.ALWAYS ||
 				(displayClassName == DisplayClassName.WHEN_NOT_GROUPED_BY_CLASS && formatGrouped != FormatGrouped.BY_CLASS)) {
-			result.append(beforeClassName).append(info.getType().getSimpleName());
+			result.append(beforeClassName).append(info.getDisplayName());
 		}
 		result.append(afterClassName);
 	}
@@ -67,4 +93,14 @@ public class ConfigurableObjectStringFormatter extends AbstractObjectStringForma
 	protected String getValueSeparator() {
 		return valueSeparator;
 	}
+
+	@Override
+	protected boolean precompilesLiteralSegments() {
+		return hooksAreBuiltIn;
+	}
+
+	@Override
+	public boolean appendsValuesVerbatim() {
+		return hooksAreBuiltIn;
+	}
 }
@@ -0,0 +1,145 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.formatter;
+
+import net.davidtanzer.jobjectformatter.typeinfo.ClassInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+
+import java.util.List;
+
+/**
+ * Everything a formatter writes around the values of one type, compiled once per
+ * {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfo} and formatter.
+ *
+ * The plan contains the literal text at the start and end of the object, before every group and between values and
+ * groups, and the {@link net.davidtanzer.jobjectformatter.formatter.LiteralSegments} of every class. The configuration
+ * of the formatter (like grouping or when to display the class name) is already applied to the literal text, so
+ * formatting an object only appends ready-made strings and the values, without calling the formatter's hooks.
+ */
+final class FormatPlan {
+	private final List<ClassInfo> classInfos;
+	private final String startOfObject;
+	private final String endOfObject;
+	private final LiteralSegments[] groupSegments;
+	private final String[] startOfGroups;
+	private final String endOfGroup;
+	private final String groupsSeparator;
+	private final String valueSeparator;
+	private final boolean separatesValuesPerGroup;
+
+	private FormatPlan(final List<ClassInfo> classInfos, final String startOfObject, final String endOfObject, final LiteralSegments[] groupSegments, final String[] startOfGroups, final String endOfGroup, final String groupsSeparator, final String valueSeparator, final boolean separatesValuesPerGroup) {
+		this.classInfos = classInfos;
+		this.startOfObject = startOfObject;
+		this.endOfObject = endOfObject;
+		this.groupSegments = groupSegments;
+		this.startOfGroups = startOfGroups;
+		this.endOfGroup = endOfGroup;
+		this.groupsSeparator = groupsSeparator;
+		this.valueSeparator = valueSeparator;
+		this.separatesValuesPerGroup = separatesValuesPerGroup;
+	}
+
+	static FormatPlan compile(final TypeInfo typeInfo, final Class<?> type, final AbstractObjectStringFormatter formatter, final FormatGrouped formatGrouped) {
+		assert typeInfo != null : "Parameter \"typeInfo\" must not be null.";
+		assert type != null : "Parameter \"type\" must not be null.";
+		assert formatter != null : "Parameter \"formatter\" must not be null.";
+
+		final StringBuilder literal = new StringBuilder();
+		formatter.startFormattedString(literal, ObjectValuesInfo.withoutValues(type, typeInfo.getDisplayName()));
+		final String startOfObject = literal.toString();
+
+		literal.setLength(0);
+		formatter.endFormattedString(literal, ObjectValuesInfo.withoutValues(type, typeInfo.getDisplayName()));
+		final String endOfObject = literal.toString();
+
+		final boolean grouped = formatGrouped == FormatGrouped.BY_CLASS;
+		final List<ClassInfo> classInfos = typeInfo.classInfos();
+		final LiteralSegments[] groupSegments = new LiteralSegments[classInfos.size()];
+		final String[] startOfGroups = new String[classInfos.size()];
+		for(int i=0; i<groupSegments.length; i++) {
+			groupSegments[i] = formatter.literalSegmentsFor(classInfos.get(i));
+			startOfGroups[i] = grouped ? groupSegments[i].startOfGroup() : "";
+		}
+
+		literal.setLength(0);
+		if(grouped) {
+			formatter.endValueGroup(literal);
+		}
+		final String endOfGroup = literal.toString();
+
+		return new FormatPlan(classInfos, startOfObject, endOfObject, groupSegments, startOfGroups, endOfGroup,
+				grouped ? formatter.getGroupsSeparator() : "", formatter.getValueSeparator(), grouped);
+	}
+
+	boolean isCompiledFor(final TypeInfo typeInfo) {
+		//All transitive include variants of a type info share the same class infos, and so they share the plan.
+		return classInfos == typeInfo.classInfos();
+	}
+
+	String startOfObject() {
+		return startOfObject;
+	}
+
+	String endOfObject() {
+		return endOfObject;
+	}
+
+	/**
+	 * Finds the index of the group of the class, starting at the given index, because the groups are formatted in the
+	 * order of the class infos. Returns -1 when the class does not belong to the type.
+	 */
+	int indexOfGroup(final ClassInfo classInfo, final int startIndex) {
+		for(int i=startIndex; i<groupSegments.length; i++) {
+			if(classInfos.get(i) == classInfo) {
+				return i;
+			}
+		}
+		for(int i=0; i<startIndex && i<groupSegments.length; i++) {
+			if(classInfos.get(i) == classInfo) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	LiteralSegments segmentsOfGroup(final int groupIndex) {
+		return groupSegments[groupIndex];
+	}
+
+	String startOfGroup(final int groupIndex) {
+		return startOfGroups[groupIndex];
+	}
+
+	String endOfGroup() {
+		return endOfGroup;
+	}
+
+	String groupsSeparator() {
+		return groupsSeparator;
+	}
+
+	String valueSeparator() {
+		return valueSeparator;
+	}
+
+	/**
+	 * Tells whether the first value of every group is written without a value separator (i.e. when grouping by class).
+	 */
+	boolean separatesValuesPerGroup() {
+		return separatesValuesPerGroup;
+	}
+}
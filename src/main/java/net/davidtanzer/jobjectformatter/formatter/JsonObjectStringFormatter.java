@@ -19,38 +19,34 @@ import net.davidtanzer.jobjectformatter.valuesinfo.GroupedValuesInfo;
 import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
 import net.davidtanzer.jobjectformatter.valuesinfo.ValueInfo;
 
-import java.util.HashSet;
-import java.util.Set;
-
 /**
- * A formatter that formates objects using a JSON-like syntax.
+ * A formatter that formates objects as JSON.
  *
  * Example output:
  * <pre>
-{"Person": {"firstName": "Jane", "lastName": "Doe", "address": "[not null]"}}
+{"Person": {"firstName": "Jane", "lastName": "Doe", "age": 33, "address": {"Address": {"street": "Evergreen Terrace"}}}}
  * </pre>
  *
+ * Strings are escaped while they are appended to the result (see {@link net.davidtanzer.jobjectformatter.formatter.JsonValues}),
+ * numbers, booleans and null are appended natively and transitive objects are appended as nested JSON objects. Because
+ * values are escaped, this formatter does not {@link #appendsValuesVerbatim() append values verbatim}.
+ *
  * <strong>JsonObjectStringFormatter</strong>
  * <ul>
  *     <li>Formats grouped by classes correctly.</li>
+ *     <li>Does not output groups but outputs class name when grouping is disabled.</li>
+ *     <li>Escapes quotes backslashes and control characters.</li>
+ *     <li>Appends numbers booleans and null natively.</li>
+ *     <li>Appends nested objects natively.</li>
+ *     <li>Appends nested objects natively_ while streaming.</li>
+ *     <li>Appends nested objects into the enclosing result_ when they are passed as values.</li>
  * </ul>
  */
 public class JsonObjectStringFormatter extends AbstractObjectStringFormatter {
-	private static final Set<Class<?>> unescapedTypes = new HashSet<Class<?>>() {{
-		add(Integer.class);
-		add(Short.class);
-		add(Float.class);
-		add(Double.class);
-		add(Boolean.class);
-
-		add(int.class);
-		add(short.class);
-		add(float.class);
-		add(double.class);
-		add(boolean.class);
-	}};
 	private final DisplayClassName displayClassName;
 	private final FormatGrouped formatGrouped;
+	//Subclasses may override the hooks, so only this class itself takes the shortcuts that bypass them.
+	private final boolean hooksAreBuiltIn = getClass() == JsonObjectStringFormatter.class;
 
 	/**
 	 * Creates a new JsonObjectStringFormatter with the default configuration.
@@ -106,22 +102,53 @@ public class JsonObjectStringFormatter extends AbstractObjectStringFormatter {
 
 	@Override
 	protected void appendSingleValue(final StringBuilder result, final ValueInfo value) {
-		result.append("\"").append(value.getPropertyName()).append("\": ");
-		if(!unescapedTypes.contains(value.getPropertyType())) {
-			result.append("\"");
+		startNestedValue(result, value.getPropertyName(), value.getPropertyType());
+		appendValue(result, value.getValue(), value.getPropertyType());
+	}
+
+	@Override
+	protected void appendSingleValue(final StringBuilder result, final String propertyName, final Object value, final Class<?> propertyType) {
+		if(!hooksAreBuiltIn) {
+			super.appendSingleValue(result, propertyName, value, propertyType);
+			return;
 		}
-		result.append(value.getValue());
-		if(!unescapedTypes.contains(value.getPropertyType())) {
-			result.append("\"");
+		startNestedValue(result, propertyName, propertyType);
+		appendValue(result, value, propertyType);
+	}
+
+	@Override
+	protected boolean precompilesLiteralSegments() {
+		return hooksAreBuiltIn;
+	}
+
+	@Override
+	protected void appendValue(final StringBuilder result, final Object value, final Class<?> propertyType) {
+		if(value instanceof ObjectValuesInfo) {
+			formatTo(result, (ObjectValuesInfo) value);
+		} else {
+			JsonValues.appendValue(result, value);
 		}
 	}
 
+	@Override
+	protected boolean streamsNestedValues() {
+		return true;
+	}
+
+	@Override
+	protected void startNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {
+		JsonValues.appendString(result, propertyName);
+		result.append(": ");
+	}
+
 	@Override
 	protected void startFormattedString(final StringBuilder result, final ObjectValuesInfo info) {
 		result.append("{");
 		if(displayClassName == DisplayClassName.ALWAYS ||
 				(displayClassName == DisplayClassName.WHEN_NOT_GROUPED_BY_CLASS) && formatGrouped != FormatGrouped.BY_CLASS) {
-			result.append("\"class\": \"").append(info.getType().getSimpleName()).append("\"").append(getValueSeparator());
+			result.append("\"class\": ");
+			JsonValues.appendString(result, info.getDisplayName());
+			result.append(getValueSeparator());
 		}
 	}
 
@@ -132,7 +159,8 @@ public class JsonObjectStringFormatter extends AbstractObjectStringFormatter {
 
 	@Override
 	protected void startValueGroup(final StringBuilder result, final GroupedValuesInfo groupedValuesInfo) {
-		result.append("\"").append(groupedValuesInfo.getGroupName()).append("\": {");
+		JsonValues.appendString(result, groupedValuesInfo.getGroupName());
+		result.append(": {");
 	}
 
 	@Override
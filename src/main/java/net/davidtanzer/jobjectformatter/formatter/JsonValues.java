@@ -0,0 +1,143 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.formatter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends values as JSON, directly into the string builder of the formatter.
+ *
+ * Strings are escaped in a single pass: Runs of characters that do not have to be escaped are copied with one append,
+ * so strings that only contain safe characters (the common case) are copied as they are. Numbers, booleans and null
+ * are appended natively, without creating strings for them first. Numbers that have no JSON representation (like
+ * <code>NaN</code>) and all other values are appended as strings.
+ *
+ * <strong>JsonValues</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Appends safe strings unchanged.</li>
+ *     <li>Escapes quotes and backslashes.</li>
+ *     <li>Escapes control characters.</li>
+ *     <li>Does not escape non ascii characters.</li>
+ *     <li>Appends numbers booleans and null natively.</li>
+ *     <li>Appends numbers without json representation as strings.</li>
+ *     <li>Appends other values as escaped strings.</li>
+ * </ul>
+ */
+final class JsonValues {
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private JsonValues() {
+	}
+
+	static void appendValue(final StringBuilder result, final Object value) {
+		assert result != null : "Parameter \"result\" must not be null.";
+
+		if(value == null) {
+			result.append("null");
+		} else if(value instanceof CharSequence) {
+			appendString(result, (CharSequence) value);
+		} else if(value instanceof Integer || value instanceof Short || value instanceof Byte || value instanceof AtomicInteger) {
+			result.append(((Number) value).intValue());
+		} else if(value instanceof Long || value instanceof AtomicLong) {
+			result.append(((Number) value).longValue());
+		} else if(value instanceof Double || value instanceof Float) {
+			appendFloatingPoint(result, (Number) value);
+		} else if(value instanceof BigInteger || value instanceof BigDecimal) {
+			result.append(value);
+		} else if(value instanceof Boolean) {
+			result.append(((Boolean) value).booleanValue());
+		} else if(value instanceof Character) {
+			result.append('"');
+			appendEscaped(result, ((Character) value).charValue());
+			result.append('"');
+		} else {
+			appendString(result, value.toString());
+		}
+	}
+
+	static void appendString(final StringBuilder result, final CharSequence value) {
+		assert result != null : "Parameter \"result\" must not be null.";
+		assert value != null : "Parameter \"value\" must not be null.";
+
+		result.append('"');
+		final int length = value.length();
+		int safeStart = 0;
+		for(int i=0; i<length; i++) {
+			final char c = value.charAt(i);
+			if(needsEscaping(c)) {
+				result.append(value, safeStart, i);
+				appendEscaped(result, c);
+				safeStart = i+1;
+			}
+		}
+		if(safeStart == 0) {
+			result.append(value);
+		} else {
+			result.append(value, safeStart, length);
+		}
+		result.append('"');
+	}
+
+	private static void appendFloatingPoint(final StringBuilder result, final Number value) {
+		final double doubleValue = value.doubleValue();
+		if(Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+			appendString(result, value.toString());
+		} else if(value instanceof Float) {
+			result.append(value.floatValue());
+		} else {
+			result.append(doubleValue);
+		}
+	}
+
+	private static boolean needsEscaping(final char c) {
+		return c < 0x20 || c == '"' || c == '\\';
+	}
+
+	private static void appendEscaped(final StringBuilder result, final char c) {
+		switch (c) {
+			case '"':
+				result.append("\\\"");
+				break;
+			case '\\':
+				result.append("\\\\");
+				break;
+			case '\n':
+				result.append("\\n");
+				break;
+			case '\r':
+				result.append("\\r");
+				break;
+			case '\t':
+				result.append("\\t");
+				break;
+			case '\b':
+				result.append("\\b");
+				break;
+			case '\f':
+				result.append("\\f");
+				break;
+			default:
+				if(c < 0x20) {
+					result.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xf]);
+				} else {
+					result.append(c);
+				}
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.formatter;
+
+import net.davidtanzer.jobjectformatter.typeinfo.ClassInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.GroupedValuesInfo;
+
+import java.util.List;
+
+/**
+ * The literal text a formatter writes around the values of one class, compiled once per
+ * {@link net.davidtanzer.jobjectformatter.typeinfo.ClassInfo} and formatter.
+ *
+ * The segments are found by calling the formatter's own <code>startValueGroup</code>, <code>startNestedValue</code> and
+ * <code>endNestedValue</code> methods with the names of the class and its properties, so the formatter only has to
+ * append one ready-made segment before and after each value while formatting.
+ */
+final class LiteralSegments {
+	/**
+	 * The segments of formatters that do not precompile literal segments: They contain no properties.
+	 */
+	static final LiteralSegments NONE = new LiteralSegments(null, new PropertyInfo[0], "", new String[0], new String[0]);
+
+	private final ClassInfo classInfo;
+	private final PropertyInfo[] properties;
+	private final String startOfGroup;
+	private final String[] beforeValues;
+	private final String[] afterValues;
+
+	private LiteralSegments(final ClassInfo classInfo, final PropertyInfo[] properties, final String startOfGroup, final String[] beforeValues, final String[] afterValues) {
+		this.classInfo = classInfo;
+		this.properties = properties;
+		this.startOfGroup = startOfGroup;
+		this.beforeValues = beforeValues;
+		this.afterValues = afterValues;
+	}
+
+	static LiteralSegments compile(final ClassInfo classInfo, final AbstractObjectStringFormatter formatter) {
+		assert classInfo != null : "Parameter \"classInfo\" must not be null.";
+		assert formatter != null : "Parameter \"formatter\" must not be null.";
+
+		final StringBuilder segment = new StringBuilder();
+		formatter.startValueGroup(segment, GroupedValuesInfo.withoutValues(classInfo.getDisplayName()));
+		final String startOfGroup = segment.toString();
+
+		final List<PropertyInfo> fieldInfos = classInfo.fieldInfos();
+		final PropertyInfo[] properties = fieldInfos.toArray(new PropertyInfo[fieldInfos.size()]);
+		final String[] beforeValues = new String[properties.length];
+		final String[] afterValues = new String[properties.length];
+		for(int i=0; i<properties.length; i++) {
+			segment.setLength(0);
+			formatter.startNestedValue(segment, properties[i].getName(), properties[i].getType());
+			beforeValues[i] = segment.toString();
+
+			segment.setLength(0);
+			formatter.endNestedValue(segment, properties[i].getName(), properties[i].getType());
+			afterValues[i] = segment.toString();
+		}
+		return new LiteralSegments(classInfo, properties, startOfGroup, beforeValues, afterValues);
+	}
+
+	boolean isCompiledFor(final ClassInfo classInfo) {
+		return this.classInfo == classInfo;
+	}
+
+	String startOfGroup() {
+		return startOfGroup;
+	}
+
+	String beforeValue(final int index) {
+		return beforeValues[index];
+	}
+
+	String afterValue(final int index) {
+		return afterValues[index];
+	}
+
+	/**
+	 * Finds the index of the property, starting at the given index, because the values of a class are formatted in the
+	 * order of its properties. Returns -1 when the property does not belong to the class.
+	 */
+	int indexOf(final PropertyInfo propertyInfo, final int startIndex) {
+		for(int i=startIndex; i<properties.length; i++) {
+			if(properties[i] == propertyInfo) {
+				return i;
+			}
+		}
+		for(int i=0; i<startIndex && i<properties.length; i++) {
+			if(properties[i] == propertyInfo) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -15,7 +15,13 @@
  */
 package net.davidtanzer.jobjectformatter.formatter;
 
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCollector;
 import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 /**
  * Converts an {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} into a formatted string.
@@ -35,4 +41,66 @@ public interface ObjectStringFormatter {
 	 * @return The formatted representation of the object, as String.
 	 */
 	String format(ObjectValuesInfo info);
+
+	/**
+	 * Creates a listener that formats the values it receives and appends the formatted string to the result.
+	 *
+	 * {@link net.davidtanzer.jobjectformatter.FormattedStringGenerator#formatTo(Object, Appendable)} uses this listener
+	 * to format objects without collecting their values first. The default implementation collects all values anyway
+	 * and then calls {@link #format(ObjectValuesInfo)}, so every formatter supports streaming. Override it when your
+	 * formatter can write its output while it receives the values.
+	 *
+	 * @param result The string builder where the formatted string is appended.
+	 * @return A listener for formatting exactly one object.
+	 * @see net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesListener
+	 */
+	default ObjectValuesListener listenerFor(final StringBuilder result) {
+		return new ObjectValuesCollector(info -> result.append(format(info)));
+	}
+
+	/**
+	 * Writes the formatted string of an {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} as UTF-8
+	 * bytes into a byte buffer.
+	 *
+	 * The default implementation encodes the result of {@link #format(ObjectValuesInfo)}. Override it when your
+	 * formatter can encode its output without creating a String first.
+	 *
+	 * @param info The {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} that contains all relevant information about the object to format.
+	 * @param result The buffer to write to, starting at its position.
+	 * @throws java.nio.BufferOverflowException When the formatted string does not fit into the buffer.
+	 * @see net.davidtanzer.jobjectformatter.formatter.Utf8Encoding#encode(CharSequence, ByteBuffer)
+	 */
+	default void formatUtf8(final ObjectValuesInfo info, final ByteBuffer result) {
+		Utf8Encoding.encode(format(info), result);
+	}
+
+	/**
+	 * Writes the formatted string of an {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} as UTF-8
+	 * bytes to an output stream.
+	 *
+	 * The default implementation encodes the result of {@link #format(ObjectValuesInfo)}. Override it when your
+	 * formatter can encode its output without creating a String first.
+	 *
+	 * @param info The {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo} that contains all relevant information about the object to format.
+	 * @param out The stream to write to.
+	 * @throws IOException When writing to the stream fails.
+	 */
+	default void formatUtf8(final ObjectValuesInfo info, final OutputStream out) throws IOException {
+		Utf8Encoding.encode(format(info), out);
+	}
+
+	/**
+	 * Tells whether this formatter appends every value unchanged (i.e. its <code>toString</code>), surrounded by text
+	 * that only depends on the type of the object and on the name and type of the property.
+	 *
+	 * Formatters that return true here can be specialized per type by
+	 * {@link net.davidtanzer.jobjectformatter.SpecializingFormattedStringGenerator}. Only return true when your formatter
+	 * really behaves like that, otherwise specialized output will differ from the output of this formatter. Subclasses
+	 * can change how values are appended, so the built-in formatters only return true for their own class.
+	 *
+	 * @return true when values are appended unchanged, false (the default) otherwise.
+	 */
+	default boolean appendsValuesVerbatim() {
+		return false;
+	}
 }
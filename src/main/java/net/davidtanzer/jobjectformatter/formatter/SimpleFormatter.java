@@ -27,6 +27,9 @@ import net.davidtanzer.jobjectformatter.valuesinfo.ValueInfo;
  * </pre>
  */
 public class SimpleFormatter extends AbstractObjectStringFormatter {
+	//Subclasses may override the hooks, so only the SimpleFormatter itself takes the shortcuts that bypass them.
+	private final boolean hooksAreBuiltIn = getClass() == SimpleFormatter.class;
+
 	public SimpleFormatter() {
 		super(FormatGrouped.NO);
 	}
@@ -45,4 +48,33 @@ public class SimpleFormatter extends AbstractObjectStringFormatter {
 	protected void appendSingleValue(final StringBuilder result, final ValueInfo value) {
 		result.append(value.getPropertyName()).append("=").append(value.getValue());
 	}
+
+	@Override
+	protected void appendSingleValue(final StringBuilder result, final String propertyName, final Object value, final Class<?> propertyType) {
+		if(!hooksAreBuiltIn) {
+			super.appendSingleValue(result, propertyName, value, propertyType);
+			return;
+		}
+		result.append(propertyName).append("=").append(value);
+	}
+
+	@Override
+	protected boolean streamsNestedValues() {
+		return hooksAreBuiltIn;
+	}
+
+	@Override
+	protected void startNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {
+		result.append(propertyName).append("=");
+	}
+
+	@Override
+	protected boolean precompilesLiteralSegments() {
+		return hooksAreBuiltIn;
+	}
+
+	@Override
+	public boolean appendsValuesVerbatim() {
+		return hooksAreBuiltIn;
+	}
 }
@@ -0,0 +1,120 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.formatter;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Recycles the string builders of the formatters, so formatting an object does not allocate (and grow) a new builder
+ * every time.
+ *
+ * The pool is a small array of slots that threads take builders from and put them back into with atomic operations.
+ * It does not use thread locals, so it does not keep a builder for every (virtual) thread that ever formatted an
+ * object, and it never holds more than a fixed number of builders. Builders that grew very large are not recycled.
+ *
+ * New builders are sized from a running average of the formatted length of the type, so they usually do not have to
+ * grow while the object is formatted.
+ *
+ * <strong>StringBuilderPool</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Reuses released builders.</li>
+ *     <li>Released builders are empty.</li>
+ *     <li>Does not recycle very large builders.</li>
+ *     <li>Estimates length from running average of type.</li>
+ *     <li>Sizes builders from expected length of type.</li>
+ * </ul>
+ */
+final class StringBuilderPool {
+	private static final int SLOTS = 64;
+	private static final int SLOTS_MASK = SLOTS - 1;
+	static final int PROBES = 4;
+	private static final int MIN_CAPACITY = 16;
+	static final int MAX_RECYCLED_CAPACITY = 16 * 1024;
+
+	private static final AtomicReferenceArray<StringBuilder> slots = new AtomicReferenceArray<>(SLOTS);
+	private static final ClassValue<LengthEstimate> lengthEstimates = new ClassValue<LengthEstimate>() {
+		@Override
+		protected LengthEstimate computeValue(final Class<?> type) {
+			return new LengthEstimate();
+		}
+	};
+
+	private StringBuilderPool() {
+	}
+
+	static StringBuilder acquire(final Class<?> type) {
+		final int expectedLength = expectedLength(type);
+		final int firstSlot = firstSlot();
+		for(int i = 0; i < PROBES; i++) {
+			final int slot = (firstSlot + i) & SLOTS_MASK;
+			final StringBuilder builder = slots.get(slot);
+			if(builder != null && slots.compareAndSet(slot, builder, null)) {
+				builder.ensureCapacity(expectedLength);
+				return builder;
+			}
+		}
+		return new StringBuilder(Math.max(MIN_CAPACITY, expectedLength));
+	}
+
+	/*
+	 * Records the length of the builder's content for the type and recycles the builder. The caller must not use the
+	 * builder anymore.
+	 */
+	static void release(final Class<?> type, final StringBuilder builder) {
+		lengthEstimates.get(keyFor(type)).record(builder.length());
+		if(builder.capacity() > MAX_RECYCLED_CAPACITY) {
+			return;
+		}
+
+		builder.setLength(0);
+		final int firstSlot = firstSlot();
+		for(int i = 0; i < PROBES; i++) {
+			if(slots.compareAndSet((firstSlot + i) & SLOTS_MASK, null, builder)) {
+				return;
+			}
+		}
+	}
+
+	static int expectedLength(final Class<?> type) {
+		final int averageLength = lengthEstimates.get(keyFor(type)).averageLength;
+		return averageLength + (averageLength >> 2);
+	}
+
+	/*
+	 * Threads start probing at different slots, so they rarely compete for the same builders.
+	 */
+	private static int firstSlot() {
+		return (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 58) & SLOTS_MASK;
+	}
+
+	private static Class<?> keyFor(final Class<?> type) {
+		//Values infos that were created without a type (e.g. templates) share one estimate.
+		return type != null ? type : Object.class;
+	}
+
+	private static class LengthEstimate {
+		/*
+		 * Not updated atomically: When two threads record a length at the same time, one of the lengths is lost, which
+		 * does not matter for an estimate.
+		 */
+		private volatile int averageLength;
+
+		private void record(final int length) {
+			final int current = averageLength;
+			averageLength = current == 0 ? length : current + ((length - current) >> 3);
+		}
+	}
+}
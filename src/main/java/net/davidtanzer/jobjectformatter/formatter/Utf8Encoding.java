@@ -0,0 +1,179 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.formatter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes formatted strings as UTF-8, directly from the string builder into a {@link java.nio.ByteBuffer} or an
+ * {@link java.io.OutputStream}, without creating a String or a byte array for the whole output first.
+ *
+ * The encoded bytes are exactly the bytes of <code>String.getBytes(StandardCharsets.UTF_8)</code>, including the
+ * replacement of unpaired surrogates with <code>'?'</code>. ASCII characters (like property names and the separators of
+ * all built-in formatters) are copied with a fast path.
+ *
+ * <strong>Utf8Encoding</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Encodes like string get bytes.</li>
+ *     <li>Encodes into buffers without array.</li>
+ *     <li>Throws buffer overflow_ and keeps position_ when buffer is too small.</li>
+ *     <li>Encodes to output stream in chunks.</li>
+ *     <li>Does not split surrogate pairs_ at chunk boundaries.</li>
+ * </ul>
+ */
+public final class Utf8Encoding {
+	private static final int CHUNK_SIZE = 8192;
+	private static final int MAX_BYTES_PER_CHAR = 3;
+	private static final byte REPLACEMENT = (byte) '?';
+
+	private Utf8Encoding() {
+	}
+
+	/**
+	 * Encode characters as UTF-8 into a byte buffer, starting at the buffer's position.
+	 *
+	 * @param chars The characters to encode.
+	 * @param buffer The buffer to write to. Its position is advanced by the number of encoded bytes.
+	 * @throws BufferOverflowException When the encoded characters do not fit into the buffer. Nothing is written then
+	 *                                 and the position of the buffer stays the same.
+	 */
+	public static void encode(final CharSequence chars, final ByteBuffer buffer) {
+		if(chars == null) {
+			throw new IllegalArgumentException("Parameter chars must not be null!");
+		}
+		if(buffer == null) {
+			throw new IllegalArgumentException("Parameter buffer must not be null!");
+		}
+
+		if(encodedLength(chars) > buffer.remaining()) {
+			throw new BufferOverflowException();
+		}
+
+		if(buffer.hasArray()) {
+			final int start = buffer.arrayOffset() + buffer.position();
+			final int end = encode(chars, 0, chars.length(), buffer.array(), start);
+			buffer.position(buffer.position() + end - start);
+		} else {
+			final byte[] chunk = new byte[chunkSizeFor(chars)];
+			encodeInChunks(chars, chunk, (bytes, length) -> buffer.put(bytes, 0, length));
+		}
+	}
+
+	/**
+	 * Encode characters as UTF-8 and write them to an output stream. The bytes are written in chunks of at most 8 KiB.
+	 *
+	 * @param chars The characters to encode.
+	 * @param out The stream to write to.
+	 * @throws IOException When writing to the stream fails.
+	 */
+	public static void encode(final CharSequence chars, final OutputStream out) throws IOException {
+		if(chars == null) {
+			throw new IllegalArgumentException("Parameter chars must not be null!");
+		}
+		if(out == null) {
+			throw new IllegalArgumentException("Parameter out must not be null!");
+		}
+
+		final byte[] chunk = new byte[chunkSizeFor(chars)];
+		encodeInChunks(chars, chunk, (bytes, length) -> out.write(bytes, 0, length));
+	}
+
+	/**
+	 * Get the number of bytes of the characters when they are encoded as UTF-8.
+	 *
+	 * @param chars The characters.
+	 * @return The number of bytes.
+	 */
+	public static int encodedLength(final CharSequence chars) {
+		final int length = chars.length();
+		int encodedLength = 0;
+		for(int i = 0; i < length; i++) {
+			final char c = chars.charAt(i);
+			if(c < 0x80) {
+				encodedLength++;
+			} else if(c < 0x800) {
+				encodedLength += 2;
+			} else if(!Character.isSurrogate(c)) {
+				encodedLength += 3;
+			} else if(isSurrogatePair(chars, i, length)) {
+				encodedLength += 4;
+				i++;
+			} else {
+				encodedLength++;
+			}
+		}
+		return encodedLength;
+	}
+
+	private static int chunkSizeFor(final CharSequence chars) {
+		//At least two characters, so a chunk can always hold a surrogate pair.
+		return Math.max(2 * MAX_BYTES_PER_CHAR, Math.min(CHUNK_SIZE, chars.length() * MAX_BYTES_PER_CHAR));
+	}
+
+	private static <E extends Exception> void encodeInChunks(final CharSequence chars, final byte[] chunk, final ChunkWriter<E> writer) throws E {
+		final int length = chars.length();
+		final int charsPerChunk = chunk.length / MAX_BYTES_PER_CHAR;
+		int from = 0;
+		while(from < length) {
+			int to = Math.min(length, from + charsPerChunk);
+			if(to < length && Character.isHighSurrogate(chars.charAt(to - 1))) {
+				to--;
+			}
+			writer.write(chunk, encode(chars, from, to, chunk, 0));
+			from = to;
+		}
+	}
+
+	/*
+	 * The destination must have room for all encoded characters. Returns the position after the last encoded byte.
+	 */
+	private static int encode(final CharSequence chars, final int from, final int to, final byte[] destination, final int start) {
+		int position = start;
+		for(int i = from; i < to; i++) {
+			final char c = chars.charAt(i);
+			if(c < 0x80) {
+				destination[position++] = (byte) c;
+			} else if(c < 0x800) {
+				destination[position++] = (byte) (0xC0 | (c >> 6));
+				destination[position++] = (byte) (0x80 | (c & 0x3F));
+			} else if(!Character.isSurrogate(c)) {
+				destination[position++] = (byte) (0xE0 | (c >> 12));
+				destination[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				destination[position++] = (byte) (0x80 | (c & 0x3F));
+			} else if(isSurrogatePair(chars, i, to)) {
+				final int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+				destination[position++] = (byte) (0xF0 | (codePoint >> 18));
+				destination[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				destination[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				destination[position++] = (byte) (0x80 | (codePoint & 0x3F));
+			} else {
+				destination[position++] = REPLACEMENT;
+			}
+		}
+		return position;
+	}
+
+	private static boolean isSurrogatePair(final CharSequence chars, final int index, final int end) {
+		return Character.isHighSurrogate(chars.charAt(index)) && index + 1 < end && Character.isLowSurrogate(chars.charAt(index + 1));
+	}
+
+	private interface ChunkWriter<E extends Exception> {
+		void write(byte[] bytes, int length) throws E;
+	}
+}
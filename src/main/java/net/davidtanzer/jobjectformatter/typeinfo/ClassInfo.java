@@ -15,6 +15,9 @@
  */
 package net.davidtanzer.jobjectformatter.typeinfo;
 
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+
 import java.util.*;
 
 /**
@@ -22,13 +25,36 @@ import java.util.*;
  */
 public class ClassInfo {
 	private final Class clazz;
+	private final String displayName;
 	private final List<PropertyInfo> propertyInfos;
+	private final List<List<PropertyInfo>> includedFieldInfos;
+	private final List<List<PropertyInfo>> includedFieldInfosInTransitive;
 
 	ClassInfo(final Class<?> type, final TypeInfoCache typeInfoCache, final FieldsFilter fieldsFilter) {
 		this.clazz = type;
+		this.displayName = typeInfoCache.displayNameOf(type);
 
-		List<PropertyInfo> propertyInfos = fieldsFilter.getFilteredFields(type, typeInfoCache);
+		final GeneratedFormatter generatedFormatter = typeInfoCache.generatedFormatterFor(type);
+		List<PropertyInfo> propertyInfos = generatedFormatter != null ?
+				fieldsFilter.getGeneratedFields(type, generatedFormatter, typeInfoCache) :
+				fieldsFilter.getFilteredFields(type, typeInfoCache);
 		this.propertyInfos = Collections.unmodifiableList(propertyInfos);
+		this.includedFieldInfos = includedFieldInfos(this.propertyInfos, false);
+		this.includedFieldInfosInTransitive = includedFieldInfos(this.propertyInfos, true);
+	}
+
+	private static List<List<PropertyInfo>> includedFieldInfos(final List<PropertyInfo> propertyInfos, final boolean inTransitive) {
+		final List<List<PropertyInfo>> includedFieldInfos = new ArrayList<>();
+		for(FormattedInclude formattedInclude : FormattedInclude.values()) {
+			final List<PropertyInfo> includedFields = new ArrayList<>();
+			for(PropertyInfo propertyInfo : propertyInfos) {
+				if(formattedInclude.includesField(propertyInfo) && (!inTransitive || FormattedFieldType.DEFAULT.equals(propertyInfo.getIncludeFieldInTransitive()))) {
+					includedFields.add(propertyInfo);
+				}
+			}
+			includedFieldInfos.add(includedFields.size() == propertyInfos.size() ? propertyInfos : Collections.unmodifiableList(includedFields));
+		}
+		return Collections.unmodifiableList(includedFieldInfos);
 	}
 
 	/**
@@ -40,6 +66,16 @@ public class ClassInfo {
 		return clazz;
 	}
 
+	/**
+	 * Get the name of the class as it should be displayed in the formatted output (e.g. as group name).
+	 *
+	 * @return the display name of the class, as configured by the {@link net.davidtanzer.jobjectformatter.typeinfo.ClassNaming}
+	 *         of the type info cache.
+	 */
+	public String getDisplayName() {
+		return displayName;
+	}
+
 	/**
 	 * Get information about all the relevant fields of the class returned from {@link net.davidtanzer.jobjectformatter.typeinfo.ClassInfo#getClazz}.
 	 *
@@ -50,6 +86,30 @@ public class ClassInfo {
 		return propertyInfos;
 	}
 
+	/**
+	 * Get information about the fields that are included in the formatted output of an object, i.e. the fields from
+	 * {@link #fieldInfos()} that the {@link net.davidtanzer.jobjectformatter.annotations.FormattedInclude} of the object's
+	 * type includes. The fields are selected once, when the class info is created.
+	 *
+	 * @param formattedInclude The formatted include configuration of the type of the formatted object.
+	 * @return information about the included fields, in the same order as in {@link #fieldInfos()}.
+	 */
+	public List<PropertyInfo> includedFieldInfos(final FormattedInclude formattedInclude) {
+		return includedFieldInfos.get(formattedInclude.ordinal());
+	}
+
+	/**
+	 * Get information about the fields that are included in the formatted output of a transitive object, i.e. the fields
+	 * from {@link #includedFieldInfos(FormattedInclude)} that are also included in transitive objects. The fields are
+	 * selected once, when the class info is created.
+	 *
+	 * @param formattedInclude The formatted include configuration of the type of the transitive object.
+	 * @return information about the included fields, in the same order as in {@link #fieldInfos()}.
+	 */
+	public List<PropertyInfo> includedFieldInfosInTransitive(final FormattedInclude formattedInclude) {
+		return includedFieldInfosInTransitive.get(formattedInclude.ordinal());
+	}
+
 	@Override
 	public String toString() {
 		return "ClassInfo{" +
@@ -0,0 +1,114 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+/**
+ * With ClassNaming, you can configure how class names are displayed in the formatted output (as group names and as the
+ * class name of formatted objects).
+ *
+ * The display names are resolved once, when the {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache} creates
+ * the type information of a class, so the naming strategy has no cost while formatting.
+ *
+ * <strong>ClassNaming</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Simple uses the simple name.</li>
+ *     <li>Simple derives the simple name from the binary name when the enclosing class cannot be loaded.</li>
+ *     <li>Fully qualified uses the binary name.</li>
+ *     <li>Abbreviated package keeps the first letter of every package.</li>
+ *     <li>Abbreviated package keeps names of classes without package.</li>
+ * </ul>
+ *
+ * @see net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache#TypeInfoCache(boolean, ClassNaming)
+ */
+public enum ClassNaming {
+	/**
+	 * Display the simple name of the class, e.g. <code>Person</code> (the default).
+	 */
+	SIMPLE {
+		@Override
+		public String displayNameOf(final Class<?> type) {
+			try {
+				return type.getSimpleName();
+			} catch (LinkageError e) {
+				ignoreException_BecauseTheSimpleNameCanBeDerivedFromTheBinaryName(e);
+				return simpleNameFromBinaryName(type);
+			}
+		}
+	},
+	/**
+	 * Display the fully qualified (binary) name of the class, e.g. <code>com.example.model.Person</code> or
+	 * <code>com.example.model.Person$Address</code> for nested classes.
+	 */
+	FULLY_QUALIFIED {
+		@Override
+		public String displayNameOf(final Class<?> type) {
+			return type.getName();
+		}
+	},
+	/**
+	 * Display the fully qualified name of the class, but only the first letter of every package, e.g.
+	 * <code>c.e.m.Person</code>.
+	 */
+	ABBREVIATED_PACKAGE {
+		@Override
+		public String displayNameOf(final Class<?> type) {
+			final String name = type.getName();
+			final int classNameStart = name.lastIndexOf('.') + 1;
+			if(classNameStart == 0) {
+				return name;
+			}
+
+			final StringBuilder displayName = new StringBuilder(name.length());
+			boolean startOfPackage = true;
+			for(int i=0; i<classNameStart; i++) {
+				final char c = name.charAt(i);
+				if(startOfPackage || c == '.') {
+					displayName.append(c);
+				}
+				startOfPackage = c == '.';
+			}
+			return displayName.append(name, classNameStart, name.length()).toString();
+		}
+	};
+
+	/**
+	 * Get the name of a class as it should be displayed in the formatted output.
+	 *
+	 * @param type The class.
+	 * @return The display name of the class.
+	 */
+	public abstract String displayNameOf(final Class<?> type);
+
+	/*
+	 * The simple name of a nested class is resolved through its enclosing class, which is not always visible to the class
+	 * loader of the nested class. Strips the package and the enclosing classes (and the number javac puts in front of the
+	 * names of local and anonymous classes) from the binary name instead.
+	 */
+	private static String simpleNameFromBinaryName(final Class<?> type) {
+		if(type.isArray()) {
+			return SIMPLE.displayNameOf(type.getComponentType()) + "[]";
+		}
+		final String name = type.getName();
+		int simpleNameStart = Math.max(name.lastIndexOf('.'), name.lastIndexOf('$')) + 1;
+		while(simpleNameStart < name.length() && Character.isDigit(name.charAt(simpleNameStart))) {
+			simpleNameStart++;
+		}
+		return name.substring(simpleNameStart);
+	}
+
+	private static void ignoreException_BecauseTheSimpleNameCanBeDerivedFromTheBinaryName(final LinkageError e) {
+	}
+}
@@ -0,0 +1,115 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Finds the classes of a package (and its sub packages) in the directories and jar files of a class loader.
+ */
+class ClassPathScanner {
+	private static final String CLASS_FILE_SUFFIX = ".class";
+
+	private ClassPathScanner() {
+	}
+
+	static Set<Class<?>> classesInPackage(final String packageName, final ClassLoader classLoader) throws IOException {
+		assert packageName != null : "Parameter \"packageName\" must not be null.";
+		assert classLoader != null : "Parameter \"classLoader\" must not be null.";
+
+		final String packagePath = packageName.replace('.', '/');
+		final Set<String> classNames = new LinkedHashSet<>();
+		for(URL packageUrl : Collections.list(classLoader.getResources(packagePath))) {
+			if("file".equals(packageUrl.getProtocol())) {
+				addClassNamesFromDirectory(classNames, packageName, toPath(packageUrl));
+			} else if("jar".equals(packageUrl.getProtocol())) {
+				addClassNamesFromJar(classNames, packagePath, (JarURLConnection) packageUrl.openConnection());
+			}
+		}
+
+		final Set<Class<?>> classes = new LinkedHashSet<>();
+		for(String className : classNames) {
+			final Class<?> type = loadClass(className, classLoader);
+			if(type != null) {
+				classes.add(type);
+			}
+		}
+		return classes;
+	}
+
+	private static Path toPath(final URL packageUrl) throws IOException {
+		try {
+			return Paths.get(packageUrl.toURI());
+		} catch (URISyntaxException e) {
+			throw new IOException("Cannot scan the directory "+packageUrl, e);
+		}
+	}
+
+	private static void addClassNamesFromDirectory(final Set<String> classNames, final String packageName, final Path packageDirectory) throws IOException {
+		try(Stream<Path> files = Files.walk(packageDirectory)) {
+			files.map(file -> packageDirectory.relativize(file).toString())
+					.filter(ClassPathScanner::isClassFile)
+					.forEach(relativePath -> classNames.add(packageName + "." + classNameOf(relativePath.replace(File.separatorChar, '/'))));
+		}
+	}
+
+	private static void addClassNamesFromJar(final Set<String> classNames, final String packagePath, final JarURLConnection connection) throws IOException {
+		connection.setUseCaches(false);
+		try(JarFile jarFile = connection.getJarFile()) {
+			final Enumeration<JarEntry> entries = jarFile.entries();
+			while(entries.hasMoreElements()) {
+				final String entryName = entries.nextElement().getName();
+				if(entryName.startsWith(packagePath + "/") && isClassFile(entryName)) {
+					classNames.add(classNameOf(entryName));
+				}
+			}
+		}
+	}
+
+	private static boolean isClassFile(final String path) {
+		return path.endsWith(CLASS_FILE_SUFFIX) && !path.endsWith("package-info.class") && !path.endsWith("module-info.class");
+	}
+
+	private static String classNameOf(final String path) {
+		return path.substring(0, path.length() - CLASS_FILE_SUFFIX.length()).replace('/', '.');
+	}
+
+	private static Class<?> loadClass(final String className, final ClassLoader classLoader) {
+		try {
+			return Class.forName(className, false, classLoader);
+		} catch (ClassNotFoundException | LinkageError e) {
+			ignoreException_BecauseClassesThatCannotBeLoadedAreNeverFormatted(e);
+		}
+		return null;
+	}
+
+	private static void ignoreException_BecauseClassesThatCannotBeLoadedAreNeverFormatted(final Throwable e) {
+	}
+}
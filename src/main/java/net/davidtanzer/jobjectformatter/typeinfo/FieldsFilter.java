@@ -17,6 +17,7 @@ package net.davidtanzer.jobjectformatter.typeinfo;
 
 import net.davidtanzer.jobjectformatter.annotations.*;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Field;
 import java.util.*;
 
@@ -31,23 +32,18 @@ import java.util.*;
  *     <li>Fields annotated with formatted_ have transitive behavior from annotation.</li>
  *     <li>Fields not annotated_ have transitive behavior determined by type info cache.</li>
  *     <li>Transitive annotation on fields_ is more important than behavior specified by type info cache.</li>
+ *     <li>Gets fields described by generated formatter.</li>
+ *     <li>Fields from generated formatter_ have transitive behavior from generated formatter.</li>
+ *     <li>Fields from generated formatter without transitive behavior_ have transitive behavior determined by type info cache.</li>
+ *     <li>Fields from generated formatter_ are read with the getter of the generated formatter.</li>
  * </ul>
  */
 class FieldsFilter {
-	private static final Set<Class<?>> primitiveTypes = new HashSet<Class<?>>() {{
-		add(boolean.class);
-		add(short.class);
-		add(int.class);
-		add(long.class);
-		add(float.class);
-		add(double.class);
-	}};
-
 	public List<PropertyInfo> getFilteredFields(final Class<?> type, final TypeInfoCache typeInfoCache) {
 		final List<PropertyInfo> result = new ArrayList<>();
 
 		for(Field field : type.getDeclaredFields()) {
-			if(!field.getName().startsWith("this")) {
+			if(isCandidate(field)) {
 				field.setAccessible(true);
 
 				final TransitiveInclude transitiveIncludeOfTarget = includeTransitivelyInFormattedText(field, typeInfoCache);
@@ -64,14 +60,48 @@ class FieldsFilter {
 		return result;
 	}
 
-	private TransitiveInclude includeTransitivelyInFormattedText(final Field field, final TypeInfoCache typeInfoCache) {
-		TransitiveInclude transitiveInclude;
+	public List<PropertyInfo> getGeneratedFields(final Class<?> type, final GeneratedFormatter generatedFormatter, final TypeInfoCache typeInfoCache) {
+		final List<PropertyInfo> result = new ArrayList<>();
+
+		generatedFormatter.describeFields(new GeneratedFormatter.Fields() {
+			@Override
+			public void add(final String name, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+				final Field field = declaredField(type, name);
+				final TransitiveInclude transitiveInclude = transitiveIncludeOfTarget != null ?
+						transitiveIncludeOfTarget : defaultTransitiveInclude(field.getType(), typeInfoCache);
+				result.add(new PropertyInfo(field, transitiveInclude, includeField, includeFieldInTransitive));
+			}
 
-		if(field.getType().getName().startsWith("java") || primitiveTypes.contains(field.getType())) {
-			transitiveInclude = TransitiveInclude.ALL_FIELDS;
-		} else {
-			transitiveInclude = typeInfoCache.transitiveIncludeFor(field.getType());
+			@Override
+			public void add(final String name, final Class<?> fieldType, final MethodHandle getter, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+				final TransitiveInclude transitiveInclude = transitiveIncludeOfTarget != null ?
+						transitiveIncludeOfTarget : defaultTransitiveInclude(fieldType, typeInfoCache);
+				result.add(new PropertyInfo(name, fieldType, getter, transitiveInclude, includeField, includeFieldInTransitive));
+			}
+		});
+
+		return result;
+	}
+
+	/*
+	 * Fields whose names start with "this" (like the reference to the enclosing instance of inner classes) are never
+	 * formatted.
+	 */
+	static boolean isCandidate(final Field field) {
+		return !field.getName().startsWith("this");
+	}
+
+	private Field declaredField(final Class<?> type, final String name) {
+		try {
+			return type.getDeclaredField(name);
+		} catch (NoSuchFieldException e) {
+			throw new IllegalStateException("The generated formatter for "+type.getName()+" describes field \""+name+
+					"\", which does not exist. Please re-compile the class with the annotation processor.", e);
 		}
+	}
+
+	private TransitiveInclude includeTransitivelyInFormattedText(final Field field, final TypeInfoCache typeInfoCache) {
+		TransitiveInclude transitiveInclude = defaultTransitiveInclude(field.getType(), typeInfoCache);
 
 		if(field.isAnnotationPresent(Formatted.class)) {
 			final Formatted[] annotations = field.getAnnotationsByType(Formatted.class);
@@ -82,4 +112,10 @@ class FieldsFilter {
 		return transitiveInclude;
 	}
 
+	private TransitiveInclude defaultTransitiveInclude(final Class<?> fieldType, final TypeInfoCache typeInfoCache) {
+		if(LeafTypes.isLeafType(fieldType)) {
+			return TransitiveInclude.ALL_FIELDS;
+		}
+		return typeInfoCache.transitiveIncludeFor(fieldType);
+	}
 }
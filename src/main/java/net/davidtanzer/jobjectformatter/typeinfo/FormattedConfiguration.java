@@ -0,0 +1,141 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+/**
+ * The {@link net.davidtanzer.jobjectformatter.annotations.Formatted} configuration of a class, resolved once per class.
+ *
+ * The annotation on the class itself is more important than the annotation on the public toString method, which might
+ * be inherited from a super class. Reading the annotations (and looking up the toString method) is slow, so every
+ * class is only looked up once and the resolved configuration is used for all later lookups. Classes that are listed
+ * in the {@link net.davidtanzer.jobjectformatter.typeinfo.FormattedIndex} get their configuration from the index,
+ * without reading any annotations, unless the configuration is {@link #ofAnnotations(Class) read from the annotations}
+ * explicitly.
+ *
+ * <strong>FormattedConfiguration</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Reads configuration from class annotation.</li>
+ *     <li>Reads configuration from annotated to string.</li>
+ *     <li>Class annotation is more important than annotated to string.</li>
+ *     <li>Uses default configuration for unannotated class.</li>
+ *     <li>Uses default configuration for types without to string.</li>
+ *     <li>Resolves configuration only once per class.</li>
+ * </ul>
+ */
+class FormattedConfiguration {
+	private static final ClassValue<FormattedConfiguration> configurations = new ClassValue<FormattedConfiguration>() {
+		@Override
+		protected FormattedConfiguration computeValue(final Class<?> type) {
+			final FormattedIndex.Entry indexEntry = FormattedIndex.entryFor(type);
+			if(indexEntry != null) {
+				return new FormattedConfiguration(type, indexEntry);
+			}
+			return annotationConfigurations.get(type);
+		}
+	};
+	private static final ClassValue<FormattedConfiguration> annotationConfigurations = new ClassValue<FormattedConfiguration>() {
+		@Override
+		protected FormattedConfiguration computeValue(final Class<?> type) {
+			return new FormattedConfiguration(type, formattedAnnotationOf(type));
+		}
+	};
+
+	private final Class<?> type;
+	//Null until the annotation was resolved, which happens lazily for indexed types.
+	private volatile Optional<Formatted> formatted;
+	private final boolean isFormatted;
+	private final FormattedInclude formattedInclude;
+	private final TransitiveInclude transitiveInclude;
+
+	private FormattedConfiguration(final Class<?> type, final Formatted formatted) {
+		this.type = type;
+		this.formatted = Optional.ofNullable(formatted);
+		this.isFormatted = formatted != null;
+		this.formattedInclude = formatted != null ? formatted.value() : FormattedInclude.ALL_FIELDS;
+		this.transitiveInclude = formatted != null ? formatted.transitive() : TransitiveInclude.NO_FIELDS;
+	}
+
+	private FormattedConfiguration(final Class<?> type, final FormattedIndex.Entry indexEntry) {
+		this.type = type;
+		this.formatted = null;
+		this.isFormatted = indexEntry.isFormatted();
+		this.formattedInclude = indexEntry.formattedInclude();
+		this.transitiveInclude = indexEntry.transitiveInclude();
+	}
+
+	static FormattedConfiguration of(final Class<?> type) {
+		assert type != null : "Parameter \"type\" must not be null.";
+
+		return configurations.get(type);
+	}
+
+	/**
+	 * Like {@link #of(Class)}, but always reads the annotations of the type, even when the type is indexed.
+	 */
+	static FormattedConfiguration ofAnnotations(final Class<?> type) {
+		assert type != null : "Parameter \"type\" must not be null.";
+
+		return annotationConfigurations.get(type);
+	}
+
+	boolean isFormatted() {
+		return isFormatted;
+	}
+
+	Formatted getFormatted() {
+		//Only TypeInfoCache.configurationFor needs the annotation itself, so it is not read for indexed types up front.
+		Optional<Formatted> formatted = this.formatted;
+		if(formatted == null) {
+			formatted = Optional.ofNullable(formattedAnnotationOf(type));
+			this.formatted = formatted;
+		}
+		return formatted.orElse(null);
+	}
+
+	FormattedInclude getFormattedInclude() {
+		return formattedInclude;
+	}
+
+	TransitiveInclude getTransitiveInclude() {
+		return transitiveInclude;
+	}
+
+	private static Formatted formattedAnnotationOf(final Class<?> type) {
+		try {
+			if(type.isAnnotationPresent(Formatted.class)) {
+				return type.getAnnotation(Formatted.class);
+			}
+
+			Method toStringMethod = type.getMethod("toString");
+			assert toStringMethod != null : "Cannot be null, since we would get a NoSuchMethodException when the method does not exist.";
+
+			return toStringMethod.getAnnotation(Formatted.class);
+		} catch (NoSuchMethodException e) {
+			ignoreException_BecauseNotAllTypesHaveToString_AndWeDontCare(e);
+		}
+		return null;
+	}
+
+	private static void ignoreException_BecauseNotAllTypesHaveToString_AndWeDontCare(final NoSuchMethodException e) {
+	}
+}
@@ -0,0 +1,192 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * The formatting information that the annotation processor collected at build time, read from all
+ * <code>META-INF/jobjectformatter/index</code> resources of a class loader.
+ *
+ * The index of a class loader is read the first time a class of that class loader is looked up. With the index,
+ * jObjectFormatter does not have to read the annotations of indexed classes at runtime.
+ *
+ * Every line of the index either starts a type, names the generated formatter of the type above it, or describes a
+ * field of the type above it:
+ * <pre>
+ * type &lt;binary name&gt; &lt;is formatted&gt; &lt;FormattedInclude&gt; &lt;TransitiveInclude&gt;
+ * formatter &lt;binary name of the generated formatter&gt;
+ * field &lt;name&gt; &lt;TransitiveInclude of target or -&gt; &lt;FormattedFieldType&gt; &lt;FormattedFieldType in transitive&gt;
+ * </pre>
+ *
+ * <strong>FormattedIndex</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Reads formatting configuration from index.</li>
+ *     <li>Describes indexed fields in index order.</li>
+ *     <li>Reads name of generated formatter from index.</li>
+ *     <li>Returns null for types that are not indexed.</li>
+ *     <li>Fails for malformed index.</li>
+ *     <li>Indexed types get their formatted configuration from index.</li>
+ *     <li>Configuration from annotations ignores the index.</li>
+ *     <li>Indexed types get their generated formatter from index.</li>
+ *     <li>Ignores index entries that describe fields that do not exist.</li>
+ *     <li>Ignores index entries_ that do not describe all fields.</li>
+ *     <li>Ignores generated formatters_ that describe fields with another type.</li>
+ *     <li>Indexed types get the generated formatter class from index.</li>
+ *     <li>Falls back to index entry_ when the generated formatter class cannot be loaded.</li>
+ * </ul>
+ */
+class FormattedIndex {
+	static final String INDEX_RESOURCE = "META-INF/jobjectformatter/index";
+	private static final String NO_TRANSITIVE_INCLUDE = "-";
+
+	//The indexes only contain strings and enums, so they do not keep their class loader alive.
+	private static final Map<ClassLoader, FormattedIndex> indexes = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final Map<String, Entry> entries;
+
+	private FormattedIndex(final Map<String, Entry> entries) {
+		this.entries = entries;
+	}
+
+	static Entry entryFor(final Class<?> type) {
+		assert type != null : "Parameter \"type\" must not be null.";
+
+		final ClassLoader classLoader = type.getClassLoader();
+		if(classLoader == null || type.isArray()) {
+			return null;
+		}
+		return indexes.computeIfAbsent(classLoader, FormattedIndex::load).entries.get(type.getName());
+	}
+
+	private static FormattedIndex load(final ClassLoader classLoader) {
+		final Map<String, Entry> entries = new HashMap<>();
+		try {
+			for(URL indexUrl : Collections.list(classLoader.getResources(INDEX_RESOURCE))) {
+				readIndex(indexUrl, entries);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not read the jObjectFormatter index "+INDEX_RESOURCE, e);
+		}
+		return new FormattedIndex(entries);
+	}
+
+	private static void readIndex(final URL indexUrl, final Map<String, Entry> entries) throws IOException {
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(indexUrl.openStream(), StandardCharsets.UTF_8))) {
+			Entry currentEntry = null;
+			String line;
+			while((line = reader.readLine()) != null) {
+				line = line.trim();
+				if(line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+
+				final String[] tokens = line.split("\\s+");
+				try {
+					if(tokens.length == 5 && tokens[0].equals("type")) {
+						currentEntry = new Entry(Boolean.parseBoolean(tokens[2]), FormattedInclude.valueOf(tokens[3]), TransitiveInclude.valueOf(tokens[4]));
+						entries.put(tokens[1], currentEntry);
+					} else if(tokens.length == 2 && tokens[0].equals("formatter") && currentEntry != null) {
+						currentEntry.formatterClassName = tokens[1];
+					} else if(tokens.length == 5 && tokens[0].equals("field") && currentEntry != null) {
+						final TransitiveInclude transitiveIncludeOfTarget = tokens[2].equals(NO_TRANSITIVE_INCLUDE) ? null : TransitiveInclude.valueOf(tokens[2]);
+						currentEntry.fields.add(new FieldEntry(tokens[1], transitiveIncludeOfTarget, FormattedFieldType.valueOf(tokens[3]), FormattedFieldType.valueOf(tokens[4])));
+					} else {
+						throw new IllegalArgumentException("Unknown entry");
+					}
+				} catch (IllegalArgumentException e) {
+					throw new IllegalStateException("Malformed line \""+line+"\" in the jObjectFormatter index "+indexUrl+". Please re-compile with the annotation processor.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The formatting information of one indexed type.
+	 */
+	static class Entry implements GeneratedFormatter {
+		private final boolean formatted;
+		private final FormattedInclude formattedInclude;
+		private final TransitiveInclude transitiveInclude;
+		private final List<FieldEntry> fields = new ArrayList<>();
+		private String formatterClassName;
+
+		private Entry(final boolean formatted, final FormattedInclude formattedInclude, final TransitiveInclude transitiveInclude) {
+			this.formatted = formatted;
+			this.formattedInclude = formattedInclude;
+			this.transitiveInclude = transitiveInclude;
+		}
+
+		boolean isFormatted() {
+			return formatted;
+		}
+
+		/**
+		 * Get the binary name of the formatter that the annotation processor generated for the type.
+		 *
+		 * @return the name of the generated formatter, or null when no formatter was generated (e.g. because the type
+		 *         is private).
+		 */
+		String formatterClassName() {
+			return formatterClassName;
+		}
+
+		@Override
+		public FormattedInclude formattedInclude() {
+			return formattedInclude;
+		}
+
+		@Override
+		public TransitiveInclude transitiveInclude() {
+			return transitiveInclude;
+		}
+
+		@Override
+		public void describeFields(final Fields fields) {
+			for(FieldEntry field : this.fields) {
+				fields.add(field.name, field.transitiveIncludeOfTarget, field.includeField, field.includeFieldInTransitive);
+			}
+		}
+	}
+
+	private static class FieldEntry {
+		private final String name;
+		private final TransitiveInclude transitiveIncludeOfTarget;
+		private final FormattedFieldType includeField;
+		private final FormattedFieldType includeFieldInTransitive;
+
+		private FieldEntry(final String name, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+			this.name = name;
+			this.transitiveIncludeOfTarget = transitiveIncludeOfTarget;
+			this.includeField = includeField;
+			this.includeFieldInTransitive = includeFieldInTransitive;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Formatting information about a class, generated at compile time by the jObjectFormatter annotation processor.
+ *
+ * For every class that uses the jObjectFormatter annotations, the annotation processor writes an entry to the
+ * {@link net.davidtanzer.jobjectformatter.typeinfo.FormattedIndex}, and it generates a class called
+ * <code>&lt;Class&gt;$Formatter</code> in the same package that implements this interface and reads the non-private
+ * fields of the class. The {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache} uses the generated formatter
+ * (or the index entry, when no formatter was generated) instead of reading the annotations and fields of the class at
+ * runtime. You never have to implement this interface yourself.
+ */
+public interface GeneratedFormatter {
+	/**
+	 * Get the formatting configuration of the class.
+	 *
+	 * @return the {@link net.davidtanzer.jobjectformatter.annotations.FormattedInclude} of the class.
+	 */
+	FormattedInclude formattedInclude();
+
+	/**
+	 * Get the transitive include configuration of the class.
+	 *
+	 * @return the {@link net.davidtanzer.jobjectformatter.annotations.TransitiveInclude} of the class.
+	 */
+	TransitiveInclude transitiveInclude();
+
+	/**
+	 * Describe all fields declared by the class (in declaration order) that should be formatted.
+	 *
+	 * @param fields Collects the field descriptions.
+	 */
+	void describeFields(Fields fields);
+
+	/**
+	 * Collects the descriptions of fields from a {@link net.davidtanzer.jobjectformatter.typeinfo.GeneratedFormatter}.
+	 */
+	interface Fields {
+		/**
+		 * Add the description of a field that the generated formatter cannot read itself (e.g. a private field). The
+		 * field is read with a method handle that is created from the reflected field.
+		 *
+		 * @param name The name of the field.
+		 * @param transitiveIncludeOfTarget The transitive include configuration from the field's
+		 *                                  {@link net.davidtanzer.jobjectformatter.annotations.Formatted} annotation,
+		 *                                  or null when the field has no such annotation.
+		 * @param includeField The include configuration of the field.
+		 * @param includeFieldInTransitive The transitive include configuration of the field.
+		 */
+		void add(String name, TransitiveInclude transitiveIncludeOfTarget, FormattedFieldType includeField, FormattedFieldType includeFieldInTransitive);
+
+		/**
+		 * Add the description of a field that the generated formatter reads itself. By default, the getter is ignored
+		 * and the field is added like a field that the generated formatter cannot read.
+		 *
+		 * @param name The name of the field.
+		 * @param type The type of the field.
+		 * @param getter Reads the field. The type of the handle is <code>(Object)T</code>, where <code>T</code> is the
+		 *               type of the field.
+		 * @param transitiveIncludeOfTarget The transitive include configuration from the field's
+		 *                                  {@link net.davidtanzer.jobjectformatter.annotations.Formatted} annotation,
+		 *                                  or null when the field has no such annotation.
+		 * @param includeField The include configuration of the field.
+		 * @param includeFieldInTransitive The transitive include configuration of the field.
+		 */
+		default void add(String name, Class<?> type, MethodHandle getter, TransitiveInclude transitiveIncludeOfTarget, FormattedFieldType includeField, FormattedFieldType includeFieldInTransitive) {
+			add(name, transitiveIncludeOfTarget, includeField, includeFieldInTransitive);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Finds the {@link net.davidtanzer.jobjectformatter.typeinfo.GeneratedFormatter} of a class, i.e. the formatter class
+ * that the annotation processor generated for it, or the formatting information that the annotation processor wrote to
+ * the {@link net.davidtanzer.jobjectformatter.typeinfo.FormattedIndex} when it could not generate a formatter class.
+ * Every class is only looked up once.
+ *
+ * Only classes that are in the index are looked up, and only the formatter class named by the index is loaded, so
+ * classes that are not in the index do not cost anything more than looking them up in the index. When the generated
+ * formatter does not describe exactly the fields that the {@link net.davidtanzer.jobjectformatter.typeinfo.FieldsFilter}
+ * would find (because the class was changed without re-running the annotation processor), it is ignored, and the class
+ * is introspected at runtime.
+ */
+class GeneratedFormatters {
+	private static final ClassValue<Optional<GeneratedFormatter>> generatedFormatters = new ClassValue<Optional<GeneratedFormatter>>() {
+		@Override
+		protected Optional<GeneratedFormatter> computeValue(final Class<?> type) {
+			return Optional.ofNullable(loadGeneratedFormatter(type));
+		}
+	};
+
+	private GeneratedFormatters() {
+	}
+
+	static GeneratedFormatter generatedFormatterFor(final Class<?> type) {
+		assert type != null : "Parameter \"type\" must not be null.";
+
+		return generatedFormatters.get(type).orElse(null);
+	}
+
+	private static GeneratedFormatter loadGeneratedFormatter(final Class<?> type) {
+		if(type.isPrimitive() || type.isArray() || type.getClassLoader() == null) {
+			return null;
+		}
+
+		final FormattedIndex.Entry indexEntry = FormattedIndex.entryFor(type);
+		if(indexEntry == null) {
+			return null;
+		}
+
+		final GeneratedFormatter generatedFormatter = generatedFormatterClassOf(type, indexEntry);
+		if(!describesAllFieldsOf(type, generatedFormatter)) {
+			return null;
+		}
+		return generatedFormatter;
+	}
+
+	private static GeneratedFormatter generatedFormatterClassOf(final Class<?> type, final FormattedIndex.Entry indexEntry) {
+		if(indexEntry.formatterClassName() == null) {
+			return indexEntry;
+		}
+
+		try {
+			final Class<?> formatterClass = Class.forName(indexEntry.formatterClassName(), true, type.getClassLoader());
+			return formatterClass.asSubclass(GeneratedFormatter.class).getConstructor().newInstance();
+		} catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+			ignoreException_BecauseTheIndexEntryDescribesTheSameFields(e);
+		}
+		return indexEntry;
+	}
+
+	/*
+	 * The generated formatter must describe every field that FieldsFilter.getFilteredFields would find, and nothing
+	 * else. Fields that the generated formatter reads itself must also still have the same type.
+	 */
+	private static boolean describesAllFieldsOf(final Class<?> type, final GeneratedFormatter generatedFormatter) {
+		final Map<String, Class<?>> candidateFields = new HashMap<>();
+		for(Field field : type.getDeclaredFields()) {
+			if(FieldsFilter.isCandidate(field)) {
+				candidateFields.put(field.getName(), field.getType());
+			}
+		}
+
+		final Set<String> describedFields = new HashSet<>();
+		final boolean[] allFieldsMatch = { true };
+		generatedFormatter.describeFields(new GeneratedFormatter.Fields() {
+			@Override
+			public void add(final String name, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+				allFieldsMatch[0] &= candidateFields.containsKey(name) && describedFields.add(name);
+			}
+
+			@Override
+			public void add(final String name, final Class<?> fieldType, final MethodHandle getter, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+				allFieldsMatch[0] &= fieldType == candidateFields.get(name) && describedFields.add(name);
+			}
+		});
+		return allFieldsMatch[0] && describedFields.size() == candidateFields.size();
+	}
+
+	private static void ignoreException_BecauseTheIndexEntryDescribesTheSameFields(final Throwable e) {
+	}
+}
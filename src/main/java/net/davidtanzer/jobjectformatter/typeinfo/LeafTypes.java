@@ -0,0 +1,102 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Registry of leaf types: Values of leaf types are added to the formatted output as they are (using their own toString),
+ * and jObjectFormatter never creates a {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfo} for them.
+ *
+ * Leaf types are primitives and their wrappers, strings, enums, all types from the <code>java</code> packages (like
+ * <code>java.time</code>, {@link java.util.UUID} or {@link java.math.BigDecimal}) and all types you register with
+ * {@link #registerLeafType(Class)}.
+ *
+ * <strong>LeafTypes</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Primitives and their wrappers are leaf types.</li>
+ *     <li>Strings are leaf types.</li>
+ *     <li>Enums are leaf types.</li>
+ *     <li>Enum constants with a body are leaf types.</li>
+ *     <li>Types from java packages are leaf types.</li>
+ *     <li>Other types are not leaf types.</li>
+ *     <li>Registered types are leaf types.</li>
+ * </ul>
+ */
+public final class LeafTypes {
+	private static final Set<Class<?>> builtInLeafTypes = Collections.unmodifiableSet(new HashSet<Class<?>>() {{
+		add(Boolean.class);
+		add(Character.class);
+		add(Byte.class);
+		add(Short.class);
+		add(Integer.class);
+		add(Long.class);
+		add(Float.class);
+		add(Double.class);
+		add(String.class);
+		add(UUID.class);
+		add(BigDecimal.class);
+		add(BigInteger.class);
+	}});
+	private static final Set<Class<?>> registeredLeafTypes = new CopyOnWriteArraySet<>();
+
+	private static final ClassValue<Boolean> leafTypes = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(final Class<?> type) {
+			return type.isPrimitive()
+					|| builtInLeafTypes.contains(type)
+					|| Enum.class.isAssignableFrom(type)
+					|| type.getName().startsWith("java")
+					|| registeredLeafTypes.contains(type);
+		}
+	};
+
+	private LeafTypes() {
+	}
+
+	/**
+	 * Check whether a type is a leaf type, i.e. whether its values should be formatted as they are.
+	 *
+	 * @param type The type to check.
+	 * @return true when values of the type are formatted as they are, without reflecting into them.
+	 */
+	public static boolean isLeafType(final Class<?> type) {
+		assert type != null : "Parameter \"type\" must not be null.";
+		return leafTypes.get(type);
+	}
+
+	/**
+	 * Register an additional leaf type. Values of this type will be formatted with their own toString.
+	 *
+	 * Register your leaf types when your application starts, before formatting any objects that reference them: Type
+	 * information about classes that was created before registering is not updated.
+	 *
+	 * @param type The type to register as leaf type.
+	 */
+	public static void registerLeafType(final Class<?> type) {
+		if(type == null) {
+			throw new IllegalArgumentException("Parameter type must not be null!");
+		}
+		registeredLeafTypes.add(type);
+		leafTypes.remove(type);
+	}
+}
@@ -0,0 +1,57 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import java.time.Duration;
+
+/**
+ * Reports what {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache#preload(java.util.Collection)} did.
+ */
+public class PreloadResult {
+	private final int typeCount;
+	private final Duration duration;
+
+	PreloadResult(final int typeCount, final Duration duration) {
+		this.typeCount = typeCount;
+		this.duration = duration;
+	}
+
+	/**
+	 * Get the number of types for which the type info was created (or was already cached).
+	 *
+	 * @return the number of preloaded types.
+	 */
+	public int getTypeCount() {
+		return typeCount;
+	}
+
+	/**
+	 * Get how long preloading the types took.
+	 *
+	 * @return the duration of the preload.
+	 */
+	public Duration getDuration() {
+		return duration;
+	}
+
+	@Override
+	public String toString() {
+		return "PreloadResult{" +
+				"typeCount=" + typeCount +
+				", duration=" + duration.toMillis() + "ms" +
+				'}';
+	}
+}
@@ -18,19 +18,51 @@ package net.davidtanzer.jobjectformatter.typeinfo;
 import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
 import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 
 /**
  * Type information about a property of an object.
+ *
+ * The property info resolves method handles for reading the property once, when it is created. Use the typed getters
+ * (like {@link #getInt(Object)}) to read primitive properties without boxing.
+ *
+ * <strong>PropertyInfo</strong> functionality (extracted from the tests by agiledox):
+ * <ul>
+ *     <li>Gets property value of object property.</li>
+ *     <li>Gets boxed property value of primitive property.</li>
+ *     <li>Gets primitive property values with typed getters.</li>
+ *     <li>Typed getter throws exception_ when property has another type.</li>
+ *     <li>Gets property value of private property.</li>
+ *     <li>Gets property value of static property.</li>
+ * </ul>
  */
 public class PropertyInfo {
-	private final Field field;
+	private final String name;
+	private final Class<?> type;
+	private final MethodHandle getter;
+	private final MethodHandle typedGetter;
 	private final TransitiveInclude transitiveIncludeOfTarget;
 	private final FormattedFieldType includeFieldInTransitive;
 	private final FormattedFieldType includeField;
 
 	PropertyInfo(final Field field, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
-		this.field = field;
+		this(field.getName(), field.getType(), typedGetterFor(field), transitiveIncludeOfTarget, includeField, includeFieldInTransitive);
+	}
+
+	/*
+	 * Used for fields that a generated formatter reads itself: The getter must already have the type (Object)T.
+	 */
+	PropertyInfo(final String name, final Class<?> type, final MethodHandle typedGetter, final TransitiveInclude transitiveIncludeOfTarget, final FormattedFieldType includeField, final FormattedFieldType includeFieldInTransitive) {
+		assert typedGetter.type().equals(MethodType.methodType(type, Object.class)) : "Parameter \"typedGetter\" must have the type (Object)"+type.getName()+".";
+
+		this.name = name;
+		this.type = type;
+		this.typedGetter = typedGetter;
+		this.getter = typedGetter.asType(MethodType.methodType(Object.class, Object.class));
 		this.transitiveIncludeOfTarget = transitiveIncludeOfTarget;
 		this.includeFieldInTransitive = includeFieldInTransitive;
 		this.includeField = includeField;
@@ -42,7 +74,7 @@ public class PropertyInfo {
 	 * @return the name of the property.
 	 */
 	public String getName() {
-		return field.getName();
+		return name;
 	}
 
 	/**
@@ -51,7 +83,17 @@ public class PropertyInfo {
 	 * @return the type of the property.
 	 */
 	public Class<?> getType() {
-		return field.getType();
+		return type;
+	}
+
+	/**
+	 * Get a method handle that reads the property. The type of the handle is <code>(Object)T</code>, where <code>T</code>
+	 * is the type of the property, so primitive properties are not boxed.
+	 *
+	 * @return a method handle that reads the property.
+	 */
+	public MethodHandle getterHandle() {
+		return typedGetter;
 	}
 
 	/**
@@ -84,7 +126,7 @@ public class PropertyInfo {
 	@Override
 	public String toString() {
 		return "FieldInfo{" +
-				"field=" + field.getName() +
+				"field=" + name +
 				", transitiveIncludeOfTarget=" + transitiveIncludeOfTarget +
 				", includeFieldInTransitive=" + includeFieldInTransitive +
 				", includeField=" + includeField +
@@ -95,13 +137,167 @@ public class PropertyInfo {
 	 * Get the value of the property.
 	 *
 	 * @param object the object from which to get the property.
-	 * @return the value of the property.
+	 * @return the value of the property (boxed, if the property is primitive).
 	 */
 	public Object getPropertyValue(final Object object) {
 		try {
-			return field.get(object);
+			return (Object) getter.invokeExact(object);
+		} catch (Throwable t) {
+			throw couldNotDetermineValue(t);
+		}
+	}
+
+	/**
+	 * Get the value of a <code>boolean</code> property without boxing.
+	 *
+	 * @param object the object from which to get the property.
+	 * @return the value of the property.
+	 * @throws IllegalStateException when the property is not a <code>boolean</code>.
+	 */
+	public boolean getBoolean(final Object object) {
+		assertPropertyType(boolean.class);
+		try {
+			return (boolean) typedGetter.invokeExact(object);
+		} catch (Throwable t) {
+			throw couldNotDetermineValue(t);
+		}
+	}
+
+	/**
+	 * Get the value of a <code>byte</code> property without boxing.
+	 *
+	 * @param object the object from which to get the property.
+	 * @return the value of the property.
+	 * @throws IllegalStateException when the property is not a <code>byte</code>.
+	 */
+	public byte getByte(final Object object) {
+		assertPropertyType(byte.class);
+		try {
+			return (byte) typedGetter.invokeExact(object);
+		} catch (Throwable t) {
+			throw couldNotDetermineValue(t);
+		}
+	}
+
+	/**
+	 * Get the value of a <code>char</code> property without boxing.
+	 *
+	 * @param object the object from which to get the property.
+	 * @return the value of the property.
+	 * @throws IllegalStateException when the property is not a <code>char</code>.
+	 */
+	public char getChar(final Object object) {
+		assertPropertyType(char.class);
+		try {
+			return (char) typedGetter.invokeExact(object);
+		} catch (Throwable t) {
+			throw couldNotDetermineValue(t);
+		}
+	}
+
+	/**
+	 * Get the value of a <code>short</code> property without boxing.
+	 *
+	 * @param object the object from which to get the property.
+	 * @return the value of the property.
+	 * @throws IllegalStateException when the property is not a <code>short</code>.
+	 */
+	public short getShort(final Object object) {
+		assertPropertyType(short.class);
+		try {
+			return (short) typedGetter.invokeExact(object);
+		} catch (Throwable t) {
+			throw couldNotDetermineValue(t);
+		}
+	}
+
+	/**
+	 * Get the value of an <code>int</code> property without boxing.
+	 *
+	 * @param object the object from which to get the property.
+	 * @return the value of the property.
+	 * @throws IllegalStateException when the property is not an <code>int</code>.
+	 */
+	public int getInt(final Object object) {
+		assertPropertyType(int.class);
+		try {
+			return (int) typedGetter.invokeExact(object);
+		} catch (Throwable t) {
+			throw couldNotDetermineValue(t);
+		}
+	}
+
+	/**
+	 * Get the value of a <code>long</code> property without boxing.
+	 *
+	 * @param object the object from which to get the property.
+	 * @return the value of the property.
+	 * @throws IllegalStateException when the property is not a <code>long</code>.
+	 */
+	public long getLong(final Object object) {
+		assertPropertyType(long.class);
+		try {
+			return (long) typedGetter.invokeExact(object);
+		} catch (Throwable t) {
+			throw couldNotDetermineValue(t);
+		}
+	}
+
+	/**
+	 * Get the value of a <code>float</code> property without boxing.
+	 *
+	 * @param object the object from which to get the property.
+	 * @return the value of the property.
+	 * @throws IllegalStateException when the property is not a <code>float</code>.
+	 */
+	public float getFloat(final Object object) {
+		assertPropertyType(float.class);
+		try {
+			return (float) typedGetter.invokeExact(object);
+		} catch (Throwable t) {
+			throw couldNotDetermineValue(t);
+		}
+	}
+
+	/**
+	 * Get the value of a <code>double</code> property without boxing.
+	 *
+	 * @param object the object from which to get the property.
+	 * @return the value of the property.
+	 * @throws IllegalStateException when the property is not a <code>double</code>.
+	 */
+	public double getDouble(final Object object) {
+		assertPropertyType(double.class);
+		try {
+			return (double) typedGetter.invokeExact(object);
+		} catch (Throwable t) {
+			throw couldNotDetermineValue(t);
+		}
+	}
+
+	private void assertPropertyType(final Class<?> expectedType) {
+		if(type != expectedType) {
+			throw new IllegalStateException("Property \""+name+"\" is of type "+type.getName()+", not "+expectedType.getName());
+		}
+	}
+
+	private static RuntimeException couldNotDetermineValue(final Throwable t) {
+		if(t instanceof Error) {
+			throw (Error) t;
+		}
+		return new IllegalStateException("Could not determine field getValue", t);
+	}
+
+	private static MethodHandle typedGetterFor(final Field field) {
+		field.setAccessible(true);
+		try {
+			MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+			if(Modifier.isStatic(field.getModifiers())) {
+				getter = MethodHandles.dropArguments(getter, 0, Object.class);
+			}
+			return getter.asType(MethodType.methodType(field.getType(), Object.class));
 		} catch (IllegalAccessException e) {
-			throw new IllegalStateException("Could not determine field getValue", e);
+			throw new IllegalStateException("Could not create getter for field "+field.getName(), e);
 		}
 	}
 }
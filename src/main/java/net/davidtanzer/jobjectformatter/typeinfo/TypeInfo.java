@@ -24,16 +24,43 @@ import java.util.List;
 
 /**
  * Type information about a class that can be formatted as string.
+ *
+ * Every type info knows its variants for all {@link net.davidtanzer.jobjectformatter.annotations.TransitiveInclude}
+ * configurations, so getting the type info of a transitive object never creates a new type info.
  */
 public class TypeInfo {
 	private final List<ClassInfo> classInfos;
 	private final TransitiveInclude transitiveInclude;
 	private final FormattedInclude formattedInclude;
+	private final String displayName;
+	private final boolean includesFieldsInTransitive;
+	private final TypeInfo[] transitiveIncludeVariants;
 
-	private TypeInfo(final List<ClassInfo> classInfos, final TransitiveInclude transitiveInclude, final FormattedInclude formattedInclude) {
+	private TypeInfo(final List<ClassInfo> classInfos, final TransitiveInclude transitiveInclude, final FormattedInclude formattedInclude, final String displayName) {
+		this(classInfos, transitiveInclude, formattedInclude, displayName, new TypeInfo[TransitiveInclude.values().length]);
+
+		for(TransitiveInclude variant : TransitiveInclude.values()) {
+			transitiveIncludeVariants[variant.ordinal()] = variant == transitiveInclude ? this
+					: new TypeInfo(classInfos, variant, formattedInclude, displayName, transitiveIncludeVariants);
+		}
+	}
+
+	private TypeInfo(final List<ClassInfo> classInfos, final TransitiveInclude transitiveInclude, final FormattedInclude formattedInclude, final String displayName, final TypeInfo[] transitiveIncludeVariants) {
 		this.classInfos = classInfos;
 		this.transitiveInclude = transitiveInclude;
 		this.formattedInclude = formattedInclude;
+		this.displayName = displayName;
+		this.includesFieldsInTransitive = includesFieldsInTransitive(classInfos, formattedInclude);
+		this.transitiveIncludeVariants = transitiveIncludeVariants;
+	}
+
+	private static boolean includesFieldsInTransitive(final List<ClassInfo> classInfos, final FormattedInclude formattedInclude) {
+		for(ClassInfo classInfo : classInfos) {
+			if(!classInfo.includedFieldInfosInTransitive(formattedInclude).isEmpty()) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -63,24 +90,43 @@ public class TypeInfo {
 		return formattedInclude;
 	}
 
+	/**
+	 * Get the name of the type as it should be displayed in the formatted output (e.g. as class name of the object).
+	 *
+	 * @return the display name of the type, as configured by the {@link net.davidtanzer.jobjectformatter.typeinfo.ClassNaming}
+	 *         of the type info cache.
+	 */
+	public String getDisplayName() {
+		return displayName;
+	}
+
+	/**
+	 * Whether a transitive object of this type has any values in the formatted output.
+	 *
+	 * @return true when at least one of the class infos includes fields in transitive objects.
+	 * @see net.davidtanzer.jobjectformatter.typeinfo.ClassInfo#includedFieldInfosInTransitive(FormattedInclude)
+	 */
+	public boolean includesFieldsInTransitive() {
+		return includesFieldsInTransitive;
+	}
+
 	TypeInfo withTransitiveInclude(final TransitiveInclude transitiveInclude) {
-		return new TypeInfo(this.classInfos, transitiveInclude, this.formattedInclude);
+		return transitiveIncludeVariants[transitiveInclude.ordinal()];
 	}
 
 	static class Builder {
 		private final TypeInfoCache typeInfoCache;
-		private final FieldsFilter fieldsFilter;
 		private FormattedInclude formattedInclude;
 		private TransitiveInclude transitiveInclude;
+		private String displayName;
 		private List<ClassInfo> classInfos = new ArrayList<>();
 
-		Builder(final TypeInfoCache typeInfoCache, final FieldsFilter fieldsFilter) {
+		Builder(final TypeInfoCache typeInfoCache) {
 			this.typeInfoCache = typeInfoCache;
-			this.fieldsFilter = fieldsFilter;
 		}
 
 		public TypeInfo buildTypeInfo() {
-			return new TypeInfo(Collections.unmodifiableList(this.classInfos), this.transitiveInclude, this.formattedInclude);
+			return new TypeInfo(Collections.unmodifiableList(this.classInfos), this.transitiveInclude, this.formattedInclude, this.displayName);
 		}
 
 		public Builder withFormattingConfiguration(final FormattedInclude formattingBehavior, final TransitiveInclude transitiveInclude) {
@@ -89,8 +135,13 @@ public class TypeInfo {
 			return this;
 		}
 
+		public Builder withDisplayName(final String displayName) {
+			this.displayName = displayName;
+			return this;
+		}
+
 		public Builder addInfoForClass(final Class<?> currentType) {
-			this.classInfos.add(new ClassInfo(currentType, typeInfoCache, fieldsFilter));
+			this.classInfos.add(typeInfoCache.classInfoFor(currentType));
 			return this;
 		}
 	}
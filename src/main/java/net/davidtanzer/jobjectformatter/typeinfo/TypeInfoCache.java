@@ -19,9 +19,16 @@ import net.davidtanzer.jobjectformatter.annotations.Formatted;
 import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
 import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
 
-import java.lang.reflect.Method;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 /**
@@ -41,26 +48,85 @@ import java.util.function.Function;
  *     <li>Every class info contains fields from the class.</li>
  *     <li>Class info does not contain fields from other classes.</li>
  *     <li>Uses fields filter to actually get the relevant fields for a class info.</li>
+ *     <li>Class info holds only the included fields for every formatted include.</li>
+ *     <li>Class info holds only the fields included in transitive objects.</li>
+ *     <li>Type info knows whether transitive objects have values.</li>
  *     <li>Transitive include for unannotated class is disallowed.</li>
  *     <li>Transitive include for annotated class is determined by annotation value.</li>
  *     <li>Transitive include for annotated to string is determined by annotation value.</li>
  *     <li>Transitive include for annotated class is more important than annotation on class.</li>
+ *     <li>Uses generated formatter for class info when available.</li>
+ *     <li>Uses configuration from generated formatter when available.</li>
+ *     <li>Ignores generated formatters when configured to do so.</li>
+ *     <li>Does not look for generated formatter classes of types that are not indexed.</li>
+ *     <li>Reads fields with generated formatter class_ when it is indexed.</li>
+ *     <li>Type info and class infos use simple display names by default.</li>
+ *     <li>Type info and class infos use display names from the configured class naming.</li>
+ *     <li>Shared cache is the same for every call.</li>
+ *     <li>Replaced shared cache is used until the scope is closed.</li>
+ *     <li>Closing the scope restores the previous shared cache.</li>
+ *     <li>Does not prevent class loaders from being collected.</li>
+ *     <li>Type is formatted when class or to string is annotated.</li>
+ *     <li>Returns the same type info for the same transitive include.</li>
+ *     <li>Type info for transitive include keeps the configuration of the type.</li>
+ *     <li>Type info for transitive include does not allocate.</li>
+ *     <li>Shares class infos of super classes between type infos.</li>
+ *     <li>Uses fields filter only once per class.</li>
+ *     <li>Preload creates type infos for all given types.</li>
+ *     <li>Preload reports how many types were warmed.</li>
+ *     <li>Preload skips types that are never formatted.</li>
+ *     <li>Preload skips types with fields that cannot be loaded.</li>
+ *     <li>Preload package creates type infos for classes in directories.</li>
+ *     <li>Preload package creates type infos for classes in jar files.</li>
  * </ul>
  *
  * <strong>TypeInfoTransitivity</strong> functionality (extracted from the tests by agiledox):
  * <ul>
  *     <li>All type infos from java packages are transitive.</li>
+ *     <li>Type infos for enums are transitive.</li>
  *     <li>Type infos for other dependencies are not transitive by default.</li>
  *     <li>Type infos from java packages can be set to non transitive by annotation.</li>
  *     <li>Type infos from other packages can be set to transitive by annotation.</li>
  * </ul>
  *
+ * When the annotation processor wrote an entry for a class to the index <code>META-INF/jobjectformatter/index</code>,
+ * the TypeInfoCache uses the configuration from the index instead of reading the annotations of the class at runtime,
+ * and it reads the non-private fields of the class with the formatter that the annotation processor generated.
+ *
+ * All parts of jObjectFormatter that are created without an explicit TypeInfoCache use the {@link #shared() shared}
+ * cache, so every class is only introspected once per process, no matter how many generators are created. Tests that
+ * need a fresh cache can {@link #replaceSharedCache(TypeInfoCache) replace} the shared cache for a scope.
+ *
+ * The type infos are stored in a {@link java.lang.ClassValue}, so they do not keep the classes (and their class
+ * loaders) alive: When a class loader is discarded (e.g. when a web application is redeployed), its type infos are
+ * collected with it.
+ *
+ * Type infos are created lazily, when an object of the type is formatted for the first time. To avoid that cost when
+ * your application handles its first requests, {@link #preload(java.util.Collection) preload} the types (or whole
+ * {@link #preloadPackage(String, ClassLoader) packages}) at startup. Preloading is safe while other threads already
+ * format objects.
+ *
  * @see net.davidtanzer.jobjectformatter.typeinfo.TypeInfo
  * @see net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler
  */
 public class TypeInfoCache {
+	private static final AtomicReference<TypeInfoCache> sharedCache = new AtomicReference<>(new TypeInfoCache());
+
 	private final FieldsFilter fieldsFilter;
-	private Map<Class<?>, TypeInfo> cachedTypeInfos = new ConcurrentHashMap<>();
+	private final boolean useGeneratedFormatters;
+	private final ClassNaming classNaming;
+	private final ClassValue<TypeInfo> cachedTypeInfos = new ClassValue<TypeInfo>() {
+		@Override
+		protected TypeInfo computeValue(final Class<?> type) {
+			return createTypeInfoFrom(type);
+		}
+	};
+	private final ClassValue<ClassInfo> cachedClassInfos = new ClassValue<ClassInfo>() {
+		@Override
+		protected ClassInfo computeValue(final Class<?> type) {
+			return new ClassInfo(type, TypeInfoCache.this, fieldsFilter);
+		}
+	};
 
 	/**
 	 * Create a new TypeInfoCache with a default FieldsFilter.
@@ -68,11 +134,72 @@ public class TypeInfoCache {
 	 * @see net.davidtanzer.jobjectformatter.typeinfo.FieldsFilter
 	 */
 	public TypeInfoCache() {
-		this(new FieldsFilter());
+		this(true);
+	}
+
+	/**
+	 * Create a new TypeInfoCache with a default FieldsFilter.
+	 *
+	 * @param useGeneratedFormatters Whether to use the index generated by the annotation processor (when available),
+	 *                               or to always read the annotations at runtime.
+	 */
+	public TypeInfoCache(final boolean useGeneratedFormatters) {
+		this(useGeneratedFormatters, ClassNaming.SIMPLE);
+	}
+
+	/**
+	 * Create a new TypeInfoCache with a default FieldsFilter and a naming strategy for the display names of classes.
+	 *
+	 * @param useGeneratedFormatters Whether to use the index generated by the annotation processor (when available),
+	 *                               or to always read the annotations at runtime.
+	 * @param classNaming How the names of classes are displayed in the formatted output.
+	 * @see net.davidtanzer.jobjectformatter.typeinfo.ClassNaming
+	 */
+	public TypeInfoCache(final boolean useGeneratedFormatters, final ClassNaming classNaming) {
+		this(new FieldsFilter(), useGeneratedFormatters, classNaming);
 	}
 
 	TypeInfoCache(final FieldsFilter fieldsFilter) {
+		this(fieldsFilter, true, ClassNaming.SIMPLE);
+	}
+
+	TypeInfoCache(final FieldsFilter fieldsFilter, final boolean useGeneratedFormatters, final ClassNaming classNaming) {
+		if(classNaming == null) {
+			throw new IllegalArgumentException("Parameter classNaming must not be null!");
+		}
 		this.fieldsFilter = fieldsFilter;
+		this.useGeneratedFormatters = useGeneratedFormatters;
+		this.classNaming = classNaming;
+	}
+
+	/**
+	 * Get the process-wide TypeInfoCache that is used by everything that was created without an explicit cache.
+	 *
+	 * @return The shared TypeInfoCache.
+	 */
+	public static TypeInfoCache shared() {
+		return sharedCache.get();
+	}
+
+	/**
+	 * Replace the shared TypeInfoCache until the returned scope is closed. Objects that get the shared cache while the
+	 * scope is open (e.g. newly created generators) keep using the replacement cache after the scope was closed.
+	 *
+	 * This is meant for tests that must not see (or leave behind) type information from other tests:
+	 * <pre>
+	 * try(TypeInfoCache.SharedCacheScope scope = TypeInfoCache.replaceSharedCache(new TypeInfoCache())) {
+	 *     ...
+	 * }
+	 * </pre>
+	 *
+	 * @param typeInfoCache The cache to share while the scope is open.
+	 * @return The scope that restores the previous shared cache when it is closed.
+	 */
+	public static SharedCacheScope replaceSharedCache(final TypeInfoCache typeInfoCache) {
+		if(typeInfoCache == null) {
+			throw new IllegalArgumentException("Parameter typeInfoCache must not be null!");
+		}
+		return new SharedCacheScope(sharedCache.getAndSet(typeInfoCache));
 	}
 
 	/**
@@ -82,11 +209,14 @@ public class TypeInfoCache {
 	 * @return The type info (newly computed or from the cache).
 	 */
 	public TypeInfo typeInfoFor(final Class<?> type) {
-		return cachedTypeInfos.computeIfAbsent(type, this::createTypeInfoFrom);
+		return cachedTypeInfos.get(type);
 	}
 
 	/**
-	 * Get the type info for a certain type with a different include configuration(from the cache if available).
+	 * Get the type info for a certain type with a different include configuration (from the cache if available).
+	 *
+	 * The type infos for all include configurations are created together with the type info of the type, so this method
+	 * never allocates after the type info of the type was created.
 	 *
 	 * @param type The java class for which you need a type info.
 	 * @param transitiveInclude The transitive include configuration for the type info.
@@ -97,7 +227,7 @@ public class TypeInfoCache {
 	}
 
 	private TypeInfo createTypeInfoFrom(final Class<?> type) {
-		TypeInfo.Builder builder = new TypeInfo.Builder(this, fieldsFilter);
+		TypeInfo.Builder builder = new TypeInfo.Builder(this);
 
 		Class<?> currentType = type;
 		while(currentType != null && currentType != Object.class) {
@@ -106,15 +236,123 @@ public class TypeInfoCache {
 		}
 
 		builder.withFormattingConfiguration(formattedIncludeFor(type), transitiveIncludeFor(type));
+		builder.withDisplayName(displayNameOf(type));
 		return builder.buildTypeInfo();
 	}
 
+	String displayNameOf(final Class<?> type) {
+		return classNaming.displayNameOf(type);
+	}
+
 	private FormattedInclude formattedIncludeFor(final Class<?> type) {
-		return configurationFor(type, f -> f.value(), FormattedInclude.ALL_FIELDS);
+		final GeneratedFormatter generatedFormatter = generatedFormatterFor(type);
+		if(generatedFormatter != null) {
+			return generatedFormatter.formattedInclude();
+		}
+		return configurationOf(type).getFormattedInclude();
 	}
 
 	TransitiveInclude transitiveIncludeFor(final Class<?> type) {
-		return configurationFor(type, f -> f.transitive(), TransitiveInclude.NO_FIELDS);
+		final GeneratedFormatter generatedFormatter = generatedFormatterFor(type);
+		if(generatedFormatter != null) {
+			return generatedFormatter.transitiveInclude();
+		}
+		return configurationOf(type).getTransitiveInclude();
+	}
+
+	/**
+	 * Create the type infos for all given types in parallel, on the common {@link java.util.concurrent.ForkJoinPool}.
+	 *
+	 * @param types The types to preload. Interfaces, annotations, primitive types and arrays are skipped, and so are
+	 *              types whose type info cannot be created (formatting them will fail later).
+	 * @return How many types were preloaded and how long it took.
+	 */
+	public PreloadResult preload(final Collection<Class<?>> types) {
+		return preload(types, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Create the type infos for all given types in parallel, on the given {@link java.util.concurrent.ForkJoinPool}.
+	 *
+	 * @param types The types to preload. Interfaces, annotations, primitive types and arrays are skipped, and so are
+	 *              types whose type info cannot be created (formatting them will fail later).
+	 * @param pool The pool that creates the type infos.
+	 * @return How many types were preloaded and how long it took.
+	 */
+	public PreloadResult preload(final Collection<Class<?>> types, final ForkJoinPool pool) {
+		if(types == null) {
+			throw new IllegalArgumentException("Parameter types must not be null!");
+		}
+		if(pool == null) {
+			throw new IllegalArgumentException("Parameter pool must not be null!");
+		}
+
+		final long startTime = System.nanoTime();
+		final List<Class<?>> formattedTypes = new ArrayList<>();
+		for(Class<?> type : new LinkedHashSet<>(types)) {
+			if(!type.isInterface() && !type.isPrimitive() && !type.isArray()) {
+				formattedTypes.add(type);
+			}
+		}
+
+		final AtomicInteger preloadedTypes = new AtomicInteger();
+		pool.invoke(new PreloadTask(formattedTypes, preloadedTypes));
+		return new PreloadResult(preloadedTypes.get(), Duration.ofNanos(System.nanoTime() - startTime));
+	}
+
+	/**
+	 * Create the type infos for all classes of a package and its sub packages in parallel, on the common
+	 * {@link java.util.concurrent.ForkJoinPool}. The classes are found in the directories and jar files of the class
+	 * loader. Classes that cannot be loaded are skipped.
+	 *
+	 * @param packageName The name of the package, e.g. "com.example.domain".
+	 * @param classLoader The class loader that loads the classes of the package.
+	 * @return How many types were preloaded and how long it took (including scanning the package).
+	 * @throws IOException When the directories or jar files of the package cannot be read.
+	 */
+	public PreloadResult preloadPackage(final String packageName, final ClassLoader classLoader) throws IOException {
+		if(packageName == null) {
+			throw new IllegalArgumentException("Parameter packageName must not be null!");
+		}
+		if(classLoader == null) {
+			throw new IllegalArgumentException("Parameter classLoader must not be null!");
+		}
+
+		final long startTime = System.nanoTime();
+		final PreloadResult result = preload(ClassPathScanner.classesInPackage(packageName, classLoader));
+		return new PreloadResult(result.getTypeCount(), Duration.ofNanos(System.nanoTime() - startTime));
+	}
+
+	/*
+	 * The class info only depends on the declaring class, so all type infos of subclasses share the class infos of
+	 * their common super classes.
+	 */
+	ClassInfo classInfoFor(final Class<?> type) {
+		return cachedClassInfos.get(type);
+	}
+
+	private FormattedConfiguration configurationOf(final Class<?> type) {
+		return useGeneratedFormatters ? FormattedConfiguration.of(type) : FormattedConfiguration.ofAnnotations(type);
+	}
+
+	GeneratedFormatter generatedFormatterFor(final Class<?> type) {
+		if(!useGeneratedFormatters) {
+			return null;
+		}
+		return GeneratedFormatters.generatedFormatterFor(type);
+	}
+
+	/**
+	 * Check whether a type has a {@link net.davidtanzer.jobjectformatter.annotations.Formatted} annotation, either on
+	 * the class itself or on its public toString method. The annotations of every type are only read once.
+	 *
+	 * @param type The type to check.
+	 * @return true when the type or its toString method is annotated.
+	 */
+	public boolean isFormatted(final Class<?> type) {
+		assert type != null : "Parameter \"type\" must not be null.";
+
+		return configurationOf(type).isFormatted();
 	}
 
 	/**
@@ -133,23 +371,62 @@ public class TypeInfoCache {
 		assert mappingFunction != null : "Parameter \"mappingFunction\" must not be null.";
 		assert defaultValue != null : "Parameter \"defaultValue\" must not be null.";
 
-		try {
-			if(type.isAnnotationPresent(Formatted.class)) {
-				return mappingFunction.apply(type.getAnnotation(Formatted.class));
+		final Formatted formatted = configurationOf(type).getFormatted();
+		return formatted != null ? mappingFunction.apply(formatted) : defaultValue;
+	}
+
+	private class PreloadTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int TYPES_PER_TASK = 16;
+		private final List<Class<?>> types;
+		private final AtomicInteger preloadedTypes;
+
+		private PreloadTask(final List<Class<?>> types, final AtomicInteger preloadedTypes) {
+			this.types = types;
+			this.preloadedTypes = preloadedTypes;
+		}
+
+		@Override
+		protected void compute() {
+			if(types.size() <= TYPES_PER_TASK) {
+				for(Class<?> type : types) {
+					preload(type);
+				}
+				return;
 			}
 
-			Method toStringMethod = type.getMethod("toString");
-			assert toStringMethod != null : "Cannot be null, since we would get a NoSuchMethodException when the method does not exist.";
+			final int middle = types.size() / 2;
+			invokeAll(new PreloadTask(types.subList(0, middle), preloadedTypes), new PreloadTask(types.subList(middle, types.size()), preloadedTypes));
+		}
 
-			if(toStringMethod.isAnnotationPresent(Formatted.class)) {
-				return mappingFunction.apply(toStringMethod.getAnnotation(Formatted.class));
+		private void preload(final Class<?> type) {
+			try {
+				typeInfoFor(type);
+				preloadedTypes.incrementAndGet();
+			} catch (RuntimeException | LinkageError e) {
+				ignoreException_BecauseTheSameExceptionWillBeThrownWhenTheTypeIsFormatted(e);
 			}
-		} catch (NoSuchMethodException e) {
-			ignoreException_BecauseNotAllTypesHaveToString_AndWeDontCare(e);
 		}
-		return defaultValue;
+
+		private void ignoreException_BecauseTheSameExceptionWillBeThrownWhenTheTypeIsFormatted(final Throwable e) {
+		}
 	}
 
-	private void ignoreException_BecauseNotAllTypesHaveToString_AndWeDontCare(final NoSuchMethodException e) {
+	/**
+	 * Restores the previously shared TypeInfoCache when closed.
+	 *
+	 * @see #replaceSharedCache(TypeInfoCache)
+	 */
+	public static class SharedCacheScope implements AutoCloseable {
+		private final TypeInfoCache previousCache;
+
+		private SharedCacheScope(final TypeInfoCache previousCache) {
+			this.previousCache = previousCache;
+		}
+
+		@Override
+		public void close() {
+			sharedCache.set(previousCache);
+		}
 	}
 }
@@ -15,6 +15,9 @@
  */
 package net.davidtanzer.jobjectformatter.valuesinfo;
 
+import net.davidtanzer.jobjectformatter.typeinfo.ClassInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -25,10 +28,24 @@ import java.util.List;
 public class GroupedValuesInfo {
 	private final String groupName;
 	private final List<ValueInfo> values;
+	private final ClassInfo classInfo;
 
-	private GroupedValuesInfo(final String groupName, final List<ValueInfo> values) {
+	private GroupedValuesInfo(final String groupName, final List<ValueInfo> values, final ClassInfo classInfo) {
 		this.groupName = groupName;
 		this.values = values;
+		this.classInfo = classInfo;
+	}
+
+	/**
+	 * Creates a grouped values info that only contains the name of the group, but no values.
+	 *
+	 * Streaming formatters pass such values infos to their callbacks, since they never collect the values of an object.
+	 *
+	 * @param groupName The name of the group.
+	 * @return A grouped values info without values.
+	 */
+	public static GroupedValuesInfo withoutValues(final String groupName) {
+		return new GroupedValuesInfo(groupName, Collections.emptyList(), null);
 	}
 
 	/**
@@ -49,12 +66,22 @@ public class GroupedValuesInfo {
 		return values;
 	}
 
+	/**
+	 * Get the class info of the class whose values are in this group.
+	 *
+	 * @return the class info of the group, or null when the group was not compiled from a class info.
+	 */
+	public ClassInfo getClassInfo() {
+		return classInfo;
+	}
+
 	/**
 	 * A builder to create GroupedValuesInfo objects.
 	 */
 	public static class Builder {
 		private String groupName;
 		private final List<ValueInfo> values = new ArrayList<>();
+		private ClassInfo classInfo;
 
 		/**
 		 * Build the grouped values info from the information provided before calling this method.
@@ -64,7 +91,7 @@ public class GroupedValuesInfo {
 		 * @return The newly created GroupedValuesInfo.
 		 */
 		public GroupedValuesInfo buildGroupedValuesInfo() {
-			return new GroupedValuesInfo(groupName, Collections.unmodifiableList(values));
+			return new GroupedValuesInfo(groupName, Collections.unmodifiableList(values), classInfo);
 		}
 
 		/**
@@ -78,6 +105,21 @@ public class GroupedValuesInfo {
 			return this;
 		}
 
+		/**
+		 * Set the class info for the grouped values info. This also sets the class name to the display name of the class.
+		 *
+		 * @param classInfo the class info of the class whose values are in the group.
+		 * @return the builder itself.
+		 */
+		public Builder setClassInfo(final ClassInfo classInfo) {
+			if(classInfo == null) {
+				throw new IllegalArgumentException("Parameter classInfo must not be null!");
+			}
+			this.classInfo = classInfo;
+			this.groupName = classInfo.getDisplayName();
+			return this;
+		}
+
 		/**
 		 * Add a field value to the grouped values info.
 		 * @param name the name of the field.
@@ -89,5 +131,19 @@ public class GroupedValuesInfo {
 			values.add(new ValueInfo(name, formattedFieldValue, fieldClass));
 			return this;
 		}
+
+		/**
+		 * Add the value of a property to the grouped values info.
+		 * @param propertyInfo the property info of the field.
+		 * @param formattedFieldValue the formatted value of the field.
+		 * @return the builder itself.
+		 */
+		public Builder addFieldValue(final PropertyInfo propertyInfo, final Object formattedFieldValue) {
+			if(propertyInfo == null) {
+				throw new IllegalArgumentException("Parameter propertyInfo must not be null!");
+			}
+			values.add(new ValueInfo(propertyInfo, formattedFieldValue));
+			return this;
+		}
 	}
 }
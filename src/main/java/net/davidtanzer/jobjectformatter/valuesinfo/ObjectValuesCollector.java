@@ -0,0 +1,91 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.valuesinfo;
+
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * An {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesListener} that collects all values it receives
+ * into an {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo}.
+ *
+ * This is what formatters that need all values at once use to receive streamed values (see
+ * {@link net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter#listenerFor(StringBuilder)}).
+ */
+public class ObjectValuesCollector implements ObjectValuesListener {
+	private final Consumer<ObjectValuesInfo> collectedValues;
+	private final Deque<ObjectValuesInfo.Builder> objects = new ArrayDeque<>();
+	private final Deque<GroupedValuesInfo.Builder> groups = new ArrayDeque<>();
+	private ObjectValuesInfo lastObject;
+
+	/**
+	 * Create a new ObjectValuesCollector.
+	 *
+	 * @param collectedValues Receives the values info of the outermost object when all its values were collected.
+	 */
+	public ObjectValuesCollector(final Consumer<ObjectValuesInfo> collectedValues) {
+		if(collectedValues == null) {
+			throw new IllegalArgumentException("Parameter collectedValues must not be null!");
+		}
+		this.collectedValues = collectedValues;
+	}
+
+	@Override
+	public void startObject(final Class<?> type) {
+		objects.push(new ObjectValuesInfo.Builder().setType(type));
+	}
+
+	@Override
+	public void startObject(final TypeInfo typeInfo, final Class<?> type) {
+		objects.push(new ObjectValuesInfo.Builder().setType(type).setTypeInfo(typeInfo));
+	}
+
+	@Override
+	public void startGroup(final String groupName) {
+		groups.push(new GroupedValuesInfo.Builder().setClassName(groupName));
+	}
+
+	@Override
+	public void value(final String propertyName, final Object value, final Class<?> propertyType) {
+		groups.peek().addFieldValue(propertyName, value, propertyType);
+	}
+
+	@Override
+	public void startNestedValue(final String propertyName, final Class<?> propertyType) {
+	}
+
+	@Override
+	public void endNestedValue(final String propertyName, final Class<?> propertyType) {
+		groups.peek().addFieldValue(propertyName, lastObject, propertyType);
+	}
+
+	@Override
+	public void endGroup() {
+		final GroupedValuesInfo group = groups.pop().buildGroupedValuesInfo();
+		objects.peek().addClassValues(group);
+	}
+
+	@Override
+	public void endObject(final Class<?> type) {
+		lastObject = objects.pop().buildToStringInfo();
+		if(objects.isEmpty()) {
+			collectedValues.accept(lastObject);
+		}
+	}
+}
@@ -15,90 +15,357 @@
  */
 package net.davidtanzer.jobjectformatter.valuesinfo;
 
-import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
 import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
 import net.davidtanzer.jobjectformatter.typeinfo.ClassInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.LeafTypes;
 import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
 
-import java.util.function.Predicate;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  *
  * <strong>ObjectValuesCompiler</strong>
  * <ul>
  *     <li>Adds value entry for every class info.</li>
+ *     <li>Keeps the type infos the values were compiled from.</li>
  *     <li>Adds values for all fields to class value info.</li>
  *     <li>Abbreviates transitive object_ when transitivity is not allowed.</li>
  *     <li>Includes transitive object fully_ when transitivity is set to always.</li>
+ *     <li>Does not compile transitive values_ when transitivity is not allowed.</li>
+ *     <li>Does not compile transitive values_ when transitivity is set to always.</li>
+ *     <li>Does not create type info for leaf values.</li>
+ *     <li>Abbreviates leaf values_ when transitivity is set to annotated.</li>
  *     <li>Includes annotated transitive values_ when transitivity is set to annotated.</li>
  *     <li>Includes annotated transitive values_ when transitivity is set to annotated_ by containing class only.</li>
  *     <li>String does not contain any fields_ when class is annotated as formatted annotated_ but has no annotated fields.</li>
  *     <li>String contains all fields_ when class is annotated as formatted all.</li>
  *     <li>String contains annotated fields_ when class is annotated as formatted annotated_ and has annotated fields.</li>
+ *     <li>Compile to sends the same values to the listener as compile to string info.</li>
+ *     <li>Compile to sends transitive values as nested values.</li>
+ *     <li>Compile to sends abbreviation_ when annotated transitive object has no values.</li>
+ *     <li>Marks cyclic references_ instead of compiling them again.</li>
+ *     <li>Marks shared references_ when they were already compiled.</li>
+ *     <li>Compile to marks cyclic references.</li>
+ *     <li>Marks references with the display names of the type info cache.</li>
+ *     <li>Truncates transitive objects_ deeper than max depth.</li>
+ *     <li>Truncates values_ after max fields per object.</li>
+ *     <li>Compile to truncates values_ after max fields per object.</li>
+ *     <li>Snapshot keeps the field values_ at the time of the snapshot.</li>
+ *     <li>Compiles snapshot the same way as the object.</li>
+ *     <li>Compile to sends the same values for snapshot as for the object.</li>
  * </ul>
+ *
+ * Every transitive object is compiled at most once per call: When the same object is reached again, the compiler adds
+ * a marker like <code>&lt;cycle Person@1&gt;</code> (the object references itself) or <code>&lt;ref Address@2&gt;</code>
+ * (the object was already included before) instead of its values. The number is the position of the object in the
+ * order in which the compiler visited the objects, starting with 1 for the compiled object itself.
+ *
+ * The compiler can be limited to a maximum depth of transitive objects and a maximum number of values per object.
+ * When a limit is reached, the compiler adds the {@link #TRUNCATION_MARKER} and does not compile the remaining
+ * values.
  */
 public class ObjectValuesCompiler {
+	/**
+	 * The value that replaces transitive objects and values that were not compiled because of a limit.
+	 */
+	public static final String TRUNCATION_MARKER = "<truncated>";
+	/**
+	 * The property name of the value that replaces all remaining values of an object when the object has more values
+	 * than allowed.
+	 */
+	public static final String TRUNCATED_VALUES_NAME = "...";
+
+	//Stand-ins for the transitive values while streaming: TransitiveInclude only checks whether they are empty.
+	private static final ObjectValuesInfo STREAMED_TRANSITIVE_VALUES = new ObjectValuesInfo.Builder()
+			.addClassValues(new GroupedValuesInfo.Builder().addFieldValue("", null, Object.class).buildGroupedValuesInfo())
+			.buildToStringInfo();
+	private static final ObjectValuesInfo NO_TRANSITIVE_VALUES = new ObjectValuesInfo.Builder().buildToStringInfo();
+	//Stand-in for the transitive values of an object that was already visited, replaced by a back reference marker.
+	private static final ObjectValuesInfo BACK_REFERENCE = new ObjectValuesInfo.Builder()
+			.addClassValues(new GroupedValuesInfo.Builder().addFieldValue("", null, Object.class).buildGroupedValuesInfo())
+			.buildToStringInfo();
+	//Stand-in for the transitive values of an object that is nested too deep, replaced by the truncation marker.
+	private static final ObjectValuesInfo TRUNCATED = new ObjectValuesInfo.Builder()
+			.addClassValues(new GroupedValuesInfo.Builder().addFieldValue("", null, Object.class).buildGroupedValuesInfo())
+			.buildToStringInfo();
+
 	private final TypeInfoCache typeInfoCache;
+	private final int maxDepth;
+	private final int maxFieldsPerObject;
 
 	public ObjectValuesCompiler() {
-		this(new TypeInfoCache());
+		this(TypeInfoCache.shared());
 	}
 
 	public ObjectValuesCompiler(final TypeInfoCache typeInfoCache) {
+		this(typeInfoCache, Integer.MAX_VALUE, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a new ObjectValuesCompiler that stops compiling values when it reaches one of the given limits.
+	 *
+	 * @param typeInfoCache The type info cache to use for transitive objects.
+	 * @param maxDepth How deep transitive objects are compiled. With 0, transitive objects are never compiled.
+	 * @param maxFieldsPerObject How many values are compiled for every object (including transitive objects).
+	 */
+	public ObjectValuesCompiler(final TypeInfoCache typeInfoCache, final int maxDepth, final int maxFieldsPerObject) {
+		if(maxDepth < 0) {
+			throw new IllegalArgumentException("Parameter maxDepth must not be negative!");
+		}
+		if(maxFieldsPerObject < 0) {
+			throw new IllegalArgumentException("Parameter maxFieldsPerObject must not be negative!");
+		}
+
 		this.typeInfoCache = typeInfoCache;
+		this.maxDepth = maxDepth;
+		this.maxFieldsPerObject = maxFieldsPerObject;
 	}
 
 	public ObjectValuesInfo compileToStringInfo(final TypeInfo typeInfo, final Object object) {
-		return compileToStringInfo(typeInfo, object, t -> true);
+		return compileToStringInfo(typeInfo, object, false, new VisitedObjects(object));
 	}
 
-	private ObjectValuesInfo compileToStringInfo(final TypeInfo typeInfo, final Object object, final Predicate<FormattedFieldType> includeInTransitive) {
-		ObjectValuesInfo.Builder builder = new ObjectValuesInfo.Builder();
-		builder.setType(object.getClass());
+	/**
+	 * Takes a shallow snapshot of the values of all fields that would be compiled for the object, so the object can be
+	 * compiled later (e.g. on another thread) with the values it had when the snapshot was taken.
+	 *
+	 * @param typeInfo The type info of the object.
+	 * @param object The object of which to take the snapshot.
+	 * @return The snapshot of the object's values.
+	 */
+	public ObjectValuesSnapshot snapshot(final TypeInfo typeInfo, final Object object) {
+		final Map<PropertyInfo, Object> values = new IdentityHashMap<>();
+		for(ClassInfo classInfo : typeInfo.classInfos()) {
+			for(PropertyInfo propertyInfo : classInfo.includedFieldInfos(typeInfo.getFormattedInclude())) {
+				values.put(propertyInfo, propertyInfo.getPropertyValue(object));
+			}
+		}
+		return new ObjectValuesSnapshot(typeInfo, object, values);
+	}
+
+	/**
+	 * Compiles values info from a snapshot. The result is the same as the result of
+	 * {@link #compileToStringInfo(TypeInfo, Object)} at the time the snapshot was taken, except for transitive objects,
+	 * which are compiled with their current values.
+	 *
+	 * @param snapshot The snapshot to compile.
+	 * @return The values info of the snapshot.
+	 */
+	public ObjectValuesInfo compileToStringInfo(final ObjectValuesSnapshot snapshot) {
+		final VisitedObjects visitedObjects = new VisitedObjects(snapshot.getObject());
+		return compileValues(snapshot.getTypeInfo(), snapshot.getObject().getClass(), false,
+				propertyInfo -> formatFieldValue(snapshot.valueOf(propertyInfo), propertyInfo, visitedObjects), maxFieldsPerObject);
+	}
+
+	/**
+	 * Compiles values info for a type where every property value is replaced by a placeholder.
+	 *
+	 * The template contains exactly the properties that {@link #compileToStringInfo(TypeInfo, Object)} would add for
+	 * an object of the type, so formatting it shows which text a formatter puts around the values.
+	 *
+	 * @param typeInfo The type info of the type.
+	 * @param type The type for which to compile the template.
+	 * @param placeholders Creates the placeholder value for a property.
+	 * @return The values info containing placeholder values.
+	 */
+	public ObjectValuesInfo compileTemplate(final TypeInfo typeInfo, final Class<?> type, final Function<PropertyInfo, Object> placeholders) {
+		return compileValues(typeInfo, type, false, placeholders, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Compiles the value of a single property, exactly as it would appear in the values info of the object.
+	 *
+	 * @param object The object that contains the property.
+	 * @param propertyInfo The property to compile.
+	 * @return The value of the property, its abbreviation, or an {@link ObjectValuesInfo} for transitive objects.
+	 */
+	public Object compileFieldValue(final Object object, final PropertyInfo propertyInfo) {
+		return formatFieldValue(propertyInfo.getPropertyValue(object), propertyInfo, new VisitedObjects(object));
+	}
+
+	/**
+	 * Sends all values of the object to the listener, without collecting them in values info objects.
+	 *
+	 * The listener receives exactly the values that {@link #compileToStringInfo(TypeInfo, Object)} would add, in the
+	 * same order. Transitive objects are sent as nested values.
+	 *
+	 * @param typeInfo The type info of the object.
+	 * @param object The object to compile.
+	 * @param listener Receives the values of the object.
+	 */
+	public void compileTo(final TypeInfo typeInfo, final Object object, final ObjectValuesListener listener) {
+		compileTo(typeInfo, object, null, false, listener, new VisitedObjects(object));
+	}
 
+	/**
+	 * Sends all values of a snapshot to the listener, like {@link #compileTo(TypeInfo, Object, ObjectValuesListener)}
+	 * would have sent them at the time the snapshot was taken (transitive objects are sent with their current values).
+	 *
+	 * @param snapshot The snapshot to compile.
+	 * @param listener Receives the values of the snapshot.
+	 */
+	public void compileTo(final ObjectValuesSnapshot snapshot, final ObjectValuesListener listener) {
+		compileTo(snapshot.getTypeInfo(), snapshot.getObject(), snapshot, false, listener, new VisitedObjects(snapshot.getObject()));
+	}
+
+	/*
+	 * The snapshot is null when the values are read from the object, which is always the case for transitive objects.
+	 */
+	private void compileTo(final TypeInfo typeInfo, final Object object, final ObjectValuesSnapshot snapshot, final boolean transitive, final ObjectValuesListener listener, final VisitedObjects visitedObjects) {
+		final Class<?> type = object.getClass();
+		listener.startObject(typeInfo, type);
+
+		int remainingFields = maxFieldsPerObject;
 		for(ClassInfo classInfo : typeInfo.classInfos()) {
-			builder.addClassValues(compileClassValues(typeInfo, classInfo, object, includeInTransitive));
+			listener.startGroup(classInfo);
+			for(PropertyInfo propertyInfo : includedFieldInfos(typeInfo, classInfo, transitive)) {
+				if(remainingFields == 0) {
+					listener.value(TRUNCATED_VALUES_NAME, TRUNCATION_MARKER, String.class);
+					listener.endGroup();
+					listener.endObject(type);
+					return;
+				}
+				remainingFields--;
+				final Object fieldValue = snapshot != null ? snapshot.valueOf(propertyInfo) : propertyInfo.getPropertyValue(object);
+				sendFieldValue(fieldValue, propertyInfo, listener, visitedObjects);
+			}
+			listener.endGroup();
 		}
 
-		return builder.buildToStringInfo();
+		listener.endObject(type);
 	}
 
-	private GroupedValuesInfo compileClassValues(final TypeInfo typeInfo, final ClassInfo classInfo, final Object object, final Predicate<FormattedFieldType> includeInTransitive) {
-		GroupedValuesInfo.Builder builder = new GroupedValuesInfo.Builder();
-		builder.setClassName(classInfo.getClazz().getSimpleName());
+	private void sendFieldValue(final Object fieldValue, final PropertyInfo propertyInfo, final ObjectValuesListener listener, final VisitedObjects visitedObjects) {
+		final Object formattedFieldValue = formatFieldValue(fieldValue, propertyInfo, visitedObjects,
+				() -> hasTransitiveValues(fieldValue, propertyInfo) ? STREAMED_TRANSITIVE_VALUES : NO_TRANSITIVE_VALUES);
 
-		for(PropertyInfo propertyInfo : classInfo.fieldInfos()) {
-			formatFieldValueIfNecessary(typeInfo, object, builder, propertyInfo, includeInTransitive);
+		if(formattedFieldValue == STREAMED_TRANSITIVE_VALUES) {
+			listener.startNestedValue(propertyInfo);
+			visitedObjects.enter(fieldValue);
+			compileTo(transitiveTypeInfo(fieldValue, propertyInfo), fieldValue, null, true, listener, visitedObjects);
+			visitedObjects.leave(fieldValue);
+			listener.endNestedValue(propertyInfo);
+		} else {
+			listener.value(propertyInfo, formattedFieldValue);
 		}
+	}
+
+	private boolean hasTransitiveValues(final Object fieldValue, final PropertyInfo propertyInfo) {
+		return transitiveTypeInfo(fieldValue, propertyInfo).includesFieldsInTransitive();
+	}
 
-		return builder.buildGroupedValuesInfo();
+	private ObjectValuesInfo compileToStringInfo(final TypeInfo typeInfo, final Object object, final boolean transitive, final VisitedObjects visitedObjects) {
+		return compileValues(typeInfo, object.getClass(), transitive, propertyInfo -> formatFieldValue(propertyInfo.getPropertyValue(object), propertyInfo, visitedObjects), maxFieldsPerObject);
 	}
 
-	private void formatFieldValueIfNecessary(final TypeInfo typeInfo, final Object object, final GroupedValuesInfo.Builder builder, final PropertyInfo propertyInfo, final Predicate<FormattedFieldType> includeInTransitive) {
-		if(includeInTransitive.test(propertyInfo.getIncludeFieldInTransitive())) {
-			Object formattedFieldValue = formatFieldValue(object, propertyInfo);
-			typeInfo.getFormattedInclude().addFieldValueTo(builder, propertyInfo, formattedFieldValue);
+	private ObjectValuesInfo compileValues(final TypeInfo typeInfo, final Class<?> type, final boolean transitive, final Function<PropertyInfo, Object> fieldValues, final int maxFields) {
+		ObjectValuesInfo.Builder builder = new ObjectValuesInfo.Builder();
+		builder.setType(type);
+		builder.setTypeInfo(typeInfo);
+
+		int remainingFields = maxFields;
+		for(ClassInfo classInfo : typeInfo.classInfos()) {
+			GroupedValuesInfo.Builder classValuesBuilder = new GroupedValuesInfo.Builder();
+			classValuesBuilder.setClassInfo(classInfo);
+			remainingFields = compileClassValues(typeInfo, classInfo, classValuesBuilder, transitive, fieldValues, remainingFields);
+			builder.addClassValues(classValuesBuilder.buildGroupedValuesInfo());
+
+			if(remainingFields < 0) {
+				break;
+			}
+		}
+
+		return builder.buildToStringInfo();
+	}
+
+	/*
+	 * Returns how many fields can still be added to the object, or -1 when the values were truncated.
+	 */
+	private int compileClassValues(final TypeInfo typeInfo, final ClassInfo classInfo, final GroupedValuesInfo.Builder builder, final boolean transitive, final Function<PropertyInfo, Object> fieldValues, final int maxFields) {
+		int remainingFields = maxFields;
+		for(PropertyInfo propertyInfo : includedFieldInfos(typeInfo, classInfo, transitive)) {
+			if(remainingFields == 0) {
+				builder.addFieldValue(TRUNCATED_VALUES_NAME, TRUNCATION_MARKER, String.class);
+				return -1;
+			}
+			remainingFields--;
+			builder.addFieldValue(propertyInfo, fieldValues.apply(propertyInfo));
 		}
+		return remainingFields;
+	}
+
+	/*
+	 * The fields were selected when the type info was created, so excluded fields are never read.
+	 */
+	private List<PropertyInfo> includedFieldInfos(final TypeInfo typeInfo, final ClassInfo classInfo, final boolean transitive) {
+		return transitive ?
+				classInfo.includedFieldInfosInTransitive(typeInfo.getFormattedInclude()) :
+				classInfo.includedFieldInfos(typeInfo.getFormattedInclude());
 	}
 
-	private Object formatFieldValue(final Object object, final PropertyInfo propertyInfo) {
-		Object fieldValue = propertyInfo.getPropertyValue(object);
+	private Object formatFieldValue(final Object fieldValue, final PropertyInfo propertyInfo, final VisitedObjects visitedObjects) {
+		return formatFieldValue(fieldValue, propertyInfo, visitedObjects, () -> compileTransitiveValues(fieldValue, propertyInfo, visitedObjects));
+	}
+
+	private Object formatFieldValue(final Object fieldValue, final PropertyInfo propertyInfo, final VisitedObjects visitedObjects, final Supplier<ObjectValuesInfo> transitiveValues) {
 		if(fieldValue == null) {
 			return null;
 		}
 
+		if(LeafTypes.isLeafType(fieldValue.getClass())) {
+			return formatLeafValue(fieldValue, propertyInfo);
+		}
+
 		Boolean hasFormattedAnnotation = hasFormattedAnnotation(fieldValue, propertyInfo);
-		ObjectValuesInfo transitiveValues = this.compileToStringInfo(
-				typeInfoCache.typeInfoFor(fieldValue.getClass(), propertyInfo.getTransitiveIncludeOfTarget()), fieldValue, transitive -> transitive.equals(FormattedFieldType.DEFAULT));
+		final Object formattedFieldValue = propertyInfo.getTransitiveIncludeOfTarget().transitiveFieldValue(fieldValue, hasFormattedAnnotation,
+				() -> transitiveValuesOrStandIn(fieldValue, visitedObjects, transitiveValues));
+		if(formattedFieldValue == BACK_REFERENCE) {
+			return visitedObjects.backReferenceTo(fieldValue, transitiveTypeInfo(fieldValue, propertyInfo));
+		}
+		return formattedFieldValue == TRUNCATED ? TRUNCATION_MARKER : formattedFieldValue;
+	}
+
+	private ObjectValuesInfo transitiveValuesOrStandIn(final Object fieldValue, final VisitedObjects visitedObjects, final Supplier<ObjectValuesInfo> transitiveValues) {
+		if(visitedObjects.isVisited(fieldValue)) {
+			return BACK_REFERENCE;
+		}
+		if(visitedObjects.depth() >= maxDepth) {
+			return TRUNCATED;
+		}
+		return transitiveValues.get();
+	}
+
+	private Object formatLeafValue(final Object fieldValue, final PropertyInfo propertyInfo) {
+		final TransitiveInclude transitiveInclude = propertyInfo.getTransitiveIncludeOfTarget();
+		if(transitiveInclude == TransitiveInclude.ALL_FIELDS) {
+			return fieldValue;
+		}
+
+		//Leaf types never have fields we would include, so their transitive values are always empty.
+		final boolean hasFormattedAnnotation = transitiveInclude == TransitiveInclude.ANNOTADED_FIELDS;
+		return transitiveInclude.transitiveFieldValue(fieldValue, hasFormattedAnnotation, () -> new ObjectValuesInfo.Builder().setType(fieldValue.getClass()).buildToStringInfo());
+	}
+
+	private ObjectValuesInfo compileTransitiveValues(final Object fieldValue, final PropertyInfo propertyInfo, final VisitedObjects visitedObjects) {
+		visitedObjects.enter(fieldValue);
+		final ObjectValuesInfo transitiveValues = this.compileToStringInfo(transitiveTypeInfo(fieldValue, propertyInfo), fieldValue, true, visitedObjects);
+		visitedObjects.leave(fieldValue);
+		return transitiveValues;
+	}
 
-		return propertyInfo.getTransitiveIncludeOfTarget().transitiveFieldValue(fieldValue, hasFormattedAnnotation, transitiveValues);
+	private TypeInfo transitiveTypeInfo(final Object fieldValue, final PropertyInfo propertyInfo) {
+		return typeInfoCache.typeInfoFor(fieldValue.getClass(), propertyInfo.getTransitiveIncludeOfTarget());
 	}
 
 	private Boolean hasFormattedAnnotation(final Object fieldValue, final PropertyInfo propertyInfo) {
-		return typeInfoCache.configurationFor(fieldValue.getClass(), (f) -> true, false)
-				|| propertyInfo.getTransitiveIncludeOfTarget().equals(TransitiveInclude.ANNOTADED_FIELDS)
-				|| propertyInfo.getTransitiveIncludeOfTarget().equals(TransitiveInclude.ALL_FIELDS);
+		return propertyInfo.getTransitiveIncludeOfTarget().equals(TransitiveInclude.ANNOTADED_FIELDS)
+				|| propertyInfo.getTransitiveIncludeOfTarget().equals(TransitiveInclude.ALL_FIELDS)
+				|| typeInfoCache.isFormatted(fieldValue.getClass());
 	}
 }
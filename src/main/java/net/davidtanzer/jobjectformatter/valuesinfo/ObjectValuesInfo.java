@@ -15,6 +15,9 @@
  */
 package net.davidtanzer.jobjectformatter.valuesinfo;
 
+import net.davidtanzer.jobjectformatter.typeinfo.ClassNaming;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -26,11 +29,15 @@ public class ObjectValuesInfo {
 	private final List<GroupedValuesInfo> valuesByClass;
 	private final List<ValueInfo> allValues;
 	private final Class type;
+	private final String displayName;
+	private final TypeInfo typeInfo;
 
-	private ObjectValuesInfo(final List<GroupedValuesInfo> valuesByClass, final List<ValueInfo> allValues, final Class type) {
+	private ObjectValuesInfo(final List<GroupedValuesInfo> valuesByClass, final List<ValueInfo> allValues, final Class type, final String displayName, final TypeInfo typeInfo) {
 		this.valuesByClass = valuesByClass;
 		this.allValues = allValues;
 		this.type = type;
+		this.displayName = displayName;
+		this.typeInfo = typeInfo;
 	}
 
 	/**
@@ -51,6 +58,30 @@ public class ObjectValuesInfo {
 		return allValues;
 	}
 
+	/**
+	 * Creates a values info that only contains the type of an object, but no values.
+	 *
+	 * Streaming formatters pass such values infos to their callbacks, since they never collect the values of an object.
+	 *
+	 * @param type The type of the object to format.
+	 * @return A values info without values.
+	 */
+	public static ObjectValuesInfo withoutValues(final Class<?> type) {
+		return withoutValues(type, ClassNaming.SIMPLE.displayNameOf(type));
+	}
+
+	/**
+	 * Creates a values info that only contains the type of an object and its display name, but no values.
+	 *
+	 * @param type The type of the object to format.
+	 * @param displayName The name of the type as it should be displayed in the formatted output.
+	 * @return A values info without values.
+	 * @see net.davidtanzer.jobjectformatter.typeinfo.TypeInfo#getDisplayName()
+	 */
+	public static ObjectValuesInfo withoutValues(final Class<?> type, final String displayName) {
+		return new ObjectValuesInfo(Collections.emptyList(), Collections.emptyList(), type, displayName, null);
+	}
+
 	/**
 	 * Get the type of the object to format.
 	 *
@@ -60,16 +91,41 @@ public class ObjectValuesInfo {
 		return type;
 	}
 
+	/**
+	 * Get the name of the type as it should be displayed in the formatted output.
+	 *
+	 * @return the display name of the type (see {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfo#getDisplayName()}).
+	 */
+	public String getDisplayName() {
+		return displayName;
+	}
+
+	/**
+	 * Get the type info the values were compiled from.
+	 *
+	 * Formatters can use it to find information about the type they have already compiled (like the literal text around
+	 * the values) instead of processing the values info from scratch.
+	 *
+	 * @return the type info of the object, or null when the values info was not compiled from a type info.
+	 */
+	public TypeInfo getTypeInfo() {
+		return typeInfo;
+	}
+
 	static class Builder {
 		private final List<GroupedValuesInfo> valuesByClass = new ArrayList<>();
 		private final List<ValueInfo> allValues = new ArrayList<>();
 		private Class type;
+		private String displayName;
+		private TypeInfo typeInfo;
 
 		public ObjectValuesInfo buildToStringInfo() {
 			return new ObjectValuesInfo(
 					Collections.unmodifiableList(valuesByClass),
 					Collections.unmodifiableList(allValues),
-					type);
+					type,
+					displayName != null || type == null ? displayName : ClassNaming.SIMPLE.displayNameOf(type),
+					typeInfo);
 		}
 
 		Builder addClassValues(final GroupedValuesInfo groupedValuesInfo) {
@@ -82,5 +138,11 @@ public class ObjectValuesInfo {
 			this.type = type;
 			return this;
 		}
+
+		Builder setTypeInfo(final TypeInfo typeInfo) {
+			this.typeInfo = typeInfo;
+			this.displayName = typeInfo.getDisplayName();
+			return this;
+		}
 	}
 }
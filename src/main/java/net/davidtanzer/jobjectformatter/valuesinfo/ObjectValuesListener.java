@@ -0,0 +1,140 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.valuesinfo;
+
+import net.davidtanzer.jobjectformatter.typeinfo.ClassInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
+
+/**
+ * Receives the values of an object one by one, in the same order in which they would appear in an
+ * {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo}.
+ *
+ * The {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler} calls a listener while it walks the type
+ * info of an object (see {@link ObjectValuesCompiler#compileTo(net.davidtanzer.jobjectformatter.typeinfo.TypeInfo, Object, ObjectValuesListener)}),
+ * so formatters can write their output directly, without collecting the values first. The events for an object are:
+ *
+ * <pre>
+startObject (startGroup (value | startNestedValue ...events of the nested object... endNestedValue)* endGroup)* endObject
+ * </pre>
+ *
+ * The compiler calls the variants of <code>startObject</code>, <code>startGroup</code>, <code>value</code>,
+ * <code>startNestedValue</code> and <code>endNestedValue</code> that take the
+ * {@link net.davidtanzer.jobjectformatter.typeinfo.TypeInfo}, {@link net.davidtanzer.jobjectformatter.typeinfo.ClassInfo}
+ * or {@link net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo}, so listeners can cache information per type and
+ * class. Their default implementations call the variants that take names.
+ *
+ * @see net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCollector
+ */
+public interface ObjectValuesListener {
+	/**
+	 * Called before any values of an object.
+	 *
+	 * @param type The type of the object.
+	 */
+	void startObject(Class<?> type);
+
+	/**
+	 * Called before any values of an object.
+	 *
+	 * @param typeInfo The type information that is used for compiling the object.
+	 * @param type The type of the object.
+	 */
+	default void startObject(final TypeInfo typeInfo, final Class<?> type) {
+		startObject(type);
+	}
+
+	/**
+	 * Called before the values of one of the classes in the hierarchy of the object.
+	 *
+	 * @param groupName The name of the group (i.e. the display name of the class).
+	 */
+	void startGroup(String groupName);
+
+	/**
+	 * Called before the values of one of the classes in the hierarchy of the object.
+	 *
+	 * @param classInfo The type information of the class.
+	 */
+	default void startGroup(final ClassInfo classInfo) {
+		startGroup(classInfo.getDisplayName());
+	}
+
+	/**
+	 * Called for every value of the current group.
+	 *
+	 * @param propertyName The name of the property.
+	 * @param value The (already formatted) value of the property.
+	 * @param propertyType The type of the property.
+	 */
+	void value(String propertyName, Object value, Class<?> propertyType);
+
+	/**
+	 * Called for every value of the current group that belongs to a property of the class.
+	 *
+	 * @param propertyInfo The type information of the property.
+	 * @param value The (already formatted) value of the property.
+	 */
+	default void value(final PropertyInfo propertyInfo, final Object value) {
+		value(propertyInfo.getName(), value, propertyInfo.getType());
+	}
+
+	/**
+	 * Called before the events of a transitive object that is included with its values.
+	 *
+	 * @param propertyName The name of the property that references the transitive object.
+	 * @param propertyType The type of the property.
+	 */
+	void startNestedValue(String propertyName, Class<?> propertyType);
+
+	/**
+	 * Called before the events of a transitive object that is included with its values.
+	 *
+	 * @param propertyInfo The type information of the property that references the transitive object.
+	 */
+	default void startNestedValue(final PropertyInfo propertyInfo) {
+		startNestedValue(propertyInfo.getName(), propertyInfo.getType());
+	}
+
+	/**
+	 * Called after the events of a transitive object that is included with its values.
+	 *
+	 * @param propertyName The name of the property that references the transitive object.
+	 * @param propertyType The type of the property.
+	 */
+	void endNestedValue(String propertyName, Class<?> propertyType);
+
+	/**
+	 * Called after the events of a transitive object that is included with its values.
+	 *
+	 * @param propertyInfo The type information of the property that references the transitive object.
+	 */
+	default void endNestedValue(final PropertyInfo propertyInfo) {
+		endNestedValue(propertyInfo.getName(), propertyInfo.getType());
+	}
+
+	/**
+	 * Called after all values of a group.
+	 */
+	void endGroup();
+
+	/**
+	 * Called after all values of an object.
+	 *
+	 * @param type The type of the object.
+	 */
+	void endObject(Class<?> type);
+}
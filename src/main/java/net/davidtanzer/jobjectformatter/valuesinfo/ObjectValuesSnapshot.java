@@ -0,0 +1,68 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.valuesinfo;
+
+import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The values of the fields of an object at a certain point in time. Create it with
+ * {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler#snapshot(TypeInfo, Object)}.
+ *
+ * The snapshot is shallow: It contains the values of the fields of the object itself (primitive values are boxed),
+ * but transitive objects are only referenced, so their values are read when the snapshot is compiled.
+ */
+public final class ObjectValuesSnapshot {
+	private final TypeInfo typeInfo;
+	private final Object object;
+	private final Map<PropertyInfo, Object> values;
+
+	ObjectValuesSnapshot(final TypeInfo typeInfo, final Object object, final Map<PropertyInfo, Object> values) {
+		assert typeInfo != null : "Parameter typeInfo must not be null!";
+		assert object != null : "Parameter object must not be null!";
+		assert values instanceof IdentityHashMap : "Parameter values must be an identity hash map!";
+
+		this.typeInfo = typeInfo;
+		this.object = object;
+		this.values = values;
+	}
+
+	/**
+	 * Get the type info that was used to create the snapshot.
+	 *
+	 * @return the type info of the object.
+	 */
+	public TypeInfo getTypeInfo() {
+		return typeInfo;
+	}
+
+	/**
+	 * Get the object of which the snapshot was taken.
+	 *
+	 * @return the object.
+	 */
+	public Object getObject() {
+		return object;
+	}
+
+	Object valueOf(final PropertyInfo propertyInfo) {
+		assert values.containsKey(propertyInfo) : "The snapshot does not contain a value for " + propertyInfo;
+		return values.get(propertyInfo);
+	}
+}
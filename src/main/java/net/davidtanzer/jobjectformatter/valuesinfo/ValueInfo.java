@@ -15,6 +15,8 @@
  */
 package net.davidtanzer.jobjectformatter.valuesinfo;
 
+import net.davidtanzer.jobjectformatter.typeinfo.PropertyInfo;
+
 /**
  * Information about a single property value.
  */
@@ -22,11 +24,20 @@ public class ValueInfo {
 	private final String propertyName;
 	private final Object value;
 	private final Class<?> propertyType;
+	private final PropertyInfo propertyInfo;
 
 	public ValueInfo(final String propertyName, final Object value, final Class<?> propertyType) {
 		this.propertyName = propertyName;
 		this.value = value;
 		this.propertyType = propertyType;
+		this.propertyInfo = null;
+	}
+
+	ValueInfo(final PropertyInfo propertyInfo, final Object value) {
+		this.propertyName = propertyInfo.getName();
+		this.value = value;
+		this.propertyType = propertyInfo.getType();
+		this.propertyInfo = propertyInfo;
 	}
 
 	/**
@@ -56,6 +67,16 @@ public class ValueInfo {
 		return propertyType;
 	}
 
+	/**
+	 * Get the property info of the property.
+	 *
+	 * @return the property info, or null when the value does not belong to a property of the type info (like the
+	 *         marker for truncated values).
+	 */
+	public PropertyInfo getPropertyInfo() {
+		return propertyInfo;
+	}
+
 	@Override
 	public boolean equals(final Object o) {
 		if (this == o) return true;
@@ -0,0 +1,86 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.valuesinfo;
+
+import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Remembers which objects one run of the {@link net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler} has
+ * already compiled, so that transitive objects that reference each other are only compiled once.
+ *
+ * Objects are numbered in the order they are compiled, starting with 1 for the object the run started with. The map
+ * is only created when the run compiles its first transitive object. The depth is the number of transitive objects
+ * that are currently being compiled.
+ */
+class VisitedObjects {
+	private final Object root;
+	private Map<Object, Visit> visits;
+	private int depth;
+
+	VisitedObjects(final Object root) {
+		this.root = root;
+	}
+
+	boolean isVisited(final Object object) {
+		if(visits == null) {
+			return object == root;
+		}
+		return visits.containsKey(object);
+	}
+
+	void enter(final Object object) {
+		if(visits == null) {
+			visits = new IdentityHashMap<>();
+			visits.put(root, new Visit(1));
+		}
+		visits.put(object, new Visit(visits.size() + 1));
+		depth++;
+	}
+
+	void leave(final Object object) {
+		visits.get(object).inProgress = false;
+		depth--;
+	}
+
+	int depth() {
+		return depth;
+	}
+
+	/**
+	 * Creates the marker that replaces an object that was already visited: <code>&lt;cycle Type@n&gt;</code> when the
+	 * object is still being compiled (i.e. it references itself), <code>&lt;ref Type@n&gt;</code> otherwise. The type is
+	 * the display name of the object's type info.
+	 */
+	String backReferenceTo(final Object object, final TypeInfo typeInfo) {
+		assert typeInfo != null : "Parameter \"typeInfo\" must not be null.";
+		final Visit visit = visits == null ? new Visit(1) : visits.get(object);
+		assert visit != null : "Only create back references to visited objects.";
+
+		return "<" + (visit.inProgress ? "cycle " : "ref ") + typeInfo.getDisplayName() + "@" + visit.number + ">";
+	}
+
+	private static class Visit {
+		private final int number;
+		private boolean inProgress = true;
+
+		private Visit(final int number) {
+			this.number = number;
+		}
+	}
+}
@@ -0,0 +1,203 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+import net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.SimpleFormatter;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class AsyncFormattedStringGeneratorTest {
+	private final CountDownLatch blockerReleased = new CountDownLatch(1);
+	private final ThreadRecordingFormatter formatter = new ThreadRecordingFormatter();
+	private AsyncFormattedStringGenerator asyncGenerator;
+
+	@After
+	public void closeGenerator() {
+		blockerReleased.countDown();
+		if(asyncGenerator != null) {
+			asyncGenerator.close();
+		}
+	}
+
+	@Test
+	public void formatsObjectsOnABackgroundThread() throws Exception {
+		asyncGenerator = asyncGenerator(OverflowPolicy.BLOCK);
+
+		asyncGenerator.formatAsync(new Person()).get(5, TimeUnit.SECONDS);
+
+		assertThat(formatter.lastThread.get().getName(), startsWith("jobjectformatter-async-"));
+	}
+
+	@Test
+	public void returnsTheSameStringAsTheGenerator() throws Exception {
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new SimpleFormatter());
+		asyncGenerator = new AsyncFormattedStringGenerator.Builder().setGenerator(generator).buildAsyncFormattedStringGenerator();
+
+		assertThat(asyncGenerator.formatAsync(new Person()).get(5, TimeUnit.SECONDS), is(generator.format(new Person())));
+	}
+
+	@Test
+	public void usesFieldValues_FromTheTimeTheObjectWasSubmitted() throws Exception {
+		asyncGenerator = asyncGenerator(OverflowPolicy.BLOCK);
+		final Person person = new Person();
+
+		asyncGenerator.formatAsync(new Blocker());
+		final CompletableFuture<String> formatted = asyncGenerator.formatAsync(person);
+		person.firstName = "John";
+		person.age = 44;
+		blockerReleased.countDown();
+
+		assertThat(formatted.get(5, TimeUnit.SECONDS), is("{ firstName=Jane, age=33 }"));
+	}
+
+	@Test
+	public void deliversFormattedStringToCallback() throws Exception {
+		asyncGenerator = asyncGenerator(OverflowPolicy.BLOCK);
+		final AtomicReference<String> delivered = new AtomicReference<>();
+
+		asyncGenerator.formatAsync(new Person(), delivered::set).get(5, TimeUnit.SECONDS);
+
+		assertThat(delivered.get(), is("{ firstName=Jane, age=33 }"));
+	}
+
+	@Test
+	public void completesFutureExceptionally_WhenFormattingThrowsAnError() throws Exception {
+		asyncGenerator = asyncGenerator(OverflowPolicy.BLOCK);
+
+		final CompletableFuture<String> formatted = asyncGenerator.formatAsync(new Broken());
+
+		try {
+			formatted.get(5, TimeUnit.SECONDS);
+			fail("Expected formatting to fail.");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is(instanceOf(AssertionError.class)));
+		}
+	}
+
+	@Test
+	public void dropPolicyCompletesFutureExceptionally_WhenTheQueueIsFull() throws Exception {
+		asyncGenerator = asyncGenerator(OverflowPolicy.DROP);
+		fillQueue();
+
+		final CompletableFuture<String> dropped = asyncGenerator.formatAsync(new Person());
+
+		try {
+			dropped.get(5, TimeUnit.SECONDS);
+			fail("Expected the object to be dropped.");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause(), is(instanceOf(RejectedExecutionException.class)));
+		}
+	}
+
+	@Test
+	public void runOnCallerPolicyFormatsOnTheCallingThread_WhenTheQueueIsFull() throws Exception {
+		asyncGenerator = asyncGenerator(OverflowPolicy.RUN_ON_CALLER);
+		fillQueue();
+
+		final CompletableFuture<String> formatted = asyncGenerator.formatAsync(new Person());
+
+		assertThat(formatted.isDone(), is(true));
+		assertThat(formatter.lastThread.get(), is(Thread.currentThread()));
+	}
+
+	@Test
+	public void blockPolicyWaitsForSpaceInTheQueue_WhenTheQueueIsFull() throws Exception {
+		asyncGenerator = asyncGenerator(OverflowPolicy.BLOCK);
+		fillQueue();
+		final AtomicReference<CompletableFuture<String>> formatted = new AtomicReference<>();
+
+		final Thread caller = new Thread(() -> formatted.set(asyncGenerator.formatAsync(new Person())));
+		caller.start();
+		caller.join(200);
+
+		assertThat(caller.isAlive(), is(true));
+		blockerReleased.countDown();
+		caller.join(5000);
+		assertThat(formatted.get().get(5, TimeUnit.SECONDS), is("{ firstName=Jane, age=33 }"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void builderDoesNotAcceptInvalidConfiguration() {
+		new AsyncFormattedStringGenerator.Builder().setQueueCapacity(0);
+	}
+
+	private AsyncFormattedStringGenerator asyncGenerator(final OverflowPolicy overflowPolicy) {
+		return new AsyncFormattedStringGenerator.Builder()
+				.setGenerator(new FormattedStringGenerator(formatter))
+				.setThreads(1)
+				.setQueueCapacity(1)
+				.setOverflowPolicy(overflowPolicy)
+				.buildAsyncFormattedStringGenerator();
+	}
+
+	/*
+	 * Occupies the only background thread with a blocker and the only queue slot with another object.
+	 */
+	private void fillQueue() throws InterruptedException {
+		asyncGenerator.formatAsync(new Blocker());
+		formatter.blockerStarted.await(5, TimeUnit.SECONDS);
+		asyncGenerator.formatAsync(new Person());
+	}
+
+	private class ThreadRecordingFormatter implements ObjectStringFormatter {
+		private final SimpleFormatter simpleFormatter = new SimpleFormatter();
+		private final CountDownLatch blockerStarted = new CountDownLatch(1);
+		private final AtomicReference<Thread> lastThread = new AtomicReference<>();
+
+		@Override
+		public String format(final ObjectValuesInfo info) {
+			if(info.getType() == Blocker.class) {
+				blockerStarted.countDown();
+				try {
+					blockerReleased.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if(info.getType() == Broken.class) {
+				throw new AssertionError("Cannot format broken objects.");
+			}
+			lastThread.set(Thread.currentThread());
+			return simpleFormatter.format(info);
+		}
+	}
+
+	private static class Blocker {
+	}
+
+	private static class Broken {
+	}
+
+	private static class Person {
+		private String firstName = "Jane";
+		private int age = 33;
+	}
+}
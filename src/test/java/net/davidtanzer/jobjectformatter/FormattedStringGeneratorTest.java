@@ -15,17 +15,48 @@
  */
 package net.davidtanzer.jobjectformatter;
 
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedField;
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.formatter.ConfigurableObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.DisplayClassName;
+import net.davidtanzer.jobjectformatter.formatter.FormatGrouped;
+import net.davidtanzer.jobjectformatter.formatter.JsonObjectStringFormatter;
 import net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.SimpleFormatter;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCollector;
 import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesListener;
+import net.davidtanzer.jobjectformatter.valuesinfo.ValueInfo;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -70,6 +101,375 @@ public class FormattedStringGeneratorTest {
 		assertThat(stringValue, is("Formatted String"));
 	}
 
+	@Test
+	public void usesTheGivenTypeInfoCacheForAllTypeInformation() {
+		final TypeInfoCache givenTypeInfoCache = spy(new TypeInfoCache());
+		formattedStringGenerator = new FormattedStringGenerator(toStringFormatter, givenTypeInfoCache);
+
+		formattedStringGenerator.format(new SimpleObject());
+
+		verify(givenTypeInfoCache).typeInfoFor(SimpleObject.class);
+	}
+
+	@Test
+	public void usesTheSharedTypeInfoCache_WhenCreatedWithoutTypeInfoCache() {
+		final TypeInfoCache sharedCache = spy(new TypeInfoCache());
+		final TypeInfoCache.SharedCacheScope scope = TypeInfoCache.replaceSharedCache(sharedCache);
+		try {
+			new FormattedStringGenerator(new SimpleFormatter()).format(new Person());
+		} finally {
+			scope.close();
+		}
+
+		verify(sharedCache).typeInfoFor(Person.class);
+		verify(sharedCache).typeInfoFor(Address.class);
+	}
+
+	@Test
+	public void formatToAppendsTheSameOutputAsFormatForAllBuiltInFormatters() throws IOException {
+		for(ObjectStringFormatter formatter : builtInFormatters()) {
+			assertFormatToAppendsTheSameOutputAsFormat(new FormattedStringGenerator(formatter), new Person());
+		}
+	}
+
+	@Test
+	public void formatToAppendsTheSameOutputAsFormat_ForFormattersThatDoNotStream() throws IOException {
+		final ObjectStringFormatter formatter = info -> info.getAllValues().stream()
+				.map(value -> value.getPropertyName().toUpperCase())
+				.collect(Collectors.joining(", "));
+
+		assertFormatToAppendsTheSameOutputAsFormat(new FormattedStringGenerator(formatter), new Person());
+	}
+
+	@Test
+	public void formatToCallsTheValueHookOfSubclassesOfBuiltInFormatters() throws IOException {
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new MaskingFormatter(), new TypeInfoCache());
+
+		final StringBuilder result = new StringBuilder();
+		generator.formatTo(new Person(), result);
+
+		assertThat(result.toString(), containsString("firstName=***"));
+		assertThat(result.toString(), containsString("address=***"));
+		assertThat(result.toString(), not(containsString("Jane")));
+		assertThat(result.toString(), not(containsString("Evergreen Terrace")));
+	}
+
+	@Test
+	public void doesNotBypassTheHooksOfSubclassesOfBuiltInFormatters() throws IOException {
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new MaskingFormatter(), new TypeInfoCache());
+		final FormattedStringGenerator jsonGenerator = new FormattedStringGenerator(new MaskingJsonFormatter(), new TypeInfoCache());
+
+		assertThat(formatWithAllMethods(generator, new Person()), everyItem(is(
+				"Masked{ firstName=***, lastName=***, age=***, nothing=***, address=***, principal=***, notTransitive=***, identification=***, id=*** }")));
+		assertThat(formatWithAllMethods(jsonGenerator, new Person()), everyItem(allOf(
+				containsString("\"firstName\": \"***\""), not(containsString("Jane")), not(containsString("Evergreen Terrace")))));
+	}
+
+	@Test
+	public void formatToWorksWithAppendablesOtherThanStringBuilders() throws IOException {
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new SimpleFormatter());
+		final StringWriter writer = new StringWriter();
+
+		generator.formatTo(new Person(), writer);
+
+		assertThat(writer.toString(), is(generator.format(new Person())));
+	}
+
+	@Test
+	public void budgetTruncatesOutput_AfterMaxCharacters() {
+		final String unlimited = new FormattedStringGenerator(new SimpleFormatter()).format(new Person());
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new SimpleFormatter(), new TypeInfoCache(),
+				new FormattingBudget.Builder().setMaxCharacters(20).buildFormattingBudget());
+
+		assertThat(generator.format(new Person()), is(unlimited.substring(0, 20) + ObjectValuesCompiler.TRUNCATION_MARKER));
+	}
+
+	@Test
+	public void budgetTruncatesTransitiveObjects_DeeperThanMaxDepth() {
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new SimpleFormatter(), new TypeInfoCache(),
+				new FormattingBudget.Builder().setMaxDepth(0).buildFormattingBudget());
+
+		assertThat(generator.format(new Person()), containsString("address=" + ObjectValuesCompiler.TRUNCATION_MARKER));
+	}
+
+	@Test
+	public void budgetTruncatesValues_AfterMaxFieldsPerObject() {
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new SimpleFormatter(), new TypeInfoCache(),
+				new FormattingBudget.Builder().setMaxFieldsPerObject(2).buildFormattingBudget());
+
+		assertThat(generator.format(new Person()), is("{ firstName=Jane, lastName=Doe, ...=" + ObjectValuesCompiler.TRUNCATION_MARKER + " }"));
+	}
+
+	@Test
+	public void budgetStopsCompiling_WhenMaxCharactersAreReached() {
+		final List<String> receivedValues = new ArrayList<>();
+		final ObjectStringFormatter formatter = new ObjectStringFormatter() {
+			@Override
+			public String format(final ObjectValuesInfo info) {
+				throw new UnsupportedOperationException("Values should be streamed to the listener.");
+			}
+
+			@Override
+			public ObjectValuesListener listenerFor(final StringBuilder result) {
+				return new ObjectValuesCollector(info -> {}) {
+					@Override
+					public void value(final String propertyName, final Object value, final Class<?> propertyType) {
+						receivedValues.add(propertyName);
+						result.append(value);
+					}
+				};
+			}
+		};
+		final FormattedStringGenerator generator = new FormattedStringGenerator(formatter, new TypeInfoCache(),
+				new FormattingBudget.Builder().setMaxCharacters(5).buildFormattingBudget());
+
+		assertThat(generator.format(new Person()), is("JaneD" + ObjectValuesCompiler.TRUNCATION_MARKER));
+		assertThat(receivedValues, contains("firstName", "lastName"));
+	}
+
+	@Test
+	public void budgetCapsValues_ThatAreLongerThanTheRemainingCharacters() {
+		final List<Object> receivedValues = new ArrayList<>();
+		final ObjectStringFormatter formatter = new ObjectStringFormatter() {
+			@Override
+			public String format(final ObjectValuesInfo info) {
+				throw new UnsupportedOperationException("Values should be streamed to the listener.");
+			}
+
+			@Override
+			public ObjectValuesListener listenerFor(final StringBuilder result) {
+				return new ObjectValuesCollector(info -> {}) {
+					@Override
+					public void value(final String propertyName, final Object value, final Class<?> propertyType) {
+						receivedValues.add(value);
+						result.append(value);
+					}
+				};
+			}
+		};
+		final FormattedStringGenerator generator = new FormattedStringGenerator(formatter, new TypeInfoCache(),
+				new FormattingBudget.Builder().setMaxCharacters(5).buildFormattingBudget());
+
+		assertThat(generator.format(new ObjectWithHugeValue()), is("xxxxx" + ObjectValuesCompiler.TRUNCATION_MARKER));
+		assertThat(receivedValues, contains((Object) "xxxxxx"));
+	}
+
+	@Test
+	public void budgetDoesNotConvertValuesToStrings_WhenTheCharactersAreExhausted() {
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new SimpleFormatter(), new TypeInfoCache(),
+				new FormattingBudget.Builder().setMaxCharacters(13).buildFormattingBudget());
+		final ObjectWithHugeValueAfterBudget object = new ObjectWithHugeValueAfterBudget();
+
+		assertThat(generator.format(object), is("{ text=xxxxxx" + ObjectValuesCompiler.TRUNCATION_MARKER));
+		assertThat(object.huge.toStringCalls, is(0));
+	}
+
+	@Test
+	public void formatWithoutBudgetExhaustionIsTheSameAsUnlimitedFormat() {
+		final FormattingBudget budget = new FormattingBudget.Builder()
+				.setMaxCharacters(10000)
+				.setMaxDepth(10)
+				.setMaxFieldsPerObject(100)
+				.buildFormattingBudget();
+
+		for(ObjectStringFormatter formatter : builtInFormatters()) {
+			final FormattedStringGenerator generator = new FormattedStringGenerator(formatter, new TypeInfoCache(), budget);
+			assertThat(generator.format(new Person()), is(new FormattedStringGenerator(formatter).format(new Person())));
+		}
+	}
+
+	@Test
+	public void formatUtf8WritesTheSameBytesAsFormatForAllBuiltInFormatters() throws IOException {
+		final Person person = new Person();
+		person.firstName = "J\u00E4n\u00EB \"\u00DCn\u00EFc\u00F8d\u00E9\" \uD83D\uDE00";
+
+		for(ObjectStringFormatter formatter : builtInFormatters()) {
+			assertFormatUtf8WritesTheSameBytesAsFormat(new FormattedStringGenerator(formatter), person);
+		}
+	}
+
+	@Test
+	public void formatUtf8WritesTheSameBytesAsFormat_WhenTheBudgetIsLimited() throws IOException {
+		final FormattingBudget budget = new FormattingBudget.Builder().setMaxCharacters(20).buildFormattingBudget();
+
+		assertFormatUtf8WritesTheSameBytesAsFormat(new FormattedStringGenerator(new SimpleFormatter(), new TypeInfoCache(), budget), new Person());
+	}
+
+	@Test
+	public void formatAllKeepsTheOrderOfTheObjects() {
+		final List<Item> items = numberedItems(1000);
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new SimpleFormatter());
+
+		final List<String> formatted = generator.formatAll(items);
+
+		assertThat(formatted, is(items.stream().map(generator::format).collect(Collectors.toList())));
+	}
+
+	@Test
+	public void formatAllReturnsTheSameOutputAsFormat() {
+		final List<Object> objects = Arrays.asList(new Person(), new Address(), new Principal(), new Person());
+
+		for(ObjectStringFormatter formatter : builtInFormatters()) {
+			final FormattedStringGenerator generator = new FormattedStringGenerator(formatter, new TypeInfoCache());
+			assertThat(generator.formatAll(objects), is(objects.stream().map(generator::format).collect(Collectors.toList())));
+		}
+	}
+
+	@Test
+	public void formatAllResolvesTypeInfo_OncePerDistinctClass() {
+		final TypeInfoCache givenTypeInfoCache = spy(new TypeInfoCache());
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new SimpleFormatter(), givenTypeInfoCache);
+
+		generator.formatAll(Arrays.asList(new Address(), new Principal(), new Address(), new Address()));
+
+		verify(givenTypeInfoCache).preload(new LinkedHashSet<>(Arrays.asList(Address.class, Principal.class)), ForkJoinPool.commonPool());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void formatAllFails_ForNullObjects() {
+		new FormattedStringGenerator(new SimpleFormatter()).formatAll(Arrays.asList(new Address(), null));
+	}
+
+	@Test
+	public void formatAllAsStreamKeepsTheOrderOfTheObjects() {
+		final List<Item> items = numberedItems(1000);
+		final FormattedStringGenerator generator = new FormattedStringGenerator(new SimpleFormatter());
+
+		final List<String> formatted = generator.formatAllAsStream(items).collect(Collectors.toList());
+
+		assertThat(formatted, is(items.stream().map(generator::format).collect(Collectors.toList())));
+	}
+
+	private List<ObjectStringFormatter> builtInFormatters() {
+		return Arrays.asList(
+				new SimpleFormatter(),
+				ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME,
+				ConfigurableObjectStringFormatter.UNGROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME,
+				new JsonObjectStringFormatter(),
+				new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.ALWAYS));
+	}
+
+	private List<Item> numberedItems(final int count) {
+		final List<Item> items = new ArrayList<>();
+		for(int i = 0; i < count; i++) {
+			items.add(new Item(i));
+		}
+		return items;
+	}
+
+	private List<String> formatWithAllMethods(final FormattedStringGenerator generator, final Object object) throws IOException {
+		final StringBuilder streamed = new StringBuilder();
+		generator.formatTo(object, streamed);
+		final ByteBuffer buffer = ByteBuffer.allocate(1000);
+		generator.formatUtf8(object, buffer);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		generator.formatUtf8(object, out);
+
+		return Arrays.asList(generator.format(object), streamed.toString(),
+				new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8), new String(out.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	private void assertFormatUtf8WritesTheSameBytesAsFormat(final FormattedStringGenerator generator, final Object object) throws IOException {
+		final byte[] expected = generator.format(object).getBytes(StandardCharsets.UTF_8);
+		final ByteBuffer buffer = ByteBuffer.allocate(1000);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		generator.formatUtf8(object, buffer);
+		generator.formatUtf8(object, out);
+
+		assertThat(Arrays.copyOf(buffer.array(), buffer.position()), is(expected));
+		assertThat(out.toByteArray(), is(expected));
+	}
+
+	private void assertFormatToAppendsTheSameOutputAsFormat(final FormattedStringGenerator generator, final Object object) throws IOException {
+		final StringBuilder result = new StringBuilder("before:");
+		generator.formatTo(object, result);
+
+		assertThat(result.toString(), is("before:" + generator.format(object)));
+	}
+
 	private class SimpleObject {
 	}
-}
\ No newline at end of file
+
+	private static class MaskingFormatter extends SimpleFormatter {
+		@Override
+		protected void startFormattedString(final StringBuilder result, final ObjectValuesInfo info) {
+			result.append("Masked{ ");
+		}
+
+		@Override
+		protected void appendSingleValue(final StringBuilder result, final ValueInfo value) {
+			result.append(value.getPropertyName()).append("=***");
+		}
+	}
+
+	private static class MaskingJsonFormatter extends JsonObjectStringFormatter {
+		@Override
+		protected void appendSingleValue(final StringBuilder result, final ValueInfo value) {
+			startNestedValue(result, value.getPropertyName(), value.getPropertyType());
+			result.append("\"***\"");
+		}
+	}
+
+	private static class Principal {
+		private String identification = "jdoe";
+		private long id = 42L;
+	}
+
+	private static class Person extends Principal {
+		private String firstName = "Jane";
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private String lastName = "Doe";
+		private int age = 33;
+		private String nothing = null;
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		private Address address = new Address();
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		private Principal principal = new Principal();
+		private Address notTransitive = new Address();
+	}
+
+	private static class Address {
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private String street = "Evergreen Terrace";
+		private String streetNo = "12b";
+	}
+
+	private static class Item {
+		private final int number;
+
+		private Item(final int number) {
+			this.number = number;
+		}
+	}
+
+	private static class ObjectWithHugeValue {
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		private HugeValue huge = new HugeValue();
+	}
+
+	private static class ObjectWithHugeValueAfterBudget {
+		private String text = "xxxxxx";
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		private CountingHugeValue huge = new CountingHugeValue();
+	}
+
+	private static class CountingHugeValue extends HugeValue {
+		private int toStringCalls;
+
+		@Override
+		public String toString() {
+			toStringCalls++;
+			return super.toString();
+		}
+	}
+
+	private static class HugeValue {
+		@Override
+		public String toString() {
+			final char[] value = new char[1000000];
+			Arrays.fill(value, 'x');
+			return new String(value);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class FormattingBudgetTest {
+	@Test
+	public void unlimitedBudgetHasNoLimits() {
+		assertThat(FormattingBudget.UNLIMITED.isUnlimited(), is(true));
+		assertThat(FormattingBudget.UNLIMITED.getMaxCharacters(), is(Integer.MAX_VALUE));
+		assertThat(FormattingBudget.UNLIMITED.getMaxDepth(), is(Integer.MAX_VALUE));
+		assertThat(FormattingBudget.UNLIMITED.getMaxFieldsPerObject(), is(Integer.MAX_VALUE));
+	}
+
+	@Test
+	public void builderCreatesBudgetWithGivenLimits() {
+		final FormattingBudget budget = new FormattingBudget.Builder()
+				.setMaxCharacters(100)
+				.setMaxDepth(2)
+				.setMaxFieldsPerObject(10)
+				.buildFormattingBudget();
+
+		assertThat(budget.getMaxCharacters(), is(100));
+		assertThat(budget.getMaxDepth(), is(2));
+		assertThat(budget.getMaxFieldsPerObject(), is(10));
+	}
+
+	@Test
+	public void budgetWithALimitIsNotUnlimited() {
+		final FormattingBudget budget = new FormattingBudget.Builder().setMaxDepth(2).buildFormattingBudget();
+
+		assertThat(budget.isUnlimited(), is(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void builderDoesNotAcceptNegativeLimits() {
+		new FormattingBudget.Builder().setMaxCharacters(-1);
+	}
+}
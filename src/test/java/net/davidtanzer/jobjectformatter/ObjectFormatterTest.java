@@ -21,6 +21,11 @@ import org.junit.Test;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
 
 public class ObjectFormatterTest {
 	@Before
@@ -35,6 +40,42 @@ public class ObjectFormatterTest {
 		assertThat(formatted, is("{\"ExtendedObject\": {\"eFoo\": \"eFoo val\", \"eBar\": false}, \"SimpleObject\": {\"foo\": \"foo val\", \"bar\": 1}}"));
 	}
 
+	@Test
+	public void lazyDoesNotFormatTheObject_BeforeToStringIsCalled() {
+		final FormattedStringGenerator generator = mock(FormattedStringGenerator.class);
+		ObjectFormatter.configureGenerator(generator);
+
+		ObjectFormatter.lazy(new SimpleObject());
+
+		verifyZeroInteractions(generator);
+	}
+
+	@Test
+	public void lazyFormatsTheObjectOnlyOnce() {
+		final FormattedStringGenerator generator = mock(FormattedStringGenerator.class);
+		final SimpleObject object = new SimpleObject();
+		when(generator.format(object)).thenReturn("formatted");
+		ObjectFormatter.configureGenerator(generator);
+
+		final LazyFormattedObject lazy = ObjectFormatter.lazy(object);
+
+		assertThat(lazy.toString(), is("formatted"));
+		assertThat(lazy.toString(), is("formatted"));
+		verify(generator, times(1)).format(object);
+	}
+
+	@Test
+	public void lazyReturnsTheSameStringAsFormat() {
+		final ExtendedObject object = new ExtendedObject();
+
+		assertThat(ObjectFormatter.lazy(object).toString(), is(ObjectFormatter.format(object)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void lazyFails_ForNullObjects() {
+		ObjectFormatter.lazy(null);
+	}
+
 	private class SimpleObject {
 		String foo="foo val";
 		int bar=1;
@@ -0,0 +1,212 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter;
+
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedField;
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.formatter.ConfigurableObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.DisplayClassName;
+import net.davidtanzer.jobjectformatter.formatter.FormatGrouped;
+import net.davidtanzer.jobjectformatter.formatter.JsonObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.ObjectStringFormatter;
+import net.davidtanzer.jobjectformatter.formatter.SimpleFormatter;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ValueInfo;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class SpecializingFormattedStringGeneratorTest {
+	private final List<ObjectStringFormatter> builtInFormatters = Arrays.asList(
+			new SimpleFormatter(),
+			ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME,
+			ConfigurableObjectStringFormatter.UNGROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME);
+
+	@Test
+	public void doesNotSpecializeBeforeReachingTheInvocationThreshold() {
+		final SpecializingFormattedStringGenerator generator = new SpecializingFormattedStringGenerator(new SimpleFormatter(), 3);
+
+		generator.format(new Person());
+		generator.format(new Person());
+
+		assertThat(generator.isSpecialized(Person.class), is(false));
+	}
+
+	@Test
+	public void specializesAfterReachingTheInvocationThreshold() {
+		final SpecializingFormattedStringGenerator generator = new SpecializingFormattedStringGenerator(new SimpleFormatter(), 3);
+
+		generator.format(new Person());
+		generator.format(new Person());
+		generator.format(new Person());
+
+		assertThat(generator.isSpecialized(Person.class), is(true));
+	}
+
+	@Test
+	public void specializedOutputIsTheSameAsRegularOutputForAllVerbatimBuiltInFormatters() {
+		for(ObjectStringFormatter formatter : builtInFormatters) {
+			assertSpecializedOutputIsTheSameAsRegularOutput(formatter, new Person());
+		}
+	}
+
+	@Test
+	public void specializedOutputIsTheSameAsRegularOutput_ForTransitiveObjects() {
+		for(ObjectStringFormatter formatter : builtInFormatters) {
+			assertSpecializedOutputIsTheSameAsRegularOutput(formatter, new ObjectWithTransitiveObjects());
+		}
+	}
+
+	@Test
+	public void doesNotSpecialize_WhenTransitiveObjectsAreCompiledIntoNestedValues() {
+		for(ObjectStringFormatter formatter : builtInFormatters) {
+			final SpecializingFormattedStringGenerator generator = new SpecializingFormattedStringGenerator(formatter, 1);
+			final ObjectWithNestedTransitiveObjects object = new ObjectWithNestedTransitiveObjects();
+
+			generator.format(object);
+
+			assertThat(generator.isSpecialized(ObjectWithNestedTransitiveObjects.class), is(false));
+			assertThat(generator.format(object), is(new FormattedStringGenerator(formatter).format(object)));
+		}
+	}
+
+	@Test
+	public void specializedOutputIsTheSameAsRegularOutput_ForNullValues() {
+		final Person person = new Person();
+		person.firstName = null;
+		person.address = null;
+
+		for(ObjectStringFormatter formatter : builtInFormatters) {
+			assertSpecializedOutputIsTheSameAsRegularOutput(formatter, person);
+		}
+	}
+
+	@Test
+	public void doesNotSpecializeFormattersThatDoNotAppendValuesVerbatim() {
+		final SpecializingFormattedStringGenerator generator = new SpecializingFormattedStringGenerator(new UpperCaseFormatter(), 1);
+
+		generator.format(new Person());
+
+		assertThat(generator.isSpecialized(Person.class), is(false));
+	}
+
+	@Test
+	public void doesNotSpecializeSubclassesOfVerbatimBuiltInFormatters() {
+		final ObjectStringFormatter formatter = new SimpleFormatter() {
+			@Override
+			protected void appendSingleValue(final StringBuilder result, final ValueInfo value) {
+				final boolean secret = String.valueOf(value.getValue()).startsWith("secret");
+				result.append(value.getPropertyName()).append("=").append(secret ? "***" : value.getValue());
+			}
+		};
+		final SpecializingFormattedStringGenerator generator = new SpecializingFormattedStringGenerator(formatter, 1);
+
+		generator.format(new ObjectWithSecret("public"));
+
+		assertThat(generator.isSpecialized(ObjectWithSecret.class), is(false));
+		assertThat(generator.format(new ObjectWithSecret("secret value")), is("{ value=*** }"));
+	}
+
+	@Test
+	public void doesNotSpecializeTheJsonFormatter_BecauseItEscapesValues() {
+		final SpecializingFormattedStringGenerator generator = new SpecializingFormattedStringGenerator(new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.ALWAYS), 1);
+
+		generator.format(new Person());
+
+		assertThat(generator.isSpecialized(Person.class), is(false));
+		assertThat(generator.format(new Person()), is(new FormattedStringGenerator(new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.ALWAYS)).format(new Person())));
+	}
+
+	private void assertSpecializedOutputIsTheSameAsRegularOutput(final ObjectStringFormatter formatter, final Object object) {
+		final SpecializingFormattedStringGenerator specializingGenerator = new SpecializingFormattedStringGenerator(formatter, 1);
+		final FormattedStringGenerator regularGenerator = new FormattedStringGenerator(formatter);
+
+		specializingGenerator.format(object);
+		assertThat(specializingGenerator.isSpecialized(object.getClass()), is(true));
+
+		assertThat(specializingGenerator.format(object), is(regularGenerator.format(object)));
+	}
+
+	private static class Principal {
+		private String identification = "jdoe";
+		private long id = 42L;
+		private static String staticValue = "static";
+	}
+
+	private static class ObjectWithSecret {
+		private final String value;
+
+		private ObjectWithSecret(final String value) {
+			this.value = value;
+		}
+	}
+
+	private static class Person extends Principal {
+		private String firstName = "Jane";
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private String lastName = "Doe";
+		private int age = 33;
+		private char initial = 'J';
+		private byte rank = 2;
+		private double score = 1.5;
+		private boolean active = true;
+		private Address address = new Address();
+	}
+
+	private static class Address {
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private String street = "Evergreen Terrace";
+		private String streetNo = "12b";
+	}
+
+	@Formatted(FormattedInclude.ANNOTATED_FIELDS)
+	private static class ObjectWithTransitiveObjects {
+		@FormattedField
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		private String annotatedLeaf = "leaf";
+		@FormattedField
+		@Formatted(transitive = TransitiveInclude.ALL_FIELDS)
+		private Address all = new Address();
+		@FormattedField
+		private Address none = new Address();
+		private String notIncluded = "not included";
+	}
+
+	@Formatted(FormattedInclude.ANNOTATED_FIELDS)
+	private static class ObjectWithNestedTransitiveObjects {
+		private static final Address shared = new Address();
+		@FormattedField
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		private Address annotated = shared;
+		@FormattedField
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		private Address sharedReference = shared;
+	}
+
+	private static class UpperCaseFormatter implements ObjectStringFormatter {
+		@Override
+		public String format(final ObjectValuesInfo info) {
+			return String.valueOf(info.getAllValues()).toUpperCase();
+		}
+	}
+}
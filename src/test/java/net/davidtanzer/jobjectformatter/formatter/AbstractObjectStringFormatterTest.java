@@ -19,6 +19,8 @@ import net.davidtanzer.jobjectformatter.annotations.Formatted;
 import net.davidtanzer.jobjectformatter.annotations.FormattedField;
 import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
 import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import net.davidtanzer.jobjectformatter.typeinfo.ClassInfo;
+import net.davidtanzer.jobjectformatter.typeinfo.ClassNaming;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
 import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesCompiler;
@@ -27,14 +29,25 @@ import net.davidtanzer.jobjectformatter.valuesinfo.ValueInfo;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class AbstractObjectStringFormatterTest {
@@ -173,6 +186,241 @@ public class AbstractObjectStringFormatterTest {
 		assertThat(formattedString, containsString("containedObject={ foo=foo }"));
 	}
 
+	@Test
+	public void streamedOutputIsTheSameAsFormattedOutput() {
+		assertStreamedOutputIsTheSameAsFormattedOutput(ungroupedFormatter, new ContainingObject());
+	}
+
+	@Test
+	public void streamedOutputIsTheSameAsFormattedOutput_WhenGroupedByClass() {
+		assertStreamedOutputIsTheSameAsFormattedOutput(formatter, new ContainingObject());
+	}
+
+	@Test
+	public void streamsNestedValues_WhenFormatterStreamsNestedValues() {
+		final AbstractObjectStringFormatter formatterSpy = spy(new StreamingObjectStringFormatter());
+
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+		final StringBuilder result = new StringBuilder();
+		new ObjectValuesCompiler().compileTo(typeInfo, new ContainingObject(), formatterSpy.listenerFor(result));
+
+		verify(formatterSpy).startNestedValue(any(), eq("containedObject"), eq(ContainedObject.class));
+		verify(formatterSpy).endNestedValue(any(), eq("containedObject"), eq(ContainedObject.class));
+		assertThat(result.toString(), is("{ foobar=foobar value, containedObject=<{ foo=foo }> }"));
+	}
+
+	@Test
+	public void formatsNestedValuesIntoTheEnclosingResult_WhenFormatterStreamsNestedValues() {
+		final AbstractObjectStringFormatter formatterSpy = spy(new StreamingObjectStringFormatter());
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+
+		final String formatted = formatterSpy.format(new ObjectValuesCompiler().compileToStringInfo(typeInfo, new ContainingObject()));
+
+		verify(formatterSpy).startNestedValue(any(), eq("containedObject"), eq(ContainedObject.class));
+		verify(formatterSpy).endNestedValue(any(), eq("containedObject"), eq(ContainedObject.class));
+		assertThat(formatted, is("{ foobar=foobar value, containedObject=<{ foo=foo }> }"));
+	}
+
+	@Test
+	public void formatsNestedValuesSeparately_WhenFormatterDoesNotStreamNestedValues() {
+		final AbstractObjectStringFormatter formatterSpy = spy(formatter);
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+
+		final String formatted = formatterSpy.format(new ObjectValuesCompiler().compileToStringInfo(typeInfo, new ContainingObject()));
+
+		verify(formatterSpy, never()).startNestedValue(any(), any(), any());
+		assertThat(formatted, containsString("containedObject={ foo=foo }"));
+	}
+
+	@Test
+	public void formatUtf8WritesTheSameBytesAsFormat() throws IOException {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+		final ObjectValuesInfo info = new ObjectValuesCompiler().compileToStringInfo(typeInfo, new ContainingObject());
+		final ByteBuffer buffer = ByteBuffer.allocate(200);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		formatter.formatUtf8(info, buffer);
+		formatter.formatUtf8(info, out);
+
+		final byte[] expected = formatter.format(info).getBytes(StandardCharsets.UTF_8);
+		assertThat(Arrays.copyOf(buffer.array(), buffer.position()), is(expected));
+		assertThat(out.toByteArray(), is(expected));
+	}
+
+	@Test
+	public void precompiledLiteralSegmentsProduceTheSameOutput() {
+		for(AbstractObjectStringFormatter builtInFormatter : Arrays.asList(
+				new SimpleFormatter(),
+				ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME,
+				ConfigurableObjectStringFormatter.UNGROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME,
+				new JsonObjectStringFormatter(),
+				new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.ALWAYS))) {
+			assertStreamedOutputIsTheSameAsFormattedOutput(builtInFormatter, new ContainingObject());
+		}
+	}
+
+	@Test
+	public void compilesLiteralSegmentsOnlyOncePerClassInfo() {
+		final AbstractObjectStringFormatter formatterSpy = spy(new SimpleFormatter());
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+
+		new ObjectValuesCompiler().compileTo(typeInfo, new ContainingObject(), formatterSpy.listenerFor(new StringBuilder()));
+		new ObjectValuesCompiler().compileTo(typeInfo, new ContainingObject(), formatterSpy.listenerFor(new StringBuilder()));
+
+		verify(formatterSpy, times(1)).startNestedValue(any(), eq("foobar"), eq(String.class));
+	}
+
+	@Test
+	public void compilesLiteralSegmentsPerFormatterInstance() {
+		final ClassInfo classInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class).classInfos().get(0);
+		final AbstractObjectStringFormatter grouped = ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME;
+		final AbstractObjectStringFormatter ungrouped = ConfigurableObjectStringFormatter.UNGROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME;
+
+		assertThat(grouped.literalSegmentsFor(classInfo), is(sameInstance(grouped.literalSegmentsFor(classInfo))));
+		assertThat(ungrouped.literalSegmentsFor(classInfo), is(not(sameInstance(grouped.literalSegmentsFor(classInfo)))));
+	}
+
+	@Test
+	public void formatsWithAPlan_WithoutCallingTheHooks() {
+		final AbstractObjectStringFormatter formatterSpy = spy(new JsonObjectStringFormatter());
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+
+		new ObjectValuesCompiler().compileTo(typeInfo, new ContainingObject(), formatterSpy.listenerFor(new StringBuilder()));
+		new ObjectValuesCompiler().compileTo(typeInfo, new ContainingObject(), formatterSpy.listenerFor(new StringBuilder()));
+
+		verify(formatterSpy, times(1)).startFormattedString(any(), argThat(hasProperty("type", equalTo(ContainingObject.class))));
+		verify(formatterSpy, never()).appendSingleValue(any(), any(), any(), any());
+		verify(formatterSpy, times(2)).appendValue(any(), eq("foobar value"), eq(String.class));
+	}
+
+	@Test
+	public void appendsValuesUnchanged_WhenFormatterDoesNotOverrideAppendValue() {
+		final AbstractObjectStringFormatter formatter = new UngroupedObjectStringFormatter() {
+			@Override
+			protected boolean streamsNestedValues() {
+				return true;
+			}
+
+			@Override
+			protected void startNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {
+				result.append(propertyName).append("=");
+			}
+
+			@Override
+			protected boolean precompilesLiteralSegments() {
+				return true;
+			}
+		};
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+
+		final StringBuilder result = new StringBuilder();
+		new ObjectValuesCompiler().compileTo(typeInfo, new ContainingObject(), formatter.listenerFor(result));
+
+		assertThat(result.toString(), is("{ foobar=foobar value, containedObject={ foo=foo } }"));
+	}
+
+	@Test
+	public void compilesFormatPlanOnlyOncePerTypeInfo() {
+		final AbstractObjectStringFormatter formatter = new SimpleFormatter();
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+
+		assertThat(formatter.formatPlanFor(typeInfo, ContainingObject.class), is(sameInstance(formatter.formatPlanFor(typeInfo, ContainingObject.class))));
+	}
+
+	@Test
+	public void compilesFormatPlansPerTypeInfoCache() {
+		final AbstractObjectStringFormatter formatter = new SimpleFormatter();
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+		final TypeInfo typeInfoOfOtherCache = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+
+		final FormatPlan plan = formatter.formatPlanFor(typeInfo, ContainingObject.class);
+		final FormatPlan planOfOtherCache = formatter.formatPlanFor(typeInfoOfOtherCache, ContainingObject.class);
+
+		assertThat(planOfOtherCache, is(not(sameInstance(plan))));
+		assertThat(formatter.formatPlanFor(typeInfo, ContainingObject.class), is(sameInstance(plan)));
+		assertThat(formatter.formatPlanFor(typeInfoOfOtherCache, ContainingObject.class), is(sameInstance(planOfOtherCache)));
+		assertThat(formatter.literalSegmentsFor(typeInfo.classInfos().get(0)), is(sameInstance(plan.segmentsOfGroup(0))));
+	}
+
+	@Test
+	public void formatsValuesInfosWithAPlan_WithoutCallingTheHooks() {
+		final AbstractObjectStringFormatter formatterSpy = spy(new JsonObjectStringFormatter());
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+		final ObjectValuesInfo info = new ObjectValuesCompiler().compileToStringInfo(typeInfo, new ContainingObject());
+
+		formatterSpy.format(info);
+		formatterSpy.format(info);
+
+		verify(formatterSpy, times(1)).startFormattedString(any(), argThat(hasProperty("type", equalTo(ContainingObject.class))));
+		verify(formatterSpy, never()).appendSingleValue(any(), any(ValueInfo.class));
+		verify(formatterSpy, never()).appendSingleValue(any(), any(), any(), any());
+		verify(formatterSpy, times(2)).appendValue(any(), eq("foobar value"), eq(String.class));
+	}
+
+	@Test
+	public void plannedOutputIsTheSameAsTheOutputOfTheHooks() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+		final ObjectValuesInfo info = new ObjectValuesCompiler().compileToStringInfo(typeInfo, new ContainingObject());
+
+		assertThat(new SimpleFormatter().format(info), is(new SimpleFormatter() {
+			@Override
+			protected boolean precompilesLiteralSegments() {
+				return false;
+			}
+		}.format(info)));
+		assertThat(ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME.format(info), is(new ConfigurableObjectStringFormatter(
+				"", "", "}", ", ", "{", "}", "=\"", "\"", FormatGrouped.BY_CLASS, DisplayClassName.NEVER) {
+			@Override
+			protected boolean precompilesLiteralSegments() {
+				return false;
+			}
+		}.format(info)));
+		assertThat(new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.ALWAYS).format(info), is(new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.ALWAYS) {
+			@Override
+			protected boolean precompilesLiteralSegments() {
+				return false;
+			}
+		}.format(info)));
+	}
+
+	@Test
+	public void plannedOutputIsTheSameAsFormattedOutput_ForTruncatedObjects() {
+		final AbstractObjectStringFormatter formatter = ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME;
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObject.class);
+		final ObjectValuesCompiler compiler = new ObjectValuesCompiler(new TypeInfoCache(), 5, 1);
+
+		final StringBuilder result = new StringBuilder();
+		compiler.compileTo(typeInfo, new ContainingObject(), formatter.listenerFor(result));
+
+		assertThat(result.toString(), is(formatter.format(compiler.compileToStringInfo(typeInfo, new ContainingObject()))));
+		assertThat(result.toString(), containsString(ObjectValuesCompiler.TRUNCATION_MARKER));
+	}
+
+	@Test
+	public void plannedAndFormattedOutputUseTheDisplayNamesOfTheTypeInfoCache() {
+		final AbstractObjectStringFormatter formatter = ConfigurableObjectStringFormatter.GROUPED_CURLY_BRACED_OUTPUT_WITH_CLASS_NAME;
+		final TypeInfoCache typeInfoCache = new TypeInfoCache(true, ClassNaming.FULLY_QUALIFIED);
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(ContainingObject.class);
+		final ObjectValuesCompiler compiler = new ObjectValuesCompiler(typeInfoCache);
+
+		final StringBuilder result = new StringBuilder();
+		compiler.compileTo(typeInfo, new ContainingObject(), formatter.listenerFor(result));
+
+		assertThat(result.toString(), is(formatter.format(compiler.compileToStringInfo(typeInfo, new ContainingObject()))));
+		assertThat(result.toString(), containsString(ContainingObject.class.getName()));
+		assertThat(result.toString(), containsString(ContainedObject.class.getName()));
+	}
+
+	private void assertStreamedOutputIsTheSameAsFormattedOutput(final AbstractObjectStringFormatter formatter, final Object object) {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(object.getClass());
+		final ObjectValuesInfo info = new ObjectValuesCompiler().compileToStringInfo(typeInfo, object);
+
+		final StringBuilder result = new StringBuilder();
+		new ObjectValuesCompiler().compileTo(typeInfo, object, formatter.listenerFor(result));
+
+		assertThat(result.toString(), is(formatter.format(info)));
+	}
+
 	public class ContainedObject {
 		@FormattedField(transitive = FormattedFieldType.DEFAULT)
 		private String foo = "foo";
@@ -185,6 +433,23 @@ public class AbstractObjectStringFormatterTest {
 		private ContainedObject containedObject = new ContainedObject();
 	}
 
+	private class StreamingObjectStringFormatter extends UngroupedObjectStringFormatter {
+		@Override
+		protected boolean streamsNestedValues() {
+			return true;
+		}
+
+		@Override
+		protected void startNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {
+			result.append(propertyName).append("=<");
+		}
+
+		@Override
+		protected void endNestedValue(final StringBuilder result, final String propertyName, final Class<?> propertyType) {
+			result.append(">");
+		}
+	}
+
 	private class UngroupedObjectStringFormatter extends AbstractObjectStringFormatter {
 		public UngroupedObjectStringFormatter() {
 			super(FormatGrouped.NO);
@@ -17,14 +17,21 @@ package net.davidtanzer.jobjectformatter.formatter;
 
 import net.davidtanzer.jobjectformatter.valuesinfo.GroupedValuesInfo;
 import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesInfo;
+import net.davidtanzer.jobjectformatter.valuesinfo.ObjectValuesListener;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.Collections;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class JsonObjectStringFormatterTest {
@@ -38,7 +45,7 @@ public class JsonObjectStringFormatterTest {
 		final GroupedValuesInfo classInfo = new GroupedValuesInfo.Builder()
 				.setClassName("Foo")
 				.addFieldValue("foo", "foobar", String.class)
-				.addFieldValue("bar", "123", Integer.class)
+				.addFieldValue("bar", 123, Integer.class)
 				.buildGroupedValuesInfo();
 		final ObjectValuesInfo info = mock(ObjectValuesInfo.class);
 		when(info.getValuesByClass()).thenReturn(Arrays.asList(classInfo));
@@ -54,14 +61,114 @@ public class JsonObjectStringFormatterTest {
 		final GroupedValuesInfo classInfo = new GroupedValuesInfo.Builder()
 				.setClassName("Foo")
 				.addFieldValue("foo", "foobar", String.class)
-				.addFieldValue("bar", "123", Integer.class)
+				.addFieldValue("bar", 123, Integer.class)
 				.buildGroupedValuesInfo();
 		final ObjectValuesInfo info = mock(ObjectValuesInfo.class);
 		when(info.getAllValues()).thenReturn(classInfo.getValues());
 		when(info.getType()).thenReturn(Object.class);
+		when(info.getDisplayName()).thenReturn("Object");
 
 		String formattedString = formatter.format(info);
 
 		assertThat(formattedString, is("{\"class\": \"Object\", \"foo\": \"foobar\", \"bar\": 123}"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void escapesQuotesBackslashesAndControlCharacters() {
+		final JsonObjectStringFormatter formatter = new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.NEVER);
+		final ObjectValuesInfo info = objectWithValues(new GroupedValuesInfo.Builder()
+				.setClassName("Foo")
+				.addFieldValue("foo", "say \"hi\"\n\\o/", String.class)
+				.buildGroupedValuesInfo());
+
+		String formattedString = formatter.format(info);
+
+		assertThat(formattedString, is("{\"foo\": \"say \\\"hi\\\"\\n\\\\o/\"}"));
+	}
+
+	@Test
+	public void appendsNumbersBooleansAndNullNatively() {
+		final JsonObjectStringFormatter formatter = new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.NEVER);
+		final ObjectValuesInfo info = objectWithValues(new GroupedValuesInfo.Builder()
+				.setClassName("Foo")
+				.addFieldValue("long", 12345678901L, long.class)
+				.addFieldValue("byte", (byte) 7, Byte.class)
+				.addFieldValue("decimal", new BigDecimal("1.50"), BigDecimal.class)
+				.addFieldValue("flag", true, boolean.class)
+				.addFieldValue("missing", null, String.class)
+				.addFieldValue("character", 'c', char.class)
+				.buildGroupedValuesInfo());
+
+		String formattedString = formatter.format(info);
+
+		assertThat(formattedString, is("{\"long\": 12345678901, \"byte\": 7, \"decimal\": 1.50, \"flag\": true, \"missing\": null, \"character\": \"c\"}"));
+	}
+
+	@Test
+	public void appendsNestedObjectsNatively() {
+		final JsonObjectStringFormatter formatter = new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.NEVER);
+		final ObjectValuesInfo nested = objectWithValues(new GroupedValuesInfo.Builder()
+				.setClassName("Bar")
+				.addFieldValue("bar", "barValue", String.class)
+				.buildGroupedValuesInfo());
+		final ObjectValuesInfo info = objectWithValues(new GroupedValuesInfo.Builder()
+				.setClassName("Foo")
+				.addFieldValue("nested", nested, Object.class)
+				.buildGroupedValuesInfo());
+
+		String formattedString = formatter.format(info);
+
+		assertThat(formattedString, is("{\"nested\": {\"bar\": \"barValue\"}}"));
+	}
+
+	@Test
+	public void appendsNestedObjectsNatively_WhileStreaming() {
+		final JsonObjectStringFormatter formatter = new JsonObjectStringFormatter();
+		final StringBuilder result = new StringBuilder();
+		final ObjectValuesListener listener = formatter.listenerFor(result);
+
+		listener.startObject(Object.class);
+		listener.startGroup("Foo");
+		listener.value("foo", "a\tb", String.class);
+		listener.startNestedValue("nested", Object.class);
+		listener.startObject(Object.class);
+		listener.startGroup("Bar");
+		listener.value("bar", 1.5, double.class);
+		listener.endGroup();
+		listener.endObject(Object.class);
+		listener.endNestedValue("nested", Object.class);
+		listener.endGroup();
+		listener.endObject(Object.class);
+
+		assertThat(result.toString(), is("{\"Foo\": {\"foo\": \"a\\tb\", \"nested\": {\"Bar\": {\"bar\": 1.5}}}}"));
+	}
+
+	@Test
+	public void appendsNestedObjectsIntoTheEnclosingResult_WhenTheyArePassedAsValues() {
+		final JsonObjectStringFormatter formatter = spy(new JsonObjectStringFormatter(FormatGrouped.NO, DisplayClassName.NEVER));
+		final ObjectValuesInfo nested = objectWithValues(new GroupedValuesInfo.Builder()
+				.setClassName("Bar")
+				.addFieldValue("bar", "barValue", String.class)
+				.buildGroupedValuesInfo());
+		final StringBuilder result = new StringBuilder();
+		final ObjectValuesListener listener = formatter.listenerFor(result);
+
+		listener.startObject(Object.class);
+		listener.startGroup("Foo");
+		listener.value("nested", nested, Object.class);
+		listener.endGroup();
+		listener.endObject(Object.class);
+
+		assertThat(result.toString(), is("{\"nested\": {\"bar\": \"barValue\"}}"));
+		verify(formatter, never()).format(any(ObjectValuesInfo.class));
+	}
+
+	private ObjectValuesInfo objectWithValues(final GroupedValuesInfo values) {
+		final ObjectValuesInfo info = mock(ObjectValuesInfo.class);
+		when(info.getValuesByClass()).thenReturn(Collections.singletonList(values));
+		when(info.getAllValues()).thenReturn(values.getValues());
+		when(info.getType()).thenReturn(Object.class);
+		when(info.getDisplayName()).thenReturn("Object");
+		return info;
+	}
+}
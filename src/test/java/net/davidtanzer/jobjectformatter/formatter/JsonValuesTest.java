@@ -0,0 +1,85 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.formatter;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class JsonValuesTest {
+	@Test
+	public void appendsSafeStringsUnchanged() {
+		assertThat(appendedString("Evergreen Terrace 12b"), is("\"Evergreen Terrace 12b\""));
+	}
+
+	@Test
+	public void escapesQuotesAndBackslashes() {
+		assertThat(appendedString("a \"b\" c\\d"), is("\"a \\\"b\\\" c\\\\d\""));
+	}
+
+	@Test
+	public void escapesControlCharacters() {
+		assertThat(appendedString("\n\r\t\b\f\u0000\u001f"), is("\"\\n\\r\\t\\b\\f\\u0000\\u001f\""));
+	}
+
+	@Test
+	public void doesNotEscapeNonAsciiCharacters() {
+		assertThat(appendedString("Stra\u00dfe \u20ac"), is("\"Stra\u00dfe \u20ac\""));
+	}
+
+	@Test
+	public void appendsNumbersBooleansAndNullNatively() {
+		assertThat(appendedValue(42), is("42"));
+		assertThat(appendedValue(-7L), is("-7"));
+		assertThat(appendedValue((short) 3), is("3"));
+		assertThat(appendedValue(2.5d), is("2.5"));
+		assertThat(appendedValue(0.25f), is("0.25"));
+		assertThat(appendedValue(new BigInteger("123456789012345678901234567890")), is("123456789012345678901234567890"));
+		assertThat(appendedValue(new AtomicLong(5)), is("5"));
+		assertThat(appendedValue(false), is("false"));
+		assertThat(appendedValue(null), is("null"));
+	}
+
+	@Test
+	public void appendsNumbersWithoutJsonRepresentationAsStrings() {
+		assertThat(appendedValue(Double.NaN), is("\"NaN\""));
+		assertThat(appendedValue(Float.NEGATIVE_INFINITY), is("\"-Infinity\""));
+	}
+
+	@Test
+	public void appendsOtherValuesAsEscapedStrings() {
+		assertThat(appendedValue('"'), is("\"\\\"\""));
+		assertThat(appendedValue(Arrays.asList("a", "b")), is("\"[a, b]\""));
+		assertThat(appendedValue(new StringBuilder("x\ny")), is("\"x\\ny\""));
+	}
+
+	private String appendedString(final String value) {
+		final StringBuilder result = new StringBuilder();
+		JsonValues.appendString(result, value);
+		return result.toString();
+	}
+
+	private String appendedValue(final Object value) {
+		final StringBuilder result = new StringBuilder();
+		JsonValues.appendValue(result, value);
+		return result.toString();
+	}
+}
@@ -0,0 +1,91 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.formatter;
+
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class StringBuilderPoolTest {
+	@Test
+	public void reusesReleasedBuilders() {
+		drainSlotsOfThisThread();
+		final StringBuilder builder = StringBuilderPool.acquire(PooledObject.class);
+		StringBuilderPool.release(PooledObject.class, builder);
+
+		assertThat(StringBuilderPool.acquire(PooledObject.class), is(sameInstance(builder)));
+	}
+
+	@Test
+	public void releasedBuildersAreEmpty() {
+		drainSlotsOfThisThread();
+		final StringBuilder builder = StringBuilderPool.acquire(PooledObject.class);
+		builder.append("formatted value");
+		StringBuilderPool.release(PooledObject.class, builder);
+
+		assertThat(StringBuilderPool.acquire(PooledObject.class).length(), is(0));
+	}
+
+	@Test
+	public void doesNotRecycleVeryLargeBuilders() {
+		final StringBuilder builder = new StringBuilder(StringBuilderPool.MAX_RECYCLED_CAPACITY + 1);
+		StringBuilderPool.release(PooledObject.class, builder);
+
+		assertThat(StringBuilderPool.acquire(PooledObject.class), is(not(sameInstance(builder))));
+	}
+
+	@Test
+	public void estimatesLengthFromRunningAverageOfType() {
+		StringBuilderPool.release(EstimatedObject.class, new StringBuilder(repeat('x', 80)));
+		StringBuilderPool.release(EstimatedObject.class, new StringBuilder(repeat('x', 160)));
+
+		assertThat(StringBuilderPool.expectedLength(EstimatedObject.class), is((80 + 10) + (80 + 10) / 4));
+	}
+
+	@Test
+	public void sizesBuildersFromExpectedLengthOfType() {
+		StringBuilderPool.release(LargeObject.class, new StringBuilder(repeat('x', 4000)));
+
+		assertThat(StringBuilderPool.acquire(LargeObject.class).capacity(), is(greaterThanOrEqualTo(4000)));
+	}
+
+	private void drainSlotsOfThisThread() {
+		for(int i = 0; i < StringBuilderPool.PROBES; i++) {
+			StringBuilderPool.acquire(PooledObject.class);
+		}
+	}
+
+	private String repeat(final char c, final int count) {
+		final StringBuilder result = new StringBuilder();
+		for(int i = 0; i < count; i++) {
+			result.append(c);
+		}
+		return result.toString();
+	}
+
+	private static class PooledObject {
+	}
+
+	private static class EstimatedObject {
+	}
+
+	private static class LargeObject {
+	}
+}
@@ -0,0 +1,136 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.formatter;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class Utf8EncodingTest {
+	private final List<String> samples = Arrays.asList(
+			"",
+			"firstName=Jane, lastName=Doe",
+			"street=Hauptstra\u00DFe, city=Z\u00FCrich",
+			"name=\u6771\u4EAC, currency=\u20AC",
+			"emoji=\uD83D\uDE00, flag=\uD83C\uDDE6\uD83C\uDDF9",
+			"unpaired=\uD83D, reversed=\uDE00\uD83D, end=\uD83D");
+
+	@Test
+	public void encodesLikeStringGetBytes() {
+		for(String sample : samples) {
+			final ByteBuffer buffer = ByteBuffer.allocate(100);
+			Utf8Encoding.encode(sample, buffer);
+
+			assertThat(sample, writtenBytes(buffer), is(sample.getBytes(StandardCharsets.UTF_8)));
+			assertThat(sample, Utf8Encoding.encodedLength(sample), is(sample.getBytes(StandardCharsets.UTF_8).length));
+		}
+	}
+
+	@Test
+	public void encodesIntoBuffersWithoutArray() {
+		for(String sample : samples) {
+			final ByteBuffer buffer = ByteBuffer.allocateDirect(100);
+			Utf8Encoding.encode(sample, buffer);
+
+			assertThat(sample, writtenBytes(buffer), is(sample.getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+
+	@Test
+	public void throwsBufferOverflow_AndKeepsPosition_WhenBufferIsTooSmall() {
+		final ByteBuffer buffer = ByteBuffer.allocate(10);
+		buffer.put((byte) 'x');
+
+		try {
+			Utf8Encoding.encode("street=Hauptstra\u00DFe", buffer);
+			fail("Expected a BufferOverflowException");
+		} catch (BufferOverflowException e) {
+			assertThat(buffer.position(), is(1));
+		}
+	}
+
+	@Test
+	public void encodesToOutputStreamInChunks() throws IOException {
+		final StringBuilder longText = new StringBuilder();
+		for(int i = 0; i < 5000; i++) {
+			longText.append("value").append(i).append("=\u00FC\u20AC\uD83D\uDE00, ");
+		}
+		final ChunkRecordingStream out = new ChunkRecordingStream();
+
+		Utf8Encoding.encode(longText, out);
+
+		assertThat(out.toByteArray(), is(longText.toString().getBytes(StandardCharsets.UTF_8)));
+		assertThat(out.chunkLengths.size(), is(greaterThan(1)));
+		assertThat(out.chunkLengths, everyItem(is(lessThanOrEqualTo(8192))));
+	}
+
+	@Test
+	public void doesNotSplitSurrogatePairs_AtChunkBoundaries() throws IOException {
+		final StringBuilder text = new StringBuilder();
+		for(int i = 0; i < 3000; i++) {
+			text.append("\uD83D\uDE00");
+		}
+		for(int offset = 0; offset < 3; offset++) {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			Utf8Encoding.encode(text.substring(offset), out);
+
+			assertThat(out.toByteArray(), is(text.substring(offset).getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+
+	private byte[] writtenBytes(final ByteBuffer buffer) {
+		buffer.flip();
+		final byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	private static class ChunkRecordingStream extends OutputStream {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		private final List<Integer> chunkLengths = new ArrayList<>();
+
+		@Override
+		public void write(final int b) {
+			bytes.write(b);
+			chunkLengths.add(1);
+		}
+
+		@Override
+		public void write(final byte[] b, final int off, final int len) {
+			bytes.write(b, off, len);
+			chunkLengths.add(len);
+		}
+
+		private byte[] toByteArray() {
+			return bytes.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
+
+public class ClassNamingTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void simpleUsesTheSimpleName() {
+		assertThat(ClassNaming.SIMPLE.displayNameOf(Nested.class), is("Nested"));
+	}
+
+	@Test
+	public void simpleDerivesTheSimpleNameFromTheBinaryName_WhenTheEnclosingClassCannotBeLoaded() throws Exception {
+		final Class<?> type = loadWithoutEnclosingClass(Nested.class);
+
+		assertThat(ClassNaming.SIMPLE.displayNameOf(type), is("Nested"));
+		assertThat(ClassNaming.SIMPLE.displayNameOf(Array.newInstance(type, 0).getClass()), is("Nested[]"));
+	}
+
+	@Test
+	public void fullyQualifiedUsesTheBinaryName() {
+		assertThat(ClassNaming.FULLY_QUALIFIED.displayNameOf(Nested.class), is("net.davidtanzer.jobjectformatter.typeinfo.ClassNamingTest$Nested"));
+	}
+
+	@Test
+	public void abbreviatedPackageKeepsTheFirstLetterOfEveryPackage() {
+		assertThat(ClassNaming.ABBREVIATED_PACKAGE.displayNameOf(Nested.class), is("n.d.j.t.ClassNamingTest$Nested"));
+		assertThat(ClassNaming.ABBREVIATED_PACKAGE.displayNameOf(String.class), is("j.l.String"));
+	}
+
+	@Test
+	public void abbreviatedPackageKeepsNamesOfClassesWithoutPackage() {
+		assertThat(ClassNaming.ABBREVIATED_PACKAGE.displayNameOf(int.class), is("int"));
+	}
+
+	/*
+	 * Loads the class from a directory that only contains its class file, so the enclosing class is missing.
+	 */
+	private Class<?> loadWithoutEnclosingClass(final Class<?> type) throws IOException, ClassNotFoundException {
+		final String classFile = type.getName().replace('.', '/') + ".class";
+		final File classesDirectory = temporaryFolder.newFolder();
+		final File copiedClassFile = new File(classesDirectory, classFile);
+		assertThat(copiedClassFile.getParentFile().mkdirs(), is(true));
+		try(InputStream in = type.getClassLoader().getResourceAsStream(classFile)) {
+			Files.copy(in, copiedClassFile.toPath());
+		}
+
+		final Class<?> loadedType = new URLClassLoader(new URL[] { classesDirectory.toURI().toURL() }, null).loadClass(type.getName());
+		assumeThat(loadedType, is(not((Object) type)));
+		return loadedType;
+	}
+
+	private static class Nested {
+	}
+}
@@ -19,12 +19,15 @@ import net.davidtanzer.jobjectformatter.annotations.*;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.invoke.MethodHandles;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assume.assumeThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -112,6 +115,67 @@ public class FieldsFilterTest {
 		assertThat(fields.get(0), hasProperty("transitiveIncludeOfTarget", is(TransitiveInclude.ALL_FIELDS)));
 	}
 
+	@Test
+	public void getsFieldsDescribedByGeneratedFormatter() {
+		final GeneratedFormatter generatedFormatter = generatedFormatterDescribing(fields -> {
+			fields.add("foo", null, FormattedFieldType.DEFAULT, FormattedFieldType.NEVER);
+			fields.add("bar", null, FormattedFieldType.NEVER, FormattedFieldType.DEFAULT);
+		});
+
+		List<PropertyInfo> fields = fieldsFilter.getGeneratedFields(NoAnnotations.class, generatedFormatter, typeInfoCache);
+
+		assertThat(fields, contains(
+				allOf(hasProperty("name", is("foo")), hasProperty("includeField", is(FormattedFieldType.DEFAULT))),
+				allOf(hasProperty("name", is("bar")), hasProperty("includeFieldInTransitive", is(FormattedFieldType.DEFAULT)))
+		));
+	}
+
+	@Test
+	public void fieldsFromGeneratedFormatter_HaveTransitiveBehaviorFromGeneratedFormatter() {
+		when(typeInfoCache.transitiveIncludeFor(any())).thenReturn(TransitiveInclude.NO_FIELDS);
+		final GeneratedFormatter generatedFormatter = generatedFormatterDescribing(fields ->
+				fields.add("noAnnotations", TransitiveInclude.ALL_FIELDS, FormattedFieldType.DEFAULT, FormattedFieldType.NEVER));
+
+		List<PropertyInfo> fields = fieldsFilter.getGeneratedFields(NotTransitive.class, generatedFormatter, typeInfoCache);
+		assumeThat(fields.size(), is(1));
+
+		assertThat(fields.get(0), hasProperty("transitiveIncludeOfTarget", is(TransitiveInclude.ALL_FIELDS)));
+	}
+
+	@Test
+	public void fieldsFromGeneratedFormatterWithoutTransitiveBehavior_HaveTransitiveBehaviorDeterminedByTypeInfoCache() {
+		when(typeInfoCache.transitiveIncludeFor(any())).thenReturn(TransitiveInclude.ANNOTADED_FIELDS);
+		final GeneratedFormatter generatedFormatter = generatedFormatterDescribing(fields ->
+				fields.add("noAnnotations", null, FormattedFieldType.DEFAULT, FormattedFieldType.NEVER));
+
+		List<PropertyInfo> fields = fieldsFilter.getGeneratedFields(NotTransitive.class, generatedFormatter, typeInfoCache);
+		assumeThat(fields.size(), is(1));
+
+		assertThat(fields.get(0), hasProperty("transitiveIncludeOfTarget", is(TransitiveInclude.ANNOTADED_FIELDS)));
+	}
+
+	@Test
+	public void fieldsFromGeneratedFormatter_AreReadWithTheGetterOfTheGeneratedFormatter() {
+		final GeneratedFormatter generatedFormatter = generatedFormatterDescribing(fields ->
+				fields.add("bar", String.class, MethodHandles.dropArguments(MethodHandles.constant(String.class, "generated"), 0, Object.class),
+						null, FormattedFieldType.DEFAULT, FormattedFieldType.NEVER));
+
+		List<PropertyInfo> fields = fieldsFilter.getGeneratedFields(NoAnnotations.class, generatedFormatter, typeInfoCache);
+		assumeThat(fields.size(), is(1));
+
+		assertThat(fields.get(0).getType(), is((Object) String.class));
+		assertThat(fields.get(0).getPropertyValue(new NoAnnotations()), is((Object) "generated"));
+	}
+
+	private GeneratedFormatter generatedFormatterDescribing(final Consumer<GeneratedFormatter.Fields> fieldDescriptions) {
+		final GeneratedFormatter generatedFormatter = mock(GeneratedFormatter.class);
+		doAnswer(invocation -> {
+			fieldDescriptions.accept((GeneratedFormatter.Fields) invocation.getArguments()[0]);
+			return null;
+		}).when(generatedFormatter).describeFields(any());
+		return generatedFormatter;
+	}
+
 	private class NoAnnotations {
 		private int foo;
 		private String bar;
@@ -0,0 +1,93 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+
+public class FormattedConfigurationTest {
+	@Test
+	public void readsConfigurationFromClassAnnotation() {
+		final FormattedConfiguration configuration = FormattedConfiguration.of(AnnotatedClass.class);
+
+		assertThat(configuration.isFormatted(), is(true));
+		assertThat(configuration.getFormattedInclude(), is(FormattedInclude.ANNOTATED_FIELDS));
+		assertThat(configuration.getTransitiveInclude(), is(TransitiveInclude.ALL_FIELDS));
+	}
+
+	@Test
+	public void readsConfigurationFromAnnotatedToString() {
+		final FormattedConfiguration configuration = FormattedConfiguration.of(AnnotatedToString.class);
+
+		assertThat(configuration.isFormatted(), is(true));
+		assertThat(configuration.getFormattedInclude(), is(FormattedInclude.NO_FIELDS));
+		assertThat(configuration.getTransitiveInclude(), is(TransitiveInclude.ANNOTADED_FIELDS));
+	}
+
+	@Test
+	public void classAnnotationIsMoreImportantThanAnnotatedToString() {
+		final FormattedConfiguration configuration = FormattedConfiguration.of(AnnotatedBoth.class);
+
+		assertThat(configuration.getFormattedInclude(), is(FormattedInclude.ANNOTATED_FIELDS));
+	}
+
+	@Test
+	public void usesDefaultConfigurationForUnannotatedClass() {
+		final FormattedConfiguration configuration = FormattedConfiguration.of(UnannotatedClass.class);
+
+		assertThat(configuration.isFormatted(), is(false));
+		assertThat(configuration.getFormatted(), is(nullValue()));
+		assertThat(configuration.getFormattedInclude(), is(FormattedInclude.ALL_FIELDS));
+		assertThat(configuration.getTransitiveInclude(), is(TransitiveInclude.NO_FIELDS));
+	}
+
+	@Test
+	public void usesDefaultConfigurationForTypesWithoutToString() {
+		assertThat(FormattedConfiguration.of(Runnable.class).isFormatted(), is(false));
+		assertThat(FormattedConfiguration.of(int.class).isFormatted(), is(false));
+	}
+
+	@Test
+	public void resolvesConfigurationOnlyOncePerClass() {
+		assertSame(FormattedConfiguration.of(AnnotatedClass.class), FormattedConfiguration.of(AnnotatedClass.class));
+	}
+
+	@Formatted(value = FormattedInclude.ANNOTATED_FIELDS, transitive = TransitiveInclude.ALL_FIELDS)
+	private static class AnnotatedClass {
+	}
+
+	private static class AnnotatedToString {
+		@Override
+		@Formatted(value = FormattedInclude.NO_FIELDS, transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		public String toString() {
+			return super.toString();
+		}
+	}
+
+	@Formatted(FormattedInclude.ANNOTATED_FIELDS)
+	private static class AnnotatedBoth extends AnnotatedToString {
+	}
+
+	private static class UnannotatedClass {
+	}
+}
@@ -0,0 +1,251 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class FormattedIndexTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void readsFormattingConfigurationFromIndex() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class,
+				"type " + IndexedObject.class.getName() + " true ANNOTATED_FIELDS ALL_FIELDS");
+
+		final FormattedIndex.Entry entry = FormattedIndex.entryFor(type);
+
+		assertThat(entry.isFormatted(), is(true));
+		assertThat(entry.formattedInclude(), is(FormattedInclude.ANNOTATED_FIELDS));
+		assertThat(entry.transitiveInclude(), is(TransitiveInclude.ALL_FIELDS));
+	}
+
+	@Test
+	public void describesIndexedFieldsInIndexOrder() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class,
+				"# comment",
+				"type " + IndexedObject.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"field second ANNOTADED_FIELDS DEFAULT NEVER",
+				"field first - NEVER DEFAULT");
+
+		final List<String> fields = new ArrayList<>();
+		FormattedIndex.entryFor(type).describeFields((name, transitiveIncludeOfTarget, includeField, includeFieldInTransitive) ->
+				fields.add(name + " " + transitiveIncludeOfTarget + " " + includeField + " " + includeFieldInTransitive));
+
+		assertThat(fields, contains("second ANNOTADED_FIELDS DEFAULT NEVER", "first null NEVER DEFAULT"));
+	}
+
+	@Test
+	public void readsNameOfGeneratedFormatterFromIndex() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class,
+				"type " + IndexedObject.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"formatter " + IndexedObject.class.getName() + "$Formatter");
+
+		assertThat(FormattedIndex.entryFor(type).formatterClassName(), is(IndexedObject.class.getName() + "$Formatter"));
+	}
+
+	@Test
+	public void returnsNullForTypesThatAreNotIndexed() {
+		assertThat(FormattedIndex.entryFor(IndexedObject.class), is(nullValue()));
+		assertThat(FormattedIndex.entryFor(String.class), is(nullValue()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void failsForMalformedIndex() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class, "type " + IndexedObject.class.getName() + " true NOT_AN_INCLUDE ALL_FIELDS");
+
+		FormattedIndex.entryFor(type);
+	}
+
+	@Test
+	public void indexedTypesGetTheirFormattedConfigurationFromIndex() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class,
+				"type " + IndexedObject.class.getName() + " true NO_FIELDS ANNOTADED_FIELDS");
+
+		final FormattedConfiguration configuration = FormattedConfiguration.of(type);
+
+		assertThat(configuration.isFormatted(), is(true));
+		assertThat(configuration.getFormattedInclude(), is(FormattedInclude.NO_FIELDS));
+		assertThat(configuration.getTransitiveInclude(), is(TransitiveInclude.ANNOTADED_FIELDS));
+	}
+
+	@Test
+	public void configurationFromAnnotationsIgnoresTheIndex() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class,
+				"type " + IndexedObject.class.getName() + " true NO_FIELDS ANNOTADED_FIELDS");
+
+		final FormattedConfiguration configuration = FormattedConfiguration.ofAnnotations(type);
+
+		assertThat(configuration.isFormatted(), is(false));
+		assertThat(configuration.getFormattedInclude(), is(FormattedInclude.ALL_FIELDS));
+		assertThat(configuration.getTransitiveInclude(), is(TransitiveInclude.NO_FIELDS));
+	}
+
+	@Test
+	public void indexedTypesGetTheirGeneratedFormatterFromIndex() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class,
+				"type " + IndexedObject.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"field first - " + FormattedFieldType.DEFAULT + " " + FormattedFieldType.NEVER,
+				"field second - " + FormattedFieldType.NEVER + " " + FormattedFieldType.NEVER);
+
+		assertThat(GeneratedFormatters.generatedFormatterFor(type), is(instanceOf(FormattedIndex.Entry.class)));
+	}
+
+	@Test
+	public void ignoresIndexEntriesThatDescribeFieldsThatDoNotExist() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class,
+				"type " + IndexedObject.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"field renamed - " + FormattedFieldType.DEFAULT + " " + FormattedFieldType.NEVER);
+
+		assertThat(GeneratedFormatters.generatedFormatterFor(type), is(nullValue()));
+	}
+
+	@Test
+	public void ignoresIndexEntries_ThatDoNotDescribeAllFields() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class,
+				"type " + IndexedObject.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"field first - " + FormattedFieldType.DEFAULT + " " + FormattedFieldType.NEVER);
+
+		assertThat(GeneratedFormatters.generatedFormatterFor(type), is(nullValue()));
+	}
+
+	@Test
+	public void ignoresGeneratedFormatters_ThatDescribeFieldsWithAnotherType() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObjectWithRetypedField.class,
+				"type " + IndexedObjectWithRetypedField.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"formatter " + IndexedObjectWithRetypedField.Formatter.class.getName(),
+				"field first - " + FormattedFieldType.DEFAULT + " " + FormattedFieldType.NEVER);
+
+		assertThat(GeneratedFormatters.generatedFormatterFor(type), is(nullValue()));
+	}
+
+	@Test
+	public void indexedTypesGetTheGeneratedFormatterClassFromIndex() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObjectWithFormatter.class,
+				"type " + IndexedObjectWithFormatter.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"formatter " + IndexedObjectWithFormatter.Formatter.class.getName(),
+				"field first - " + FormattedFieldType.DEFAULT + " " + FormattedFieldType.NEVER);
+
+		assertThat(GeneratedFormatters.generatedFormatterFor(type).getClass().getName(), is(IndexedObjectWithFormatter.Formatter.class.getName()));
+	}
+
+	@Test
+	public void fallsBackToIndexEntry_WhenTheGeneratedFormatterClassCannotBeLoaded() throws Exception {
+		final Class<?> type = loadWithIndex(IndexedObject.class,
+				"type " + IndexedObject.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"formatter " + IndexedObject.class.getName() + "$Missing",
+				"field first - " + FormattedFieldType.DEFAULT + " " + FormattedFieldType.NEVER,
+				"field second - " + FormattedFieldType.NEVER + " " + FormattedFieldType.NEVER);
+
+		assertThat(GeneratedFormatters.generatedFormatterFor(type), is(instanceOf(FormattedIndex.Entry.class)));
+	}
+
+	/*
+	 * The type (and its nested classes) are loaded by a new class loader that sees the index, but generated formatters
+	 * must still implement the GeneratedFormatter interface of this class loader.
+	 */
+	private Class<?> loadWithIndex(final Class<?> type, final String... indexLines) throws IOException, ClassNotFoundException {
+		final File indexDirectory = temporaryFolder.newFolder();
+		final File indexFile = new File(indexDirectory, FormattedIndex.INDEX_RESOURCE);
+		assertThat(indexFile.getParentFile().mkdirs(), is(true));
+		Files.write(indexFile.toPath(), String.join("\n", indexLines).getBytes(StandardCharsets.UTF_8));
+
+		final URL testClasses = getClass().getProtectionDomain().getCodeSource().getLocation();
+		final URLClassLoader classLoader = new URLClassLoader(new URL[] { indexDirectory.toURI().toURL(), testClasses }, getClass().getClassLoader()) {
+			@Override
+			protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+				if(!name.startsWith(type.getName())) {
+					return super.loadClass(name, resolve);
+				}
+				synchronized(getClassLoadingLock(name)) {
+					final Class<?> loadedClass = findLoadedClass(name);
+					return loadedClass != null ? loadedClass : findClass(name);
+				}
+			}
+		};
+		return classLoader.loadClass(type.getName());
+	}
+
+	private static class IndexedObject {
+		private String first;
+		private String second;
+	}
+
+	static class IndexedObjectWithFormatter {
+		private String first;
+
+		public static class Formatter implements GeneratedFormatter {
+			@Override
+			public FormattedInclude formattedInclude() {
+				return FormattedInclude.ALL_FIELDS;
+			}
+
+			@Override
+			public TransitiveInclude transitiveInclude() {
+				return TransitiveInclude.NO_FIELDS;
+			}
+
+			@Override
+			public void describeFields(final Fields fields) {
+				fields.add("first", String.class, MethodHandles.dropArguments(MethodHandles.constant(String.class, "generated"), 0, Object.class),
+						null, FormattedFieldType.DEFAULT, FormattedFieldType.NEVER);
+			}
+		}
+	}
+
+	static class IndexedObjectWithRetypedField {
+		private String first;
+
+		public static class Formatter implements GeneratedFormatter {
+			@Override
+			public FormattedInclude formattedInclude() {
+				return FormattedInclude.ALL_FIELDS;
+			}
+
+			@Override
+			public TransitiveInclude transitiveInclude() {
+				return TransitiveInclude.NO_FIELDS;
+			}
+
+			@Override
+			public void describeFields(final Fields fields) {
+				fields.add("first", int.class, MethodHandles.dropArguments(MethodHandles.constant(int.class, 1), 0, Object.class),
+						null, FormattedFieldType.DEFAULT, FormattedFieldType.NEVER);
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LeafTypesTest {
+	@Test
+	public void primitivesAndTheirWrappersAreLeafTypes() {
+		assertThat(LeafTypes.isLeafType(int.class), is(true));
+		assertThat(LeafTypes.isLeafType(byte.class), is(true));
+		assertThat(LeafTypes.isLeafType(char.class), is(true));
+		assertThat(LeafTypes.isLeafType(Integer.class), is(true));
+		assertThat(LeafTypes.isLeafType(Long.class), is(true));
+	}
+
+	@Test
+	public void stringsAreLeafTypes() {
+		assertThat(LeafTypes.isLeafType(String.class), is(true));
+	}
+
+	@Test
+	public void enumsAreLeafTypes() {
+		assertThat(LeafTypes.isLeafType(SomeEnum.class), is(true));
+	}
+
+	@Test
+	public void enumConstantsWithABodyAreLeafTypes() {
+		assertThat(LeafTypes.isLeafType(SomeEnum.WITH_BODY.getClass()), is(true));
+	}
+
+	@Test
+	public void typesFromJavaPackagesAreLeafTypes() {
+		assertThat(LeafTypes.isLeafType(LocalDate.class), is(true));
+		assertThat(LeafTypes.isLeafType(UUID.class), is(true));
+		assertThat(LeafTypes.isLeafType(BigDecimal.class), is(true));
+	}
+
+	@Test
+	public void otherTypesAreNotLeafTypes() {
+		assertThat(LeafTypes.isLeafType(NotALeaf.class), is(false));
+	}
+
+	@Test
+	public void registeredTypesAreLeafTypes() {
+		assertThat(LeafTypes.isLeafType(RegisteredLeaf.class), is(false));
+
+		LeafTypes.registerLeafType(RegisteredLeaf.class);
+
+		assertThat(LeafTypes.isLeafType(RegisteredLeaf.class), is(true));
+	}
+
+	private enum SomeEnum {
+		PLAIN,
+		WITH_BODY {
+			@Override
+			public String toString() {
+				return "with body";
+			}
+		}
+	}
+
+	private class NotALeaf {
+	}
+
+	private class RegisteredLeaf {
+	}
+}
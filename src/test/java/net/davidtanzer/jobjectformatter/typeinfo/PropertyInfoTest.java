@@ -0,0 +1,91 @@
+/*
+   Copyright 2015 David Tanzer (business@davidtanzer.net / @dtanzer)
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package net.davidtanzer.jobjectformatter.typeinfo;
+
+import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
+import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PropertyInfoTest {
+	private final ObjectWithProperties object = new ObjectWithProperties();
+
+	@Test
+	public void getsPropertyValueOfObjectProperty() throws NoSuchFieldException {
+		final PropertyInfo propertyInfo = propertyInfoFor("string");
+
+		assertThat(propertyInfo.getPropertyValue(object), is((Object) "string val"));
+	}
+
+	@Test
+	public void getsBoxedPropertyValueOfPrimitiveProperty() throws NoSuchFieldException {
+		final PropertyInfo propertyInfo = propertyInfoFor("intValue");
+
+		assertThat(propertyInfo.getPropertyValue(object), is((Object) 42));
+	}
+
+	@Test
+	public void getsPrimitivePropertyValuesWithTypedGetters() throws NoSuchFieldException {
+		assertThat(propertyInfoFor("booleanValue").getBoolean(object), is(true));
+		assertThat(propertyInfoFor("byteValue").getByte(object), is((byte) 1));
+		assertThat(propertyInfoFor("charValue").getChar(object), is('c'));
+		assertThat(propertyInfoFor("shortValue").getShort(object), is((short) 2));
+		assertThat(propertyInfoFor("intValue").getInt(object), is(42));
+		assertThat(propertyInfoFor("longValue").getLong(object), is(43L));
+		assertThat(propertyInfoFor("floatValue").getFloat(object), is(1.5f));
+		assertThat(propertyInfoFor("doubleValue").getDouble(object), is(2.5));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void typedGetterThrowsException_WhenPropertyHasAnotherType() throws NoSuchFieldException {
+		propertyInfoFor("longValue").getInt(object);
+	}
+
+	@Test
+	public void getsPropertyValueOfPrivateProperty() throws NoSuchFieldException {
+		final PropertyInfo propertyInfo = propertyInfoFor("privateString");
+
+		assertThat(propertyInfo.getPropertyValue(object), is((Object) "private val"));
+	}
+
+	@Test
+	public void getsPropertyValueOfStaticProperty() throws NoSuchFieldException {
+		final PropertyInfo propertyInfo = propertyInfoFor("staticString");
+
+		assertThat(propertyInfo.getPropertyValue(object), is((Object) "static val"));
+	}
+
+	private PropertyInfo propertyInfoFor(final String fieldName) throws NoSuchFieldException {
+		return new PropertyInfo(ObjectWithProperties.class.getDeclaredField(fieldName), TransitiveInclude.ALL_FIELDS, FormattedFieldType.DEFAULT, FormattedFieldType.NEVER);
+	}
+
+	private static class ObjectWithProperties {
+		private static String staticString = "static val";
+
+		String string = "string val";
+		private String privateString = "private val";
+		boolean booleanValue = true;
+		byte byteValue = 1;
+		char charValue = 'c';
+		short shortValue = 2;
+		int intValue = 42;
+		long longValue = 43L;
+		float floatValue = 1.5f;
+		double doubleValue = 2.5;
+	}
+}
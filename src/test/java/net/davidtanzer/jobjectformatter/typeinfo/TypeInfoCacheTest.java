@@ -16,12 +16,25 @@
 package net.davidtanzer.jobjectformatter.typeinfo;
 
 import net.davidtanzer.jobjectformatter.annotations.Formatted;
+import net.davidtanzer.jobjectformatter.annotations.FormattedField;
 import net.davidtanzer.jobjectformatter.annotations.FormattedFieldType;
 import net.davidtanzer.jobjectformatter.annotations.FormattedInclude;
 import net.davidtanzer.jobjectformatter.annotations.TransitiveInclude;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
-
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -29,9 +42,15 @@ import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 import static org.junit.Assume.assumeThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TypeInfoCacheTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	private TypeInfoCache typeInfoCache;
 
 	@Before
@@ -122,6 +141,34 @@ public class TypeInfoCacheTest {
 		));
 	}
 
+	@Test
+	public void classInfoHoldsOnlyTheIncludedFieldsForEveryFormattedInclude() {
+		final ClassInfo classInfo = typeInfoCache.typeInfoFor(ObjectWithAnnotatedFields.class).classInfos().get(0);
+
+		assertThat(classInfo.includedFieldInfos(FormattedInclude.ALL_FIELDS), containsInAnyOrder(
+				hasProperty("name", is("annotated")),
+				hasProperty("name", is("annotatedTransitive")),
+				hasProperty("name", is("notAnnotated"))));
+		assertThat(classInfo.includedFieldInfos(FormattedInclude.ANNOTATED_FIELDS), containsInAnyOrder(
+				hasProperty("name", is("annotated")),
+				hasProperty("name", is("annotatedTransitive"))));
+		assertThat(classInfo.includedFieldInfos(FormattedInclude.NO_FIELDS), is(empty()));
+	}
+
+	@Test
+	public void classInfoHoldsOnlyTheFieldsIncludedInTransitiveObjects() {
+		final ClassInfo classInfo = typeInfoCache.typeInfoFor(ObjectWithAnnotatedFields.class).classInfos().get(0);
+
+		assertThat(classInfo.includedFieldInfosInTransitive(FormattedInclude.ALL_FIELDS), contains(hasProperty("name", is("annotatedTransitive"))));
+		assertThat(classInfo.includedFieldInfosInTransitive(FormattedInclude.NO_FIELDS), is(empty()));
+	}
+
+	@Test
+	public void typeInfoKnowsWhetherTransitiveObjectsHaveValues() {
+		assertThat(typeInfoCache.typeInfoFor(ObjectWithAnnotatedFields.class).includesFieldsInTransitive(), is(true));
+		assertThat(typeInfoCache.typeInfoFor(ExtendedObject.class).includesFieldsInTransitive(), is(false));
+	}
+
 	@Test
 	public void transitiveIncludeForUnannotatedClassIsDisallowed() {
 		final TransitiveInclude transitiveInclude = typeInfoCache.transitiveIncludeFor(SimpleObject.class);
@@ -150,6 +197,312 @@ public class TypeInfoCacheTest {
 		assertThat(transitiveInclude, is(TransitiveInclude.NO_FIELDS));
 	}
 
+	@Test
+	public void usesGeneratedFormatterForClassInfoWhenAvailable() throws Exception {
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(loadWithIndexEntry(ObjectWithGeneratedFormatter.class));
+
+		assertThat(typeInfo.classInfos().get(0).fieldInfos(), contains(
+				allOf(hasProperty("name", is("included")), hasProperty("includeField", is(FormattedFieldType.DEFAULT))),
+				allOf(hasProperty("name", is("notIncluded")), hasProperty("includeField", is(FormattedFieldType.NEVER)))
+		));
+	}
+
+	@Test
+	public void usesConfigurationFromGeneratedFormatterWhenAvailable() throws Exception {
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(loadWithIndexEntry(ObjectWithGeneratedFormatter.class));
+
+		assertThat(typeInfo.getFormattedInclude(), is(FormattedInclude.ANNOTATED_FIELDS));
+		assertThat(typeInfo.getTransitiveInclude(), is(TransitiveInclude.ANNOTADED_FIELDS));
+	}
+
+	@Test
+	public void ignoresGeneratedFormattersWhenConfiguredToDoSo() throws Exception {
+		typeInfoCache = new TypeInfoCache(false);
+
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(loadWithIndexEntry(ObjectWithGeneratedFormatter.class));
+
+		assertThat(typeInfo.getFormattedInclude(), is(FormattedInclude.ALL_FIELDS));
+		assertThat(typeInfo.classInfos().get(0).fieldInfos(), containsInAnyOrder(
+				hasProperty("name", is("included")),
+				hasProperty("name", is("notIncluded"))
+		));
+	}
+
+	@Test
+	public void doesNotLookForGeneratedFormatterClassesOfTypesThatAreNotIndexed() {
+		assertThat(typeInfoCache.generatedFormatterFor(ObjectWithFormatterClass.class), is(nullValue()));
+	}
+
+	@Test
+	public void readsFieldsWithGeneratedFormatterClass_WhenItIsIndexed() throws Exception {
+		final Class<?> type = loadWithIndex(ObjectWithFormatterClass.class,
+				"type " + ObjectWithFormatterClass.class.getName() + " false ALL_FIELDS NO_FIELDS",
+				"formatter " + ObjectWithFormatterClass.Formatter.class.getName(),
+				"field described - DEFAULT NEVER");
+		final Constructor<?> constructor = type.getDeclaredConstructor();
+		constructor.setAccessible(true);
+
+		final PropertyInfo propertyInfo = typeInfoCache.typeInfoFor(type).classInfos().get(0).fieldInfos().get(0);
+
+		assertThat(propertyInfo.getPropertyValue(constructor.newInstance()), is((Object) "generated"));
+	}
+
+	@Test
+	public void typeInfoAndClassInfosUseSimpleDisplayNamesByDefault() {
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(ExtendedObject.class);
+
+		assertThat(typeInfo.getDisplayName(), is("ExtendedObject"));
+		assertThat(typeInfo.classInfos(), contains(
+				hasProperty("displayName", is("ExtendedObject")),
+				hasProperty("displayName", is("SimpleObject"))));
+	}
+
+	@Test
+	public void typeInfoAndClassInfosUseDisplayNamesFromTheConfiguredClassNaming() {
+		typeInfoCache = new TypeInfoCache(true, ClassNaming.ABBREVIATED_PACKAGE);
+
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(ExtendedObject.class);
+
+		assertThat(typeInfo.getDisplayName(), is("n.d.j.t.TypeInfoCacheTest$ExtendedObject"));
+		assertThat(typeInfo.classInfos(), contains(
+				hasProperty("displayName", is("n.d.j.t.TypeInfoCacheTest$ExtendedObject")),
+				hasProperty("displayName", is("n.d.j.t.TypeInfoCacheTest$SimpleObject"))));
+	}
+
+	@Test
+	public void sharedCacheIsTheSameForEveryCall() {
+		assertSame(TypeInfoCache.shared(), TypeInfoCache.shared());
+	}
+
+	@Test
+	public void replacedSharedCacheIsUsedUntilTheScopeIsClosed() {
+		final TypeInfoCache.SharedCacheScope scope = TypeInfoCache.replaceSharedCache(typeInfoCache);
+		try {
+			assertSame(typeInfoCache, TypeInfoCache.shared());
+		} finally {
+			scope.close();
+		}
+		assertNotSame(typeInfoCache, TypeInfoCache.shared());
+	}
+
+	@Test
+	public void closingTheScopeRestoresThePreviousSharedCache() {
+		final TypeInfoCache previousCache = TypeInfoCache.shared();
+
+		TypeInfoCache.replaceSharedCache(typeInfoCache).close();
+
+		assertSame(previousCache, TypeInfoCache.shared());
+	}
+
+	@Test
+	public void doesNotPreventClassLoadersFromBeingCollected() throws Exception {
+		final WeakReference<ClassLoader> classLoader = createTypeInfoFromDiscardedClassLoader();
+
+		for(int i=0; i<20 && classLoader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertThat(classLoader.get(), is(nullValue()));
+	}
+
+	@Test
+	public void typeIsFormattedWhenClassOrToStringIsAnnotated() {
+		assertThat(typeInfoCache.isFormatted(TransitiveAnnotatedBoth.class), is(true));
+		assertThat(typeInfoCache.isFormatted(TransitiveAnnotatedToString.class), is(true));
+		assertThat(typeInfoCache.isFormatted(SimpleObject.class), is(false));
+	}
+
+	@Test
+	public void returnsTheSameTypeInfoForTheSameTransitiveInclude() {
+		for(TransitiveInclude transitiveInclude : TransitiveInclude.values()) {
+			final TypeInfo typeInfo = typeInfoCache.typeInfoFor(ExtendedObject.class, transitiveInclude);
+
+			assertThat(typeInfo.getTransitiveInclude(), is(transitiveInclude));
+			assertSame(typeInfo, typeInfoCache.typeInfoFor(ExtendedObject.class, transitiveInclude));
+		}
+		assertSame(typeInfoCache.typeInfoFor(ExtendedObject.class), typeInfoCache.typeInfoFor(ExtendedObject.class, TransitiveInclude.NO_FIELDS));
+	}
+
+	@Test
+	public void typeInfoForTransitiveIncludeKeepsTheConfigurationOfTheType() {
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(TransitiveAnnotatedBoth.class);
+		final TypeInfo variant = typeInfoCache.typeInfoFor(TransitiveAnnotatedBoth.class, TransitiveInclude.ALL_FIELDS);
+
+		assertThat(variant.getFormattedInclude(), is(typeInfo.getFormattedInclude()));
+		assertSame(typeInfo.classInfos(), variant.classInfos());
+	}
+
+	@Test
+	public void typeInfoForTransitiveIncludeDoesNotAllocate() {
+		final java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+		assumeThat(threadMXBean instanceof com.sun.management.ThreadMXBean, is(true));
+		final com.sun.management.ThreadMXBean allocationCounter = (com.sun.management.ThreadMXBean) threadMXBean;
+		assumeThat(allocationCounter.isThreadAllocatedMemorySupported() && allocationCounter.isThreadAllocatedMemoryEnabled(), is(true));
+
+		final TransitiveInclude[] transitiveIncludes = TransitiveInclude.values();
+		final int lookups = 100000;
+		final Runnable lookupAllVariants = () -> {
+			for(int i=0; i<lookups; i++) {
+				typeInfoCache.typeInfoFor(ExtendedObject.class, transitiveIncludes[i % transitiveIncludes.length]);
+			}
+		};
+		final Runnable doNothing = () -> {};
+
+		//Warm up, so allocations of the interpreter and the JIT compiler do not land in the measurement
+		for(int i=0; i<5; i++) {
+			allocatedBytesOf(allocationCounter, lookupAllVariants);
+			allocatedBytesOf(allocationCounter, doNothing);
+		}
+		final long allocated = allocatedBytesOf(allocationCounter, lookupAllVariants) - allocatedBytesOf(allocationCounter, doNothing);
+
+		assertThat((double) allocated / lookups, is(lessThan(1.0)));
+	}
+
+	private long allocatedBytesOf(final com.sun.management.ThreadMXBean allocationCounter, final Runnable runnable) {
+		final long threadId = Thread.currentThread().getId();
+		final long allocatedBefore = allocationCounter.getThreadAllocatedBytes(threadId);
+		runnable.run();
+		return allocationCounter.getThreadAllocatedBytes(threadId) - allocatedBefore;
+	}
+
+	@Test
+	public void sharesClassInfosOfSuperClassesBetweenTypeInfos() {
+		final TypeInfo extendedTypeInfo = typeInfoCache.typeInfoFor(ExtendedObject.class);
+		final TypeInfo otherExtendedTypeInfo = typeInfoCache.typeInfoFor(OtherExtendedObject.class);
+		final TypeInfo simpleTypeInfo = typeInfoCache.typeInfoFor(SimpleObject.class);
+
+		assertSame(extendedTypeInfo.classInfos().get(1), otherExtendedTypeInfo.classInfos().get(1));
+		assertSame(extendedTypeInfo.classInfos().get(1), simpleTypeInfo.classInfos().get(0));
+	}
+
+	@Test
+	public void usesFieldsFilterOnlyOncePerClass() {
+		final FieldsFilter fieldsFilter = spy(new FieldsFilter());
+		typeInfoCache = new TypeInfoCache(fieldsFilter);
+
+		typeInfoCache.typeInfoFor(ExtendedObject.class);
+		typeInfoCache.typeInfoFor(OtherExtendedObject.class);
+
+		verify(fieldsFilter, times(1)).getFilteredFields(SimpleObject.class, typeInfoCache);
+	}
+
+	@Test
+	public void preloadCreatesTypeInfosForAllGivenTypes() {
+		final FieldsFilter fieldsFilter = spy(new FieldsFilter());
+		typeInfoCache = new TypeInfoCache(fieldsFilter);
+
+		typeInfoCache.preload(Arrays.asList(ExtendedObject.class, TransitiveAnnotatedClass.class));
+
+		verify(fieldsFilter).getFilteredFields(ExtendedObject.class, typeInfoCache);
+		verify(fieldsFilter).getFilteredFields(SimpleObject.class, typeInfoCache);
+		verify(fieldsFilter).getFilteredFields(TransitiveAnnotatedClass.class, typeInfoCache);
+	}
+
+	@Test
+	public void preloadReportsHowManyTypesWereWarmed() {
+		final PreloadResult result = typeInfoCache.preload(Arrays.asList(ExtendedObject.class, SimpleObject.class, ExtendedObject.class));
+
+		assertThat(result.getTypeCount(), is(2));
+		assertThat(result.getDuration().isNegative(), is(false));
+	}
+
+	@Test
+	public void preloadSkipsTypesThatAreNeverFormatted() {
+		final PreloadResult result = typeInfoCache.preload(Arrays.asList(Runnable.class, Formatted.class, int.class, String[].class));
+
+		assertThat(result.getTypeCount(), is(0));
+	}
+
+	@Test
+	public void preloadSkipsTypesWithFieldsThatCannotBeLoaded() throws Exception {
+		final URL testClasses = getClass().getProtectionDomain().getCodeSource().getLocation();
+		final Class<?> typeWithMissingFieldType = new URLClassLoader(new URL[] { testClasses }, null).loadClass(ObjectWithFieldOfMissingType.class.getName());
+
+		final PreloadResult result = typeInfoCache.preload(Arrays.asList(typeWithMissingFieldType, ExtendedObject.class));
+
+		assertThat(result.getTypeCount(), is(1));
+	}
+
+	@Test
+	public void preloadPackageCreatesTypeInfosForClassesInDirectories() throws IOException {
+		final URL testClasses = getClass().getProtectionDomain().getCodeSource().getLocation();
+		assumeThat(testClasses.getProtocol(), is("file"));
+		assumeThat(new File(testClasses.getPath()).isDirectory(), is(true));
+		final FieldsFilter fieldsFilter = spy(new FieldsFilter());
+		typeInfoCache = new TypeInfoCache(fieldsFilter);
+
+		final PreloadResult result = typeInfoCache.preloadPackage(getClass().getPackage().getName(), getClass().getClassLoader());
+
+		assertThat(result.getTypeCount(), is(greaterThan(0)));
+		verify(fieldsFilter).getFilteredFields(ExtendedObject.class, typeInfoCache);
+	}
+
+	@Test
+	public void preloadPackageCreatesTypeInfosForClassesInJarFiles() throws IOException {
+		final URL junitClasses = Test.class.getProtectionDomain().getCodeSource().getLocation();
+		assumeThat(junitClasses.getPath(), endsWith(".jar"));
+		final FieldsFilter fieldsFilter = spy(new FieldsFilter());
+		typeInfoCache = new TypeInfoCache(fieldsFilter);
+
+		final PreloadResult result = typeInfoCache.preloadPackage("org.junit.runner", Test.class.getClassLoader());
+
+		assertThat(result.getTypeCount(), is(greaterThan(0)));
+		verify(fieldsFilter).getFilteredFields(org.junit.runner.JUnitCore.class, typeInfoCache);
+	}
+
+	private Class<?> loadWithIndexEntry(final Class<?> type) throws IOException, ClassNotFoundException {
+		return loadWithIndex(type,
+				"type " + type.getName() + " true ANNOTATED_FIELDS ANNOTADED_FIELDS",
+				"field included - DEFAULT NEVER",
+				"field notIncluded - NEVER NEVER");
+	}
+
+	/*
+	 * The type (and its nested classes) are loaded by a new class loader that sees the index, but generated formatters
+	 * must still implement the GeneratedFormatter interface of this class loader.
+	 */
+	private Class<?> loadWithIndex(final Class<?> type, final String... indexLines) throws IOException, ClassNotFoundException {
+		final File indexDirectory = temporaryFolder.newFolder();
+		final File indexFile = new File(indexDirectory, FormattedIndex.INDEX_RESOURCE);
+		assertThat(indexFile.getParentFile().mkdirs(), is(true));
+		Files.write(indexFile.toPath(), Arrays.asList(indexLines), StandardCharsets.UTF_8);
+
+		final URL testClasses = getClass().getProtectionDomain().getCodeSource().getLocation();
+		return new URLClassLoader(new URL[] { indexDirectory.toURI().toURL(), testClasses }, getClass().getClassLoader()) {
+			@Override
+			protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+				if(!name.startsWith(type.getName())) {
+					return super.loadClass(name, resolve);
+				}
+				synchronized(getClassLoadingLock(name)) {
+					final Class<?> loadedClass = findLoadedClass(name);
+					return loadedClass != null ? loadedClass : findClass(name);
+				}
+			}
+		}.loadClass(type.getName());
+	}
+
+	private WeakReference<ClassLoader> createTypeInfoFromDiscardedClassLoader() throws Exception {
+		final URL testClasses = getClass().getProtectionDomain().getCodeSource().getLocation();
+		final URLClassLoader classLoader = new URLClassLoader(new URL[] { testClasses }, null);
+
+		final Class<?> type = classLoader.loadClass(ObjectFromOtherClassLoader.class.getName());
+		assumeThat(type.getClassLoader(), is((Object) classLoader));
+		assertThat(typeInfoCache.typeInfoFor(type).classInfos().get(0).fieldInfos(), hasSize(1));
+
+		classLoader.close();
+		return new WeakReference<>(classLoader);
+	}
+
+	private static class ObjectWithFieldOfMissingType {
+		private TemporaryFolder missingInOtherClassLoader;
+	}
+
+	private static class ObjectFromOtherClassLoader {
+		private String value = "value";
+	}
+
 	private class SimpleObject {
 		private String foo;
 		private String bar;
@@ -160,6 +513,18 @@ public class TypeInfoCacheTest {
 		private String eBar;
 	}
 
+	private class OtherExtendedObject extends SimpleObject {
+		String otherField;
+	}
+
+	private static class ObjectWithAnnotatedFields {
+		@FormattedField
+		private String annotated;
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		private String annotatedTransitive;
+		private String notAnnotated;
+	}
+
 	private static class ObjectWithOtherFields {
 		private String field1;
 		private String field2;
@@ -185,4 +550,31 @@ public class TypeInfoCacheTest {
 			return super.toString();
 		}
 	}
-}
\ No newline at end of file
+
+	private static class ObjectWithGeneratedFormatter {
+		private String included;
+		private String notIncluded;
+	}
+
+	static class ObjectWithFormatterClass {
+		private String described;
+
+		public static class Formatter implements GeneratedFormatter {
+			@Override
+			public FormattedInclude formattedInclude() {
+				return FormattedInclude.ANNOTATED_FIELDS;
+			}
+
+			@Override
+			public TransitiveInclude transitiveInclude() {
+				return TransitiveInclude.ANNOTADED_FIELDS;
+			}
+
+			@Override
+			public void describeFields(final Fields fields) {
+				fields.add("described", String.class, MethodHandles.dropArguments(MethodHandles.constant(String.class, "generated"), 0, Object.class),
+						null, FormattedFieldType.DEFAULT, FormattedFieldType.NEVER);
+			}
+		}
+	}
+}
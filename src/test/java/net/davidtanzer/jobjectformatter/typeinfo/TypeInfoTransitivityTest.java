@@ -47,6 +47,16 @@ public class TypeInfoTransitivityTest {
 				hasProperty("transitiveIncludeOfTarget", is(TransitiveInclude.ALL_FIELDS)))));
 	}
 
+	@Test
+	public void typeInfosForEnumsAreTransitive() {
+		final TypeInfo info = typeInfoCache.typeInfoFor(DependentObject.class);
+
+		List<PropertyInfo> propertyInfos = info.classInfos().get(0).fieldInfos();
+		assertThat(propertyInfos, hasItem(allOf(
+				hasProperty("name", is("someEnum")),
+				hasProperty("transitiveIncludeOfTarget", is(TransitiveInclude.ALL_FIELDS)))));
+	}
+
 	@Test
 	public void typeInfosForOtherDependenciesAreNotTransitiveByDefault() {
 		final TypeInfo info = typeInfoCache.typeInfoFor(DependentObject.class);
@@ -85,9 +95,14 @@ public class TypeInfoTransitivityTest {
 		String notTransitive;
 	}
 
+	private enum SomeEnum {
+		SOME_VALUE
+	}
+
 	private class DependentObject {
 		private SimpleObject so;
 		@Formatted
 		private SimpleObject soTransitive;
+		private SomeEnum someEnum;
 	}
 }
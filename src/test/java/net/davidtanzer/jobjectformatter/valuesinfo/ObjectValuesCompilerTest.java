@@ -16,6 +16,8 @@
 package net.davidtanzer.jobjectformatter.valuesinfo;
 
 import net.davidtanzer.jobjectformatter.annotations.*;
+import net.davidtanzer.jobjectformatter.formatter.SimpleFormatter;
+import net.davidtanzer.jobjectformatter.typeinfo.ClassNaming;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfo;
 import net.davidtanzer.jobjectformatter.typeinfo.TypeInfoCache;
 import org.junit.Before;
@@ -25,6 +27,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assume.assumeThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 public class ObjectValuesCompilerTest {
 	private ObjectValuesCompiler objectValuesCompiler;
@@ -47,6 +54,18 @@ public class ObjectValuesCompilerTest {
 		));
 	}
 
+	@Test
+	public void keepsTheTypeInfosTheValuesWereCompiledFrom() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ExtendedObject.class);
+
+		final ObjectValuesInfo info = objectValuesCompiler.compileToStringInfo(typeInfo, new ExtendedObject());
+
+		assertThat(info.getTypeInfo(), is(sameInstance(typeInfo)));
+		final GroupedValuesInfo classValuesInfo = info.getValuesByClass().get(0);
+		assertThat(classValuesInfo.getClassInfo(), is(sameInstance(typeInfo.classInfos().get(0))));
+		assertThat(classValuesInfo.getValues().get(0).getPropertyInfo(), is(sameInstance(typeInfo.classInfos().get(0).fieldInfos().get(0))));
+	}
+
 	@Test
 	public void addsValuesForAllFieldsToClassValueInfo() {
 		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ExtendedObject.class);
@@ -89,6 +108,51 @@ public class ObjectValuesCompilerTest {
 		));
 	}
 
+	@Test
+	public void doesNotCompileTransitiveValues_WhenTransitivityIsNotAllowed() {
+		final TypeInfoCache typeInfoCache = spy(new TypeInfoCache());
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(ContainingObject.class);
+
+		new ObjectValuesCompiler(typeInfoCache).compileToStringInfo(typeInfo, new ContainingObject());
+
+		verify(typeInfoCache, never()).typeInfoFor(eq(SimpleContainedObject.class), any());
+	}
+
+	@Test
+	public void doesNotCompileTransitiveValues_WhenTransitivityIsSetToAlways() {
+		final TypeInfoCache typeInfoCache = spy(new TypeInfoCache());
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(ContainingObjectAlwaysTransitive.class);
+
+		new ObjectValuesCompiler(typeInfoCache).compileToStringInfo(typeInfo, new ContainingObjectAlwaysTransitive());
+
+		verify(typeInfoCache, never()).typeInfoFor(eq(SimpleContainedObject.class), any());
+	}
+
+	@Test
+	public void doesNotCreateTypeInfoForLeafValues() {
+		final TypeInfoCache typeInfoCache = spy(new TypeInfoCache());
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(ObjectWithLeafValues.class);
+
+		new ObjectValuesCompiler(typeInfoCache).compileToStringInfo(typeInfo, new ObjectWithLeafValues());
+
+		verify(typeInfoCache, never()).typeInfoFor(eq(String.class), any());
+		verify(typeInfoCache, never()).typeInfoFor(eq(Long.class), any());
+		verify(typeInfoCache, never()).typeInfoFor(eq(LeafEnum.class), any());
+	}
+
+	@Test
+	public void abbreviatesLeafValues_WhenTransitivityIsSetToAnnotated() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ObjectWithLeafValues.class);
+		final ObjectValuesInfo info = objectValuesCompiler.compileToStringInfo(typeInfo, new ObjectWithLeafValues());
+
+		assertThat(info.getAllValues(), contains(
+				is(new ValueInfo("string", "string val", String.class)),
+				is(new ValueInfo("number", 42L, Long.class)),
+				is(new ValueInfo("leafEnum", LeafEnum.LEAF, LeafEnum.class)),
+				is(new ValueInfo("annotatedString", "[not null]", String.class))
+		));
+	}
+
 	@Test
 	public void includesAnnotatedTransitiveValues_WhenTransitivityIsSetToAnnotated() {
 		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObjectAnnotatedTransitive.class);
@@ -149,6 +213,174 @@ public class ObjectValuesCompilerTest {
 		assertThat(classValuesInfo.getValues(), contains(hasProperty("propertyName", is("bar"))));
 	}
 
+	@Test
+	public void compileToSendsTheSameValuesToTheListenerAsCompileToStringInfo() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ExtendedObject.class);
+		final ExtendedObject object = new ExtendedObject();
+
+		final ObjectValuesInfo info = objectValuesCompiler.compileToStringInfo(typeInfo, object);
+		final ObjectValuesInfo streamedInfo = compileWithListener(typeInfo, object);
+
+		assertThat(streamedInfo.getType(), is((Object) info.getType()));
+		assertThat(streamedInfo.getAllValues(), is(info.getAllValues()));
+		assertThat(streamedInfo.getValuesByClass(), contains(
+				hasProperty("groupName", is("ExtendedObject")),
+				hasProperty("groupName", is("SimpleObject"))
+		));
+	}
+
+	@Test
+	public void compileToSendsTransitiveValuesAsNestedValues() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObjectAnnotatedTransitive.class);
+
+		final ObjectValuesInfo streamedInfo = compileWithListener(typeInfo, new ContainingObjectAnnotatedTransitive());
+
+		assertThat(streamedInfo.getAllValues().get(0).getValue(), instanceOf(ObjectValuesInfo.class));
+		final ObjectValuesInfo innerValuesInfo = (ObjectValuesInfo) streamedInfo.getAllValues().get(0).getValue();
+		assertThat(innerValuesInfo.getAllValues(), contains(hasProperty("propertyName", is("prop1"))));
+	}
+
+	@Test
+	public void compileToSendsAbbreviation_WhenAnnotatedTransitiveObjectHasNoValues() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObjectAnnotatedTransitiveWithoutValues.class);
+
+		final ObjectValuesInfo streamedInfo = compileWithListener(typeInfo, new ContainingObjectAnnotatedTransitiveWithoutValues());
+
+		assertThat(streamedInfo.getAllValues(), contains(hasProperty("value", is((Object) "[not null]"))));
+	}
+
+	@Test
+	public void marksCyclicReferences_InsteadOfCompilingThemAgain() {
+		final CyclicPerson person = new CyclicPerson();
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(CyclicPerson.class);
+
+		final ObjectValuesInfo info = objectValuesCompiler.compileToStringInfo(typeInfo, person);
+
+		final ObjectValuesInfo addressInfo = (ObjectValuesInfo) info.getAllValues().get(1).getValue();
+		assertThat(addressInfo.getAllValues(), contains(
+				hasProperty("value", is((Object) "Evergreen Terrace")),
+				hasProperty("value", is((Object) "<cycle CyclicPerson@1>"))
+		));
+	}
+
+	@Test
+	public void marksSharedReferences_WhenTheyWereAlreadyCompiled() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ObjectWithSharedReferences.class);
+
+		final ObjectValuesInfo info = objectValuesCompiler.compileToStringInfo(typeInfo, new ObjectWithSharedReferences());
+
+		assertThat(info.getAllValues().get(0).getValue(), instanceOf(ObjectValuesInfo.class));
+		assertThat(info.getAllValues().get(1).getValue(), is((Object) "<ref SimpleContainedObject@2>"));
+	}
+
+	@Test
+	public void compileToMarksCyclicReferences() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(CyclicPerson.class);
+
+		final ObjectValuesInfo streamedInfo = compileWithListener(typeInfo, new CyclicPerson());
+
+		final ObjectValuesInfo addressInfo = (ObjectValuesInfo) streamedInfo.getAllValues().get(1).getValue();
+		assertThat(addressInfo.getAllValues().get(1).getValue(), is((Object) "<cycle CyclicPerson@1>"));
+	}
+
+	@Test
+	public void marksReferencesWithTheDisplayNamesOfTheTypeInfoCache() {
+		final TypeInfoCache typeInfoCache = new TypeInfoCache(true, ClassNaming.FULLY_QUALIFIED);
+		final TypeInfo typeInfo = typeInfoCache.typeInfoFor(CyclicPerson.class);
+
+		final ObjectValuesInfo info = new ObjectValuesCompiler(typeInfoCache).compileToStringInfo(typeInfo, new CyclicPerson());
+
+		final ObjectValuesInfo addressInfo = (ObjectValuesInfo) info.getAllValues().get(1).getValue();
+		assertThat(addressInfo.getAllValues().get(1).getValue(), is((Object) ("<cycle " + CyclicPerson.class.getName() + "@1>")));
+	}
+
+	@Test
+	public void truncatesTransitiveObjects_DeeperThanMaxDepth() {
+		final ObjectValuesCompiler limitedCompiler = new ObjectValuesCompiler(new TypeInfoCache(), 1, Integer.MAX_VALUE);
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ContainingObjectAnnotatedTransitive.class);
+		final ContainingObjectAnnotatedTransitive object = new ContainingObjectAnnotatedTransitive();
+
+		assertThat(limitedCompiler.compileToStringInfo(typeInfo, object).getAllValues().get(0).getValue(), instanceOf(ObjectValuesInfo.class));
+
+		final ObjectValuesCompiler notTransitiveCompiler = new ObjectValuesCompiler(new TypeInfoCache(), 0, Integer.MAX_VALUE);
+		assertThat(notTransitiveCompiler.compileToStringInfo(typeInfo, object).getAllValues().get(0).getValue(), is((Object) ObjectValuesCompiler.TRUNCATION_MARKER));
+	}
+
+	@Test
+	public void truncatesValues_AfterMaxFieldsPerObject() {
+		final ObjectValuesCompiler limitedCompiler = new ObjectValuesCompiler(new TypeInfoCache(), Integer.MAX_VALUE, 3);
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ExtendedObject.class);
+
+		final ObjectValuesInfo info = limitedCompiler.compileToStringInfo(typeInfo, new ExtendedObject());
+
+		assertThat(info.getAllValues(), contains(
+				hasProperty("propertyName", is("eFoo")),
+				hasProperty("propertyName", is("eBar")),
+				hasProperty("propertyName", is("foo")),
+				hasProperty("value", is((Object) ObjectValuesCompiler.TRUNCATION_MARKER))
+		));
+	}
+
+	@Test
+	public void compileToTruncatesValues_AfterMaxFieldsPerObject() {
+		objectValuesCompiler = new ObjectValuesCompiler(new TypeInfoCache(), Integer.MAX_VALUE, 1);
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ExtendedObject.class);
+
+		final ObjectValuesInfo streamedInfo = compileWithListener(typeInfo, new ExtendedObject());
+
+		assertThat(streamedInfo.getAllValues(), contains(
+				hasProperty("propertyName", is("eFoo")),
+				hasProperty("propertyName", is(ObjectValuesCompiler.TRUNCATED_VALUES_NAME))
+		));
+	}
+
+	@Test
+	public void snapshotKeepsTheFieldValues_AtTheTimeOfTheSnapshot() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(ExtendedObject.class);
+		final ExtendedObject object = new ExtendedObject();
+
+		final ObjectValuesSnapshot snapshot = objectValuesCompiler.snapshot(typeInfo, object);
+		object.eFoo = "changed";
+		object.foo = "changed";
+		final ObjectValuesInfo info = objectValuesCompiler.compileToStringInfo(snapshot);
+
+		assertThat(info.getAllValues(), contains(
+				hasProperty("value", is((Object) "eFoo val")),
+				hasProperty("value", is((Object) "eBar val")),
+				hasProperty("value", is((Object) "foo val")),
+				hasProperty("value", is((Object) "bar val"))
+		));
+	}
+
+	@Test
+	public void compilesSnapshotTheSameWayAsTheObject() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(CyclicPerson.class);
+		final CyclicPerson object = new CyclicPerson();
+
+		final ObjectValuesInfo info = objectValuesCompiler.compileToStringInfo(typeInfo, object);
+		final ObjectValuesInfo snapshotInfo = objectValuesCompiler.compileToStringInfo(objectValuesCompiler.snapshot(typeInfo, object));
+
+		assertThat(new SimpleFormatter().format(snapshotInfo), is(new SimpleFormatter().format(info)));
+	}
+
+	@Test
+	public void compileToSendsTheSameValuesForSnapshotAsForTheObject() {
+		final TypeInfo typeInfo = new TypeInfoCache().typeInfoFor(CyclicPerson.class);
+		final CyclicPerson object = new CyclicPerson();
+		final ObjectValuesInfo[] snapshotInfo = new ObjectValuesInfo[1];
+
+		final ObjectValuesInfo info = compileWithListener(typeInfo, object);
+		objectValuesCompiler.compileTo(objectValuesCompiler.snapshot(typeInfo, object), new ObjectValuesCollector(i -> snapshotInfo[0] = i));
+
+		assertThat(new SimpleFormatter().format(snapshotInfo[0]), is(new SimpleFormatter().format(info)));
+	}
+
+	private ObjectValuesInfo compileWithListener(final TypeInfo typeInfo, final Object object) {
+		final ObjectValuesInfo[] result = new ObjectValuesInfo[1];
+		objectValuesCompiler.compileTo(typeInfo, object, new ObjectValuesCollector(info -> result[0] = info));
+		return result[0];
+	}
+
 	private class SimpleObject {
 		String foo="foo val";
 		String bar="bar val";
@@ -186,6 +418,36 @@ public class ObjectValuesCompilerTest {
 		SimpleContainedObject containedObject = new SimpleContainedObject();
 	}
 
+	private class ContainingObjectAnnotatedTransitiveWithoutValues {
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		SimpleObject simpleObject = new SimpleObject();
+	}
+
+	private class ObjectWithSharedReferences {
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		SimpleContainedObject first = new SimpleContainedObject();
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		SimpleContainedObject second = first;
+	}
+
+	private class CyclicPerson {
+		String name = "Jane";
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		CyclicAddress address = new CyclicAddress(this);
+	}
+
+	private class CyclicAddress {
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		String street = "Evergreen Terrace";
+		@FormattedField(transitive = FormattedFieldType.DEFAULT)
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		CyclicPerson owner;
+
+		CyclicAddress(final CyclicPerson owner) {
+			this.owner = owner;
+		}
+	}
+
 	private class SimpleUnAnnotatedContainedObject {
 		@FormattedField(transitive = FormattedFieldType.DEFAULT)
 		String prop1 = "contained property 1";
@@ -197,6 +459,18 @@ public class ObjectValuesCompilerTest {
 		SimpleUnAnnotatedContainedObject containedObject = new SimpleUnAnnotatedContainedObject();
 	}
 
+	private enum LeafEnum {
+		LEAF
+	}
+
+	private class ObjectWithLeafValues {
+		String string = "string val";
+		Long number = 42L;
+		LeafEnum leafEnum = LeafEnum.LEAF;
+		@Formatted(transitive = TransitiveInclude.ANNOTADED_FIELDS)
+		String annotatedString = "annotated val";
+	}
+
 	@Formatted(value = FormattedInclude.ANNOTATED_FIELDS)
 	private class FormattedObjectWithoutFields {
 		private String foo = "foo";